@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.application.util.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Splits a big comparison into independent chunks and compares them in parallel.
+ * <p/>
+ * Chunks are separated by the longest increasing sequence of unique common elements (see {@link UniqueLCS}) - the same anchors
+ * the patience diff starts with. Anchors are always matched, so the result is a common subsequence, but not necessarily
+ * the one which the algorithm would find for the whole input: matches crossing an anchor are lost, as in the patience diff.
+ * Each chunk is compared separately, so the change thresholds of {@link MyersLCS} apply to the chunk, not to the whole input.
+ */
+class ChunkedLCS {
+  interface RangeLCS {
+    BitSet[] execute(int[] first, int[] second) throws FilesTooBigForDiffException;
+  }
+
+  // minimal total length of both sequences worth splitting
+  static final int THRESHOLD = 20000;
+
+  private static final int CHUNK_SIZE = 4000;
+
+  private final int[] myFirst;
+  private final int[] mySecond;
+  private final RangeLCS myLCS;
+
+  ChunkedLCS(int[] first, int[] second, RangeLCS lcs) {
+    myFirst = first;
+    mySecond = second;
+    myLCS = lcs;
+  }
+
+  static boolean isApplicable(int[] first, int[] second) {
+    return first.length + second.length >= THRESHOLD && Runtime.getRuntime().availableProcessors() > 1;
+  }
+
+  public BitSet[] execute() throws FilesTooBigForDiffException {
+    List<int[]> chunks = split();
+    if (chunks.size() < 2) {
+      return myLCS.execute(myFirst, mySecond);
+    }
+
+    BitSet[][] results = new BitSet[chunks.size()][];
+    AtomicReference<FilesTooBigForDiffException> tooBig = new AtomicReference<>();
+    IntStream.range(0, chunks.size()).parallel().forEach(i -> {
+      if (tooBig.get() != null) return;
+
+      int[] chunk = chunks.get(i);
+      try {
+        results[i] = myLCS.execute(Arrays.copyOfRange(myFirst, chunk[0], chunk[1]), Arrays.copyOfRange(mySecond, chunk[2], chunk[3]));
+      }
+      catch (FilesTooBigForDiffException e) {
+        tooBig.compareAndSet(null, e);
+      }
+    });
+
+    if (tooBig.get() != null) {
+      throw tooBig.get();
+    }
+
+    BitSet changes1 = new BitSet(myFirst.length);
+    BitSet changes2 = new BitSet(mySecond.length);
+    for (int i = 0; i < chunks.size(); i++) {
+      int[] chunk = chunks.get(i);
+      copyChanges(results[i][0], changes1, chunk[0]);
+      copyChanges(results[i][1], changes2, chunk[2]);
+    }
+    return new BitSet[]{changes1, changes2};
+  }
+
+  /**
+   * @return chunks {begin1, end1, begin2, end2}, anchors between chunks are matched
+   */
+  private List<int[]> split() {
+    List<int[]> chunks = new ArrayList<>();
+
+    int[][] anchors = new UniqueLCS(myFirst, mySecond).execute();
+    int begin1 = 0;
+    int begin2 = 0;
+    if (anchors != null) {
+      for (int i = 0; i < anchors[0].length; i++) {
+        int anchor1 = anchors[0][i];
+        int anchor2 = anchors[1][i];
+        if (anchor1 - begin1 + anchor2 - begin2 >= CHUNK_SIZE) {
+          chunks.add(new int[]{begin1, anchor1, begin2, anchor2});
+          begin1 = anchor1 + 1;
+          begin2 = anchor2 + 1;
+        }
+      }
+    }
+    chunks.add(new int[]{begin1, myFirst.length, begin2, mySecond.length});
+    return chunks;
+  }
+
+  private static void copyChanges(BitSet from, BitSet to, int offset) {
+    for (int i = from.nextSetBit(0); i >= 0; i = from.nextSetBit(i + 1)) {
+      to.set(offset + i);
+    }
+  }
+}
@@ -29,6 +29,7 @@ import jakarta.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author dyoma
@@ -38,9 +39,11 @@ public class Diff {
 
   @Nullable
   public static Change buildChanges(@Nonnull CharSequence before, @Nonnull CharSequence after) throws FilesTooBigForDiffException {
-    final String[] strings1 = LineTokenizer.tokenize(before, false);
-    final String[] strings2 = LineTokenizer.tokenize(after, false);
-    return buildChanges(strings1, strings2);
+    // lines are compared in place, without creating a string per line
+    LineEnumerator enumerator = new LineEnumerator((before.length() + after.length()) / 40);
+    int[] lines1 = enumerator.enumerate(before);
+    int[] lines2 = enumerator.enumerate(after);
+    return buildChanges(lines1, lines2);
   }
 
   @Nullable
@@ -100,30 +103,60 @@ public class Diff {
       return builder.getFirstChange();
     }
 
+    boolean patience = Registry.is("diff.patience.alg");
+    boolean histogram = Registry.is("diff.histogram.alg");
+    // chunks of a big input are compared separately, the fallback is reported once per comparison
+    AtomicBoolean patienceFallback = new AtomicBoolean();
+    ChunkedLCS.RangeLCS lcs = (first, second) -> buildLCS(first, second, patience, histogram, patienceFallback);
+
     BitSet[] changes;
-    if (Registry.is("diff.patience.alg")) {
-      PatienceIntLCS patienceIntLCS = new PatienceIntLCS(discarded[0], discarded[1]);
-      patienceIntLCS.execute();
-      changes = patienceIntLCS.getChanges();
+    if (Registry.is("diff.parallel.chunks") && ChunkedLCS.isApplicable(discarded[0], discarded[1])) {
+      changes = new ChunkedLCS(discarded[0], discarded[1], lcs).execute();
     }
     else {
-      try {
-        MyersLCS intLCS = new MyersLCS(discarded[0], discarded[1]);
-        intLCS.executeWithThreshold();
-        changes = intLCS.getChanges();
-      }
-      catch (FilesTooBigForDiffException e) {
-        PatienceIntLCS patienceIntLCS = new PatienceIntLCS(discarded[0], discarded[1]);
-        patienceIntLCS.execute(true);
-        changes = patienceIntLCS.getChanges();
-        LOG.info("Successful fallback to patience diff");
-      }
+      changes = lcs.execute(discarded[0], discarded[1]);
+    }
+
+    if (patienceFallback.get()) {
+      LOG.info("Successful fallback to patience diff");
     }
 
     reindexer.reindex(changes, builder);
     return builder.getFirstChange();
   }
 
+  @Nonnull
+  private static BitSet[] buildLCS(@Nonnull int[] first,
+                                   @Nonnull int[] second,
+                                   boolean patience,
+                                   boolean histogram,
+                                   @Nonnull AtomicBoolean patienceFallback)
+          throws FilesTooBigForDiffException {
+    if (histogram) {
+      HistogramIntLCS histogramIntLCS = new HistogramIntLCS(first, second);
+      histogramIntLCS.execute();
+      return histogramIntLCS.getChanges();
+    }
+
+    if (patience) {
+      PatienceIntLCS patienceIntLCS = new PatienceIntLCS(first, second);
+      patienceIntLCS.execute();
+      return patienceIntLCS.getChanges();
+    }
+
+    try {
+      MyersLCS intLCS = new MyersLCS(first, second);
+      intLCS.executeWithThreshold();
+      return intLCS.getChanges();
+    }
+    catch (FilesTooBigForDiffException e) {
+      PatienceIntLCS patienceIntLCS = new PatienceIntLCS(first, second);
+      patienceIntLCS.execute(true);
+      patienceFallback.set(true);
+      return patienceIntLCS.getChanges();
+    }
+  }
+
   private static <T> int getStartShift(@Nonnull final T[] o1, @Nonnull final T[] o2) {
     final int size = Math.min(o1.length, o2.length);
     int idx = 0;
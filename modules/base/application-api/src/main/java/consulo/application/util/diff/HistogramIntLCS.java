@@ -0,0 +1,182 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.application.util.diff;
+
+import consulo.util.collection.primitive.ints.IntIntMap;
+import consulo.util.collection.primitive.ints.IntMaps;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+
+/**
+ * Histogram diff: an extension of the patience diff which anchors on the least frequent common element instead of
+ * unique ones only, so it keeps splitting the problem on inputs with few unique lines (generated code, dumps).
+ * The common region around the anchor is matched, and the parts before and after it are processed the same way.
+ * Ranges without any common element rarer than {@link #MAX_CHAIN_LENGTH} are compared by {@link MyersLCS}.
+ * <p/>
+ * Ranges are processed with an explicit stack, as the depth of splitting is up to the number of elements.
+ */
+class HistogramIntLCS {
+  private static final int MAX_CHAIN_LENGTH = 64;
+
+  private final int[] myFirst;
+  private final int[] mySecond;
+
+  private final int myStart1;
+  private final int myStart2;
+  private final int myCount1;
+  private final int myCount2;
+
+  private final BitSet myChanges1;
+  private final BitSet myChanges2;
+
+  HistogramIntLCS(int[] first, int[] second) {
+    this(first, second, 0, first.length, 0, second.length, new BitSet(first.length), new BitSet(second.length));
+  }
+
+  HistogramIntLCS(int[] first, int[] second, int start1, int count1, int start2, int count2, BitSet changes1, BitSet changes2) {
+    myFirst = first;
+    mySecond = second;
+    myStart1 = start1;
+    myStart2 = start2;
+    myCount1 = count1;
+    myCount2 = count2;
+
+    myChanges1 = changes1;
+    myChanges2 = changes2;
+  }
+
+  public void execute() {
+    Deque<int[]> ranges = new ArrayDeque<>();
+    ranges.push(new int[]{myStart1, myCount1, myStart2, myCount2});
+    while (!ranges.isEmpty()) {
+      int[] range = ranges.pop();
+      execute(range[0], range[1], range[2], range[3], ranges);
+    }
+  }
+
+  private void execute(int start1, int count1, int start2, int count2, Deque<int[]> ranges) {
+    int startOffset = matchForward(start1, count1, start2, count2);
+    start1 += startOffset;
+    start2 += startOffset;
+    count1 -= startOffset;
+    count2 -= startOffset;
+
+    int endOffset = matchBackward(start1, count1, start2, count2);
+    count1 -= endOffset;
+    count2 -= endOffset;
+
+    if (count1 == 0 || count2 == 0) {
+      addChange(start1, count1, start2, count2);
+      return;
+    }
+
+    int[] region = findRegion(start1, count1, start2, count2);
+    if (region == null) {
+      new MyersLCS(myFirst, mySecond, start1, count1, start2, count2, myChanges1, myChanges2).executeLinear();
+      return;
+    }
+
+    ranges.push(new int[]{region[1], start1 + count1 - region[1], region[3], start2 + count2 - region[3]});
+    ranges.push(new int[]{start1, region[0] - start1, start2, region[2] - start2});
+  }
+
+  /**
+   * @return the longest common region around the least frequent common element: {begin1, end1, begin2, end2}, or null
+   */
+  private int[] findRegion(int start1, int count1, int start2, int count2) {
+    // value -> (last index in the first range + 1), chained to previous occurrences through 'previous'
+    IntIntMap heads = IntMaps.newIntIntHashMap(count1);
+    IntIntMap counts = IntMaps.newIntIntHashMap(count1);
+    int[] previous = new int[count1];
+    for (int i = 0; i < count1; i++) {
+      int value = myFirst[start1 + i];
+      previous[i] = heads.getInt(value);
+      heads.putInt(value, i + 1);
+      counts.putInt(value, counts.getInt(value) + 1);
+    }
+
+    int end1 = start1 + count1;
+    int end2 = start2 + count2;
+
+    int[] best = null;
+    int bestCount = MAX_CHAIN_LENGTH + 1;
+    int bestLength = 0;
+
+    int j = start2;
+    while (j < end2) {
+      int value = mySecond[j];
+      int count = counts.getInt(value);
+      int next = j + 1;
+      if (count > 0 && count <= Math.min(bestCount, MAX_CHAIN_LENGTH)) {
+        for (int i = heads.getInt(value); i != 0; i = previous[i - 1]) {
+          int begin1 = start1 + i - 1;
+          int begin2 = j;
+          while (begin1 > start1 && begin2 > start2 && myFirst[begin1 - 1] == mySecond[begin2 - 1]) {
+            begin1--;
+            begin2--;
+          }
+          int regionEnd1 = start1 + i;
+          int regionEnd2 = j + 1;
+          while (regionEnd1 < end1 && regionEnd2 < end2 && myFirst[regionEnd1] == mySecond[regionEnd2]) {
+            regionEnd1++;
+            regionEnd2++;
+          }
+
+          int length = regionEnd2 - begin2;
+          if (count < bestCount || length > bestLength) {
+            best = new int[]{begin1, regionEnd1, begin2, regionEnd2};
+            bestCount = count;
+            bestLength = length;
+          }
+          next = Math.max(next, regionEnd2);
+        }
+      }
+      j = next;
+    }
+    return best;
+  }
+
+  private int matchForward(int start1, int count1, int start2, int count2) {
+    final int size = Math.min(count1, count2);
+    int idx = 0;
+    for (int i = 0; i < size; i++) {
+      if (!(myFirst[start1 + i] == mySecond[start2 + i])) break;
+      ++idx;
+    }
+    return idx;
+  }
+
+  private int matchBackward(int start1, int count1, int start2, int count2) {
+    final int size = Math.min(count1, count2);
+    int idx = 0;
+    for (int i = 1; i <= size; i++) {
+      if (!(myFirst[start1 + count1 - i] == mySecond[start2 + count2 - i])) break;
+      ++idx;
+    }
+    return idx;
+  }
+
+  private void addChange(int start1, int count1, int start2, int count2) {
+    myChanges1.set(start1, start1 + count1);
+    myChanges2.set(start2, start2 + count2);
+  }
+
+  public BitSet[] getChanges() {
+    return new BitSet[]{myChanges1, myChanges2};
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.application.util.diff;
+
+import consulo.application.util.LineTokenizer;
+import jakarta.annotation.Nonnull;
+
+import java.util.Arrays;
+
+/**
+ * Enumerates lines of texts (as {@link LineTokenizer#tokenize(CharSequence, boolean)} without separators splits them)
+ * directly on the text - equal lines get equal ids, and no {@link String} is created per line.
+ */
+class LineEnumerator {
+  // text, start and end of the first line with the id
+  private CharSequence[] myTexts;
+  private int[] myStarts;
+  private int[] myEnds;
+  private int[] myHashes;
+  private int myCount;
+
+  // open addressing table of (id + 1)
+  private int[] myTable;
+
+  LineEnumerator(int expectedLines) {
+    int capacity = Math.max(16, expectedLines);
+    myTexts = new CharSequence[capacity];
+    myStarts = new int[capacity];
+    myEnds = new int[capacity];
+    myHashes = new int[capacity];
+    myTable = new int[tableSize(capacity)];
+  }
+
+  @Nonnull
+  int[] enumerate(@Nonnull CharSequence text) {
+    if (text.length() == 0) {
+      return new int[0];
+    }
+
+    int[] result = new int[16];
+    int count = 0;
+    LineTokenizer tokenizer = new LineTokenizer(text);
+    while (!tokenizer.atEnd()) {
+      if (count == result.length) {
+        result = Arrays.copyOf(result, count * 2);
+      }
+      int start = tokenizer.getOffset();
+      result[count++] = enumerate(text, start, start + tokenizer.getLength());
+      tokenizer.advance();
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private int enumerate(CharSequence text, int start, int end) {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + text.charAt(i);
+    }
+
+    int mask = myTable.length - 1;
+    int slot = mix(hash) & mask;
+    while (true) {
+      int id = myTable[slot] - 1;
+      if (id < 0) {
+        break;
+      }
+      if (myHashes[id] == hash && regionsEqual(myTexts[id], myStarts[id], myEnds[id], text, start, end)) {
+        return id;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    int id = myCount++;
+    if (id == myTexts.length) {
+      int capacity = id * 2;
+      myTexts = Arrays.copyOf(myTexts, capacity);
+      myStarts = Arrays.copyOf(myStarts, capacity);
+      myEnds = Arrays.copyOf(myEnds, capacity);
+      myHashes = Arrays.copyOf(myHashes, capacity);
+    }
+    myTexts[id] = text;
+    myStarts[id] = start;
+    myEnds[id] = end;
+    myHashes[id] = hash;
+    myTable[slot] = id + 1;
+
+    if (myCount * 2 > myTable.length) {
+      rehash();
+    }
+    return id;
+  }
+
+  private void rehash() {
+    int[] table = new int[myTable.length * 2];
+    int mask = table.length - 1;
+    for (int id = 0; id < myCount; id++) {
+      int slot = mix(myHashes[id]) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = id + 1;
+    }
+    myTable = table;
+  }
+
+  private static boolean regionsEqual(CharSequence text1, int start1, int end1, CharSequence text2, int start2, int end2) {
+    if (end1 - start1 != end2 - start2) {
+      return false;
+    }
+    for (int i = 0; i < end1 - start1; i++) {
+      if (text1.charAt(start1 + i) != text2.charAt(start2 + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int mix(int hash) {
+    int h = hash * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static int tableSize(int capacity) {
+    return Integer.highestOneBit(capacity * 2 - 1) << 1;
+  }
+}
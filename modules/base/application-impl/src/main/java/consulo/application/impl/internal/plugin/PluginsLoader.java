@@ -293,9 +293,11 @@ public class PluginsLoader {
       pluginsCount += countPlugins(pluginsPath);
     }
 
+    PluginDescriptorCache cache = PluginDescriptorCache.load(new File(ContainerPathManager.get().getSystemPath(), PluginDescriptorCache.CACHE_FILE_NAME), C_LOG);
     for (String pluginsPath : pluginsPaths) {
-      loadDescriptors(pluginsPath, result, progress, pluginsCount, isHeadlessMode, stat, false);
+      loadDescriptors(new File(pluginsPath), result, progress, pluginsCount, stat, isHeadlessMode, false, cache);
     }
+    cache.save();
 
     return result;
   }
@@ -317,14 +319,25 @@ public class PluginsLoader {
                                      StatCollector stat,
                                      boolean isHeadlessMode,
                                      boolean isPreInstalledPath) {
+    loadDescriptors(pluginsHome, result, progress, pluginsCount, stat, isHeadlessMode, isPreInstalledPath, null);
+  }
+
+  private static void loadDescriptors(@Nonnull File pluginsHome,
+                                      List<PluginDescriptorImpl> result,
+                                      @Nullable StartupProgress progress,
+                                      int pluginsCount,
+                                      StatCollector stat,
+                                      boolean isHeadlessMode,
+                                      boolean isPreInstalledPath,
+                                      @Nullable PluginDescriptorCache cache) {
     final File[] files = pluginsHome.listFiles();
     if (files != null) {
+      // descriptors are loaded concurrently, but merged in the directory order to keep duplicate resolution stable
+      final PluginDescriptorImpl[] descriptors = PluginDescriptorLoader.loadDescriptors(files, isPreInstalledPath, C_LOG, stat, cache);
+
       int i = result.size();
-      for (File file : files) {
-        Runnable mark = stat.mark(file.getName());
-        final PluginDescriptorImpl descriptor = PluginDescriptorLoader.loadDescriptor(file, isPreInstalledPath, C_LOG);
+      for (PluginDescriptorImpl descriptor : descriptors) {
         if (descriptor == null) {
-          mark.run();
           continue;
         }
 
@@ -341,7 +354,6 @@ public class PluginsLoader {
         else {
           result.add(descriptor);
         }
-        mark.run();
       }
     }
   }
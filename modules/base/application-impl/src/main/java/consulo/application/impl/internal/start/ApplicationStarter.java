@@ -31,6 +31,7 @@ import consulo.component.internal.inject.TopicBindingLoader;
 import consulo.container.boot.ContainerPathManager;
 import consulo.container.classloader.PluginClassLoader;
 import consulo.container.impl.ShowErrorCaller;
+import consulo.container.impl.classloader.ClassPreloadProfile;
 import consulo.container.impl.classloader.PluginLoadStatistics;
 import consulo.container.plugin.PluginDescriptor;
 import consulo.container.plugin.PluginManager;
@@ -133,9 +134,11 @@ public abstract class ApplicationStarter {
     libraryStats.markWith("library.analyze", () -> analyzeLibraries(filesWithMarkers));
 
     libraryStats.markWith("localize.initialize",
-                          () -> localizeManager.initialize(filesWithMarkers.get(LocalizeManagerImpl.LOCALIZE_DIRECTORY)));
+                          () -> localizeManager.initialize(filesWithMarkers.get(LocalizeManagerImpl.LOCALIZE_DIRECTORY),
+                                                          ContainerPathManager.get().getSystemDir().resolve("localize")));
     libraryStats.markWith("icon.initialize",
-                          () -> iconLibraryManager.initialize(filesWithMarkers.get(BaseIconLibraryManager.ICON_DIRECTORY)));
+                          () -> iconLibraryManager.initialize(filesWithMarkers.get(BaseIconLibraryManager.ICON_DIRECTORY),
+                                                             ContainerPathManager.get().getSystemDir().resolve("icons")));
 
     libraryStats.dump("Libraries", LOG::info);
 
@@ -200,6 +203,9 @@ public abstract class ApplicationStarter {
       }
 
       ApplicationStarterCore.ourLoaded = true;
+
+      // after the startup activities queued by main(), e.g. opening of the frame
+      app.invokeLater(() -> app.executeOnPooledThread(ClassPreloadProfile::save));
     }
     catch (Exception e) {
       throw new RuntimeException(e);
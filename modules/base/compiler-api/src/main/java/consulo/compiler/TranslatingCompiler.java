@@ -81,6 +81,14 @@ public interface TranslatingCompiler extends Compiler {
    */
   void compile(CompileContext context, Chunk<Module> moduleChunk, VirtualFile[] files, OutputSink sink);
 
+  /**
+   * @return true if the compiler can compile independent module chunks at the same time, from different threads.
+   *         On rebuild chunks are compiled in parallel only if all translating compilers support it
+   */
+  default boolean isParallelCompilationSupported() {
+    return false;
+  }
+
   @Nonnull
   FileType[] getInputFileTypes();
 
@@ -19,6 +19,7 @@ import consulo.util.io.FileUtil;
 
 import jakarta.annotation.Nonnull;
 import java.io.*;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -30,11 +31,19 @@ public class ZipArchivePackagingElement extends ArchivePackagingElement {
   public static class ZipArchivePackageWriter implements ArchivePackageWriter<ZipOutputStream> {
     public static final ZipArchivePackageWriter INSTANCE = new ZipArchivePackageWriter();
 
+    /**
+     * Deflate level of archive entries. 0 makes entries effectively stored, which is much faster for archives rebuilt on each
+     * redeploy (exploded artifacts during development) at the cost of their size
+     */
+    private static final int COMPRESSION_LEVEL = Integer.getInteger("artifacts.archive.compression.level", Deflater.DEFAULT_COMPRESSION);
+
     @Nonnull
     @Override
     public ZipOutputStream createArchiveObject(@Nonnull File tempFile) throws IOException {
       final BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tempFile));
-      return new ZipOutputStream(outputStream);
+      ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+      zipOutputStream.setLevel(COMPRESSION_LEVEL);
+      return zipOutputStream;
     }
 
     @Override
@@ -17,8 +17,10 @@ package consulo.compiler.impl.internal;
 
 import consulo.annotation.component.ExtensionImpl;
 import consulo.application.ApplicationManager;
+import consulo.application.impl.internal.progress.SensitiveProgressWrapper;
 import consulo.application.progress.ProgressIndicator;
 import consulo.application.progress.ProgressManager;
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.compiler.CompileDriver;
 import consulo.compiler.Compiler;
 import consulo.compiler.*;
@@ -54,6 +56,11 @@ import jakarta.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -77,6 +84,11 @@ public class BuiltInCompilerRunner implements CompilerRunner {
 
   private static final Predicate<Compiler> SOURCE_PROCESSING_ONLY = compiler -> compiler instanceof SourceProcessingCompiler;
 
+  // each chunk compilation holds parsed sources of its modules, so threads are bounded by memory too
+  private static final int PARALLEL_COMPILATION_THREADS =
+    Integer.getInteger("compiler.parallel.chunks.threads",
+                       Math.min(Runtime.getRuntime().availableProcessors(), (int)Math.max(1, Runtime.getRuntime().maxMemory() / (512L << 20))));
+
   private boolean ourDebugMode = false;
 
   private final Project myProject;
@@ -262,24 +274,28 @@ public class BuiltInCompilerRunner implements CompilerRunner {
 
     final TranslatingCompiler[] original = compilerManager.getCompilers(TranslatingCompiler.class, compileDriver.getCompilerFilter());
 
-    final List<Chunk<Module>> sortedChunks =
-      Collections.unmodifiableList(ApplicationManager.getApplication().runReadAction((Supplier<List<Chunk<Module>>>)() -> {
-        final ModuleManager moduleManager = ModuleManager.getInstance(myProject);
-        return ModuleCompilerUtil.getSortedModuleChunks(myProject, Arrays.asList(moduleManager.getModules()));
-      }));
+    final ModuleChunkGraph chunkGraph = ApplicationManager.getApplication().runReadAction((Supplier<ModuleChunkGraph>)() -> {
+      final ModuleManager moduleManager = ModuleManager.getInstance(myProject);
+      List<Chunk<Module>> chunks = ModuleCompilerUtil.getSortedModuleChunks(myProject, Arrays.asList(moduleManager.getModules()));
+      return ModuleChunkGraph.create(Collections.unmodifiableList(chunks));
+    });
+    final List<Chunk<Module>> sortedChunks = chunkGraph.getChunks();
 
     final DumbService dumbService = DumbService.getInstance(myProject);
     try {
+      if (isRebuild && !onlyCheckStatus && PARALLEL_COMPILATION_THREADS > 1 && sortedChunks.size() > 1 && isParallelCompilationSupported(original)) {
+        didSomething = translateInParallel(compileDriver, context, compilerManager, original, chunkGraph, forceCompile);
+        return didSomething;
+      }
+
       final Set<Module> processedModules = new HashSet<>();
       VirtualFile[] snapshot = null;
       final Map<Chunk<Module>, Collection<VirtualFile>> chunkMap = new HashMap<>();
       int total = 0;
       int processed = 0;
       for (final Chunk<Module> currentChunk : sortedChunks) {
-        TranslatingCompiler[] translators = original.clone();
-        for (CompilerSorter compilerSorter : CompilerSorter.EP_NAME.getExtensionList()) {
-          compilerSorter.sort(currentChunk, translators, TranslatingCompiler.class);
-        }
+        final long chunkStart = System.currentTimeMillis();
+        TranslatingCompiler[] translators = sortTranslators(currentChunk, original);
         final TranslatorsOutputSink sink = new TranslatorsOutputSink(context, translators);
         final Set<FileType> generatedTypes = new HashSet<>();
         Collection<VirtualFile> chunkFiles = chunkMap.get(currentChunk);
@@ -328,25 +344,7 @@ public class BuiltInCompilerRunner implements CompilerRunner {
                 total = snapshot.length * translatorsLength;
               }
 
-              final CompileContextEx _context;
-              if (compiler instanceof IntermediateOutputCompiler) {
-                // wrap compile context so that output goes into intermediate directories
-                final IntermediateOutputCompiler _compiler = (IntermediateOutputCompiler)compiler;
-                _context = new CompileContextExDelegate(context) {
-                  @Override
-                  public VirtualFile getModuleOutputDirectory(final Module module) {
-                    return getGenerationOutputDir(compileDriver, _compiler, module, false);
-                  }
-
-                  @Override
-                  public VirtualFile getModuleOutputDirectoryForTests(final Module module) {
-                    return getGenerationOutputDir(compileDriver, _compiler, module, true);
-                  }
-                };
-              }
-              else {
-                _context = context;
-              }
+              final CompileContextEx _context = createCompilerContext(compileDriver, context, compiler);
               final boolean compiledSomething =
                 compileSources(compileDriver,
                                _context,
@@ -452,6 +450,8 @@ public class BuiltInCompilerRunner implements CompilerRunner {
           context.requestRebuildNextTime(e.getMessage());
         }
         finally {
+          chunkGraph.chunkCompiled(currentChunk, System.currentTimeMillis() - chunkStart);
+
           final int errorCount = context.getMessageCount(CompilerMessageCategory.ERROR);
           if (errorCount != 0) {
             filesToRecompile.addAll(allDependent);
@@ -488,11 +488,212 @@ public class BuiltInCompilerRunner implements CompilerRunner {
       compileDriver.dropDependencyCache(context);
       if (didSomething) {
         TranslatingCompilerFilesMonitor.getInstance().updateOutputRootsLayout(myProject);
+
+        String report = chunkGraph.createReport();
+        if (report != null) {
+          LOG.info(report);
+          context.addMessage(CompilerMessageCategory.STATISTICS, report, null, -1, -1);
+        }
       }
     }
     return didSomething;
   }
 
+  private static boolean isParallelCompilationSupported(TranslatingCompiler[] translators) {
+    for (TranslatingCompiler translator : translators) {
+      if (!translator.isParallelCompilationSupported()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Rebuild by translators which all support parallel compilation: each chunk is compiled as soon as the chunks it depends on are compiled.
+   * Dependent files are not searched on rebuild, so dependency caches are updated once, after all chunks
+   */
+  private boolean translateInParallel(CompileDriver compileDriver,
+                                      final CompileContextEx context,
+                                      final CompilerManager compilerManager,
+                                      final TranslatingCompiler[] original,
+                                      final ModuleChunkGraph chunkGraph,
+                                      final boolean forceCompile) throws ExitException {
+    DumbService.getInstance(myProject).waitForSmartMode();
+
+    final List<Chunk<Module>> chunks = chunkGraph.getChunks();
+    final VirtualFile[] snapshot =
+      ApplicationManager.getApplication().runReadAction((Supplier<VirtualFile[]>)() -> context.getCompileScope().getFiles(null));
+    final Map<Chunk<Module>, Collection<VirtualFile>> chunkMap = new HashMap<>();
+    recalculateChunkToFilesMap(context, chunks, snapshot, chunkMap);
+
+    final ProgressIndicator indicator = context.getProgressIndicator();
+    indicator.setText("Compiling " + chunks.size() + " module chunks in " + PARALLEL_COMPILATION_THREADS + " threads...");
+
+    final ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Module Chunks Compiler", PARALLEL_COMPILATION_THREADS);
+    final AtomicBoolean didSomething = new AtomicBoolean();
+    final AtomicInteger compiledChunks = new AtomicInteger();
+
+    Map<Chunk<Module>, CompletableFuture<Void>> futures = new HashMap<>();
+    for (Chunk<Module> chunk : chunks) {
+      List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+      for (Chunk<Module> dependency : chunkGraph.getDependencies(chunk)) {
+        ContainerUtil.addIfNotNull(dependencies, futures.get(dependency));
+      }
+
+      futures.put(chunk, CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[dependencies.size()])).thenRunAsync(() -> {
+        // as in sequential mode, errors stop compilation of the remaining chunks
+        if (indicator.isCanceled() || context.getMessageCount(CompilerMessageCategory.ERROR) > 0) {
+          return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+          if (compileChunk(compileDriver, context, compilerManager, original, chunk, chunkMap.get(chunk), forceCompile)) {
+            didSomething.set(true);
+          }
+        }
+        catch (ExitException e) {
+          throw new CompletionException(e);
+        }
+        finally {
+          chunkGraph.chunkCompiled(chunk, System.currentTimeMillis() - start);
+          indicator.setFraction((double)compiledChunks.incrementAndGet() / chunks.size());
+        }
+      }, executor));
+    }
+
+    try {
+      CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()])).join();
+    }
+    catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof ExitException) {
+        throw (ExitException)cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException)cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error)cause;
+      }
+      throw new RuntimeException(cause);
+    }
+
+    if (indicator.isCanceled()) {
+      throw new ExitException(ExitStatus.CANCELLED);
+    }
+
+    if (CompilerManager.MAKE_ENABLED) {
+      final DependencyCache cache = context.getDependencyCache();
+      indicator.setText(CompilerBundle.message("progress.updating.caches"));
+      indicator.setText2("");
+      try {
+        cache.update();
+      }
+      catch (CacheCorruptedException e) {
+        LOG.info(e);
+        context.requestRebuildNextTime(e.getMessage());
+      }
+
+      indicator.setText(CompilerBundle.message("progress.saving.caches"));
+      cache.resetState();
+    }
+
+    if (context.getMessageCount(CompilerMessageCategory.ERROR) > 0) {
+      throw new ExitException(ExitStatus.ERRORS);
+    }
+    return didSomething.get();
+  }
+
+  private boolean compileChunk(CompileDriver compileDriver,
+                               final CompileContextEx context,
+                               final CompilerManager compilerManager,
+                               final TranslatingCompiler[] original,
+                               final Chunk<Module> chunk,
+                               Collection<VirtualFile> chunkFiles,
+                               final boolean forceCompile) throws ExitException {
+    // own indicator - compilers push and pop its state
+    final ProgressIndicator chunkIndicator = new SensitiveProgressWrapper(context.getProgressIndicator());
+    final CompileContextEx chunkContext = new CompileContextExDelegate(context) {
+      @Override
+      public ProgressIndicator getProgressIndicator() {
+        return chunkIndicator;
+      }
+    };
+
+    final TranslatingCompiler[] translators = sortTranslators(chunk, original);
+    final TranslatorsOutputSink sink = new TranslatorsOutputSink(chunkContext, translators);
+    final Set<FileType> generatedTypes = new HashSet<>();
+    boolean didSomething = false;
+    try {
+      for (int currentCompiler = 0; currentCompiler < translators.length; currentCompiler++) {
+        sink.setCurrentCompilerIndex(currentCompiler);
+        final TranslatingCompiler compiler = translators[currentCompiler];
+        chunkIndicator.checkCanceled();
+
+        if (ContainerUtil.intersects(generatedTypes, compilerManager.getRegisteredInputTypes(compiler))) {
+          // previously generated files may be the input of this compiler
+          final VirtualFile[] snapshot =
+            ApplicationManager.getApplication().runReadAction((Supplier<VirtualFile[]>)() -> chunkContext.getCompileScope().getFiles(null));
+          chunkFiles = getFilesInScope(chunkContext, chunk, Arrays.asList(snapshot));
+        }
+
+        final boolean compiledSomething = compileSources(compileDriver,
+                                                         createCompilerContext(compileDriver, chunkContext, compiler),
+                                                         chunk,
+                                                         compiler,
+                                                         chunkFiles,
+                                                         forceCompile,
+                                                         true,
+                                                         false,
+                                                         sink);
+        if (compiledSomething) {
+          generatedTypes.addAll(compilerManager.getRegisteredOutputTypes(compiler));
+        }
+        didSomething |= compiledSomething;
+
+        if (chunkContext.getMessageCount(CompilerMessageCategory.ERROR) > 0) {
+          break;
+        }
+      }
+    }
+    finally {
+      if (chunkContext.getMessageCount(CompilerMessageCategory.ERROR) == 0) {
+        sink.flushPostponedItems();
+      }
+    }
+    return didSomething;
+  }
+
+  @Nonnull
+  private static TranslatingCompiler[] sortTranslators(Chunk<Module> chunk, TranslatingCompiler[] original) {
+    TranslatingCompiler[] translators = original.clone();
+    for (CompilerSorter compilerSorter : CompilerSorter.EP_NAME.getExtensionList()) {
+      compilerSorter.sort(chunk, translators, TranslatingCompiler.class);
+    }
+    return translators;
+  }
+
+  @Nonnull
+  private CompileContextEx createCompilerContext(CompileDriver compileDriver, CompileContextEx context, TranslatingCompiler compiler) {
+    if (compiler instanceof IntermediateOutputCompiler) {
+      // wrap compile context so that output goes into intermediate directories
+      final IntermediateOutputCompiler _compiler = (IntermediateOutputCompiler)compiler;
+      return new CompileContextExDelegate(context) {
+        @Override
+        public VirtualFile getModuleOutputDirectory(final Module module) {
+          return getGenerationOutputDir(compileDriver, _compiler, module, false);
+        }
+
+        @Override
+        public VirtualFile getModuleOutputDirectoryForTests(final Module module) {
+          return getGenerationOutputDir(compileDriver, _compiler, module, true);
+        }
+      };
+    }
+    return context;
+  }
+
 
   private static List<VirtualFile> getFilesInScope(final CompileContextEx context,
                                                    final Chunk<Module> chunk,
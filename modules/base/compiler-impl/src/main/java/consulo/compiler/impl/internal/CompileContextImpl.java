@@ -209,11 +209,13 @@ public class CompileContextImpl extends UserDataHolderBase implements CompileCon
 
   @Override
   public CompilerMessage[] getMessages(CompilerMessageCategory category) {
-    Collection<CompilerMessage> collection = myMessages.get(category);
-    if (collection == null) {
-      return CompilerMessage.EMPTY_ARRAY;
+    synchronized (myMessages) {
+      Collection<CompilerMessage> collection = myMessages.get(category);
+      if (collection == null) {
+        return CompilerMessage.EMPTY_ARRAY;
+      }
+      return collection.toArray(new CompilerMessage[collection.size()]);
     }
-    return collection.toArray(new CompilerMessage[collection.size()]);
   }
 
   @Override
@@ -278,12 +280,17 @@ public class CompileContextImpl extends UserDataHolderBase implements CompileCon
       LOG.info("addMessage: " + msg + " this=" + this);
     }
 
-    Collection<CompilerMessage> messages = myMessages.get(msg.getCategory());
-    if (messages == null) {
-      messages = new LinkedHashSet<>();
-      myMessages.put(msg.getCategory(), messages);
+    // module chunks can be compiled in parallel
+    boolean added;
+    synchronized (myMessages) {
+      Collection<CompilerMessage> messages = myMessages.get(msg.getCategory());
+      if (messages == null) {
+        messages = new LinkedHashSet<>();
+        myMessages.put(msg.getCategory(), messages);
+      }
+      added = messages.add(msg);
     }
-    if (messages.add(msg)) {
+    if (added) {
       myTask.addMessage(msg);
     }
 
@@ -324,17 +331,19 @@ public class CompileContextImpl extends UserDataHolderBase implements CompileCon
 
   @Override
   public int getMessageCount(CompilerMessageCategory category) {
-    if (category != null) {
-      Collection<CompilerMessage> collection = myMessages.get(category);
-      return collection != null ? collection.size() : 0;
-    }
-    int count = 0;
-    for (Collection<CompilerMessage> collection : myMessages.values()) {
-      if (collection != null) {
-        count += collection.size();
+    synchronized (myMessages) {
+      if (category != null) {
+        Collection<CompilerMessage> collection = myMessages.get(category);
+        return collection != null ? collection.size() : 0;
+      }
+      int count = 0;
+      for (Collection<CompilerMessage> collection : myMessages.values()) {
+        if (collection != null) {
+          count += collection.size();
+        }
       }
+      return count;
     }
-    return count;
   }
 
   @Override
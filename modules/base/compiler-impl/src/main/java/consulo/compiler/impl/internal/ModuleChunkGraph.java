@@ -0,0 +1,169 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.compiler.impl.internal;
+
+import consulo.annotation.access.RequiredReadAction;
+import consulo.compiler.util.ModuleCompilerUtil;
+import consulo.module.Module;
+import consulo.util.collection.Chunk;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dependencies between module chunks of one compilation, and the time spent on each chunk.
+ * <p/>
+ * The critical path - the longest chain of dependent chunks - bounds the build time however many chunks are compiled in parallel,
+ * so it is reported after the build, together with the slowest chunks.
+ */
+class ModuleChunkGraph {
+  private static final int SLOWEST_CHUNKS_TO_REPORT = 5;
+
+  private final List<Chunk<Module>> myChunks;
+  private final Map<Chunk<Module>, Set<Chunk<Module>>> myDependencies;
+  private final Map<Chunk<Module>, Long> myDurations = new ConcurrentHashMap<>();
+
+  private ModuleChunkGraph(List<Chunk<Module>> chunks, Map<Chunk<Module>, Set<Chunk<Module>>> dependencies) {
+    myChunks = chunks;
+    myDependencies = dependencies;
+  }
+
+  /**
+   * @param sortedChunks chunks sorted so that dependencies go first
+   */
+  @Nonnull
+  @RequiredReadAction
+  static ModuleChunkGraph create(@Nonnull List<Chunk<Module>> sortedChunks) {
+    Map<Module, Chunk<Module>> moduleToChunk = new HashMap<>();
+    for (Chunk<Module> chunk : sortedChunks) {
+      for (Module module : chunk.getNodes()) {
+        moduleToChunk.put(module, chunk);
+      }
+    }
+
+    Map<Chunk<Module>, Set<Chunk<Module>>> dependencies = new HashMap<>();
+    for (Chunk<Module> chunk : sortedChunks) {
+      Set<Chunk<Module>> chunkDependencies = new LinkedHashSet<>();
+      for (Module module : chunk.getNodes()) {
+        for (Module dependency : ModuleCompilerUtil.getDependencies(module)) {
+          Chunk<Module> dependencyChunk = moduleToChunk.get(dependency);
+          // modules out of the compile scope are not compiled, so they can't delay anything
+          if (dependencyChunk != null && dependencyChunk != chunk) {
+            chunkDependencies.add(dependencyChunk);
+          }
+        }
+      }
+      dependencies.put(chunk, chunkDependencies);
+    }
+    return new ModuleChunkGraph(sortedChunks, dependencies);
+  }
+
+  @Nonnull
+  List<Chunk<Module>> getChunks() {
+    return myChunks;
+  }
+
+  @Nonnull
+  Set<Chunk<Module>> getDependencies(@Nonnull Chunk<Module> chunk) {
+    return myDependencies.getOrDefault(chunk, Collections.emptySet());
+  }
+
+  void chunkCompiled(@Nonnull Chunk<Module> chunk, long durationMs) {
+    myDurations.merge(chunk, durationMs, Long::sum);
+  }
+
+  /**
+   * @return text for the build tool window, or null if there is nothing interesting to report
+   */
+  @Nullable
+  String createReport() {
+    if (myChunks.size() < 2 || myDurations.isEmpty()) {
+      return null;
+    }
+
+    // chunks are sorted, so dependencies are always computed before dependent chunks
+    Map<Chunk<Module>, Long> finishTimes = new HashMap<>();
+    Map<Chunk<Module>, Chunk<Module>> criticalPredecessors = new HashMap<>();
+    Chunk<Module> last = null;
+    long total = 0;
+    for (Chunk<Module> chunk : myChunks) {
+      long start = 0;
+      for (Chunk<Module> dependency : getDependencies(chunk)) {
+        long dependencyFinish = finishTimes.getOrDefault(dependency, 0L);
+        if (dependencyFinish > start) {
+          start = dependencyFinish;
+          criticalPredecessors.put(chunk, dependency);
+        }
+      }
+
+      long duration = getDuration(chunk);
+      total += duration;
+
+      long finish = start + duration;
+      finishTimes.put(chunk, finish);
+      if (last == null || finish > finishTimes.get(last)) {
+        last = chunk;
+      }
+    }
+
+    LinkedList<Chunk<Module>> criticalPath = new LinkedList<>();
+    for (Chunk<Module> chunk = last; chunk != null; chunk = criticalPredecessors.get(chunk)) {
+      criticalPath.addFirst(chunk);
+    }
+
+    StringBuilder builder = new StringBuilder();
+    builder.append("Module chunks: ").append(myChunks.size());
+    builder.append(", total compilation time: ").append(total).append(" ms");
+    builder.append(", critical path: ").append(finishTimes.get(last)).append(" ms (");
+    for (Iterator<Chunk<Module>> iterator = criticalPath.iterator(); iterator.hasNext(); ) {
+      Chunk<Module> chunk = iterator.next();
+      builder.append(getPresentableName(chunk)).append(' ').append(getDuration(chunk)).append(" ms");
+      if (iterator.hasNext()) {
+        builder.append(" -> ");
+      }
+    }
+    builder.append(")");
+
+    List<Chunk<Module>> slowest = new ArrayList<>(myChunks);
+    slowest.sort(Comparator.comparingLong(this::getDuration).reversed());
+    builder.append(", slowest: ");
+    for (int i = 0; i < Math.min(SLOWEST_CHUNKS_TO_REPORT, slowest.size()); i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(getPresentableName(slowest.get(i))).append(' ').append(getDuration(slowest.get(i))).append(" ms");
+    }
+    return builder.toString();
+  }
+
+  private long getDuration(@Nonnull Chunk<Module> chunk) {
+    return myDurations.getOrDefault(chunk, 0L);
+  }
+
+  @Nonnull
+  private static String getPresentableName(@Nonnull Chunk<Module> chunk) {
+    StringBuilder builder = new StringBuilder();
+    for (Module module : chunk.getNodes()) {
+      if (builder.length() > 0) {
+        builder.append('+');
+      }
+      builder.append(module.getName());
+    }
+    return builder.toString();
+  }
+}
@@ -175,6 +175,11 @@ public class ResourceCompilerImpl implements ResourceCompiler {
     context.getProgressIndicator().popState();
   }
 
+  @Override
+  public boolean isParallelCompilationSupported() {
+    return true;
+  }
+
   @Nonnull
   @Override
   public FileType[] getInputFileTypes() {
@@ -16,6 +16,7 @@
 
 package consulo.compiler.impl.internal.artifact;
 
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.compiler.CompileContext;
 import consulo.compiler.CompilerBundle;
 import consulo.compiler.CompilerMessageCategory;
@@ -26,6 +27,7 @@ import consulo.component.util.graph.DFSTBuilder;
 import consulo.component.util.graph.GraphGenerator;
 import consulo.logging.Logger;
 import consulo.util.collection.ArrayUtil;
+import consulo.util.collection.ContainerUtil;
 import consulo.util.io.FilePermissionCopier;
 import consulo.util.io.FileUtil;
 import consulo.util.lang.Pair;
@@ -37,6 +39,10 @@ import jakarta.annotation.Nullable;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author nik
@@ -67,12 +73,9 @@ public class ArchivesBuilder {
       return false;
     }
 
-    myBuiltArchives = new HashMap<>();
+    myBuiltArchives = new ConcurrentHashMap<>();
     try {
-      for (ArchivePackageInfo archivePackageInfo : sortedArchives) {
-        myContext.getProgressIndicator().checkCanceled();
-        buildArchive(archivePackageInfo);
-      }
+      buildArchives(sortedArchives);
 
       myContext.getProgressIndicator().setText(CompilerBundle.message("packaging.compiler.message.copying.archives"));
       copyJars(writtenPaths);
@@ -85,6 +88,51 @@ public class ArchivesBuilder {
     return true;
   }
 
+  /**
+   * Each archive is built as soon as all archives packed into it are built, so independent archives are built in parallel
+   */
+  private void buildArchives(@Nonnull ArchivePackageInfo[] sortedArchives) throws IOException {
+    ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("ArchivesBuilder", Runtime.getRuntime().availableProcessors());
+
+    Map<ArchivePackageInfo, CompletableFuture<Void>> futures = new HashMap<>();
+    // nested archives go before archives containing them
+    for (ArchivePackageInfo archive : sortedArchives) {
+      List<CompletableFuture<Void>> nestedFutures = new ArrayList<>();
+      for (Pair<String, ArchivePackageInfo> nestedArchive : archive.getPackedArchives()) {
+        ContainerUtil.addIfNotNull(nestedFutures, futures.get(nestedArchive.getSecond()));
+      }
+
+      CompletableFuture<Void> future = CompletableFuture.allOf(nestedFutures.toArray(new CompletableFuture[nestedFutures.size()])).thenRunAsync(() -> {
+        myContext.getProgressIndicator().checkCanceled();
+        try {
+          buildArchive(archive);
+        }
+        catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      }, executor);
+      futures.put(archive, future);
+    }
+
+    try {
+      // waits for all archives, even if some of them failed - temporary files are deleted after this
+      CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()])).join();
+    }
+    catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException)cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException)cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error)cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
   private void deleteTemporaryJars() {
     for (File file : myBuiltArchives.values()) {
       FileUtil.delete(file);
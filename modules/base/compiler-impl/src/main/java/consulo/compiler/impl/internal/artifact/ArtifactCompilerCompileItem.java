@@ -18,17 +18,25 @@ package consulo.compiler.impl.internal.artifact;
 import consulo.compiler.artifact.element.DestinationInfo;
 import consulo.compiler.generic.VirtualFileCompileItem;
 import consulo.index.io.data.DataExternalizer;
+import consulo.logging.Logger;
 import consulo.util.collection.SmartList;
+import consulo.util.io.DigestUtil;
 import consulo.util.lang.Pair;
 import consulo.virtualFileSystem.VirtualFile;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
 import java.util.List;
 
 /**
  * @author nik
  */
 public class ArtifactCompilerCompileItem extends VirtualFileCompileItem<ArtifactPackagingItemOutputState> {
+  private static final Logger LOG = Logger.getInstance(ArtifactCompilerCompileItem.class);
+
   public static final DataExternalizer<ArtifactPackagingItemOutputState> OUTPUT_EXTERNALIZER = new ArtifactPackagingItemExternalizer();
   private final List<DestinationInfo> myDestinations = new SmartList<DestinationInfo>();
 
@@ -54,7 +62,28 @@ public class ArtifactCompilerCompileItem extends VirtualFileCompileItem<Artifact
       long timestamp = outputFile != null ? outputFile.getTimeStamp() : -1;
       pairs.add(Pair.create(destination.getOutputPath(), timestamp));
     }
-    return new ArtifactPackagingItemOutputState(pairs);
+    return new ArtifactPackagingItemOutputState(pairs, computeContentHash(getFile()));
+  }
+
+  @Nullable
+  public static byte[] computeContentHash(@Nonnull VirtualFile file) {
+    if (!file.isValid() || file.isDirectory()) {
+      return null;
+    }
+
+    MessageDigest digest = DigestUtil.sha256();
+    byte[] buffer = new byte[8192];
+    try (InputStream stream = file.getInputStream()) {
+      int read;
+      while ((read = stream.read(buffer)) > 0) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    catch (IOException e) {
+      LOG.debug(e);
+      return null;
+    }
+    return digest.digest();
   }
 
   @Override
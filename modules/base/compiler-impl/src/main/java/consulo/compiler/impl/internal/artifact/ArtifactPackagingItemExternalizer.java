@@ -36,6 +36,12 @@ public class ArtifactPackagingItemExternalizer implements DataExternalizer<Artif
       IOUtil.writeUTF(out, pair.getFirst());
       out.writeLong(pair.getSecond());
     }
+
+    byte[] contentHash = value.myContentHash;
+    out.writeInt(contentHash == null ? -1 : contentHash.length);
+    if (contentHash != null) {
+      out.write(contentHash);
+    }
   }
 
   @Override
@@ -47,6 +53,13 @@ public class ArtifactPackagingItemExternalizer implements DataExternalizer<Artif
       long outputTimestamp = in.readLong();
       destinations.add(Pair.create(path, outputTimestamp));
     }
-    return new ArtifactPackagingItemOutputState(destinations);
+
+    byte[] contentHash = null;
+    int hashLength = in.readInt();
+    if (hashLength >= 0) {
+      contentHash = new byte[hashLength];
+      in.readFully(contentHash);
+    }
+    return new ArtifactPackagingItemOutputState(destinations, contentHash);
   }
 }
@@ -17,14 +17,25 @@ package consulo.compiler.impl.internal.artifact;
 
 import consulo.util.lang.Pair;
 import consulo.util.collection.SmartList;
+import jakarta.annotation.Nullable;
 
 /**
 * @author nik
 */
 public class ArtifactPackagingItemOutputState {
   public final SmartList<Pair<String, Long>> myDestinations;
+  /**
+   * Hash of the source file content at the moment of packaging, null if it can't be computed
+   */
+  @Nullable
+  public final byte[] myContentHash;
 
   public ArtifactPackagingItemOutputState(SmartList<Pair<String, Long>> destinations) {
+    this(destinations, null);
+  }
+
+  public ArtifactPackagingItemOutputState(SmartList<Pair<String, Long>> destinations, @Nullable byte[] contentHash) {
     myDestinations = destinations;
+    myContentHash = contentHash;
   }
 }
@@ -176,10 +176,19 @@ public class ArtifactsCompilerInstance extends GenericCompilerInstance<ArtifactB
       }
 
       int i = 0;
+      int unchangedCount = 0;
       for (final GenericCompilerProcessingItem<ArtifactCompilerCompileItem, VirtualFilePersistentState, ArtifactPackagingItemOutputState> item : changedItems) {
         final ArtifactCompilerCompileItem sourceItem = item.getItem();
         myContext.getProgressIndicator().checkCanceled();
 
+        if (!myContext.isRebuild() && isContentUnchanged(item)) {
+          // nothing to copy, and archives containing the item don't need to be rebuilt because of it
+          myContext.getProgressIndicator().setFraction(++i * 1.0 / changedItems.size());
+          processedItems.add(sourceItem);
+          unchangedCount++;
+          continue;
+        }
+
         AccessRule.read(() -> {
           final VirtualFile sourceFile = sourceItem.getFile();
           for (DestinationInfo destination : sourceItem.getDestinations()) {
@@ -212,6 +221,10 @@ public class ArtifactsCompilerInstance extends GenericCompilerInstance<ArtifactB
         }
       }
 
+      if (unchangedCount > 0) {
+        FULL_LOG.debug(unchangedCount + " items of " + artifact.getName() + " were touched, but have the same content");
+      }
+
       ArchivesBuilder builder = new ArchivesBuilder(changedJars, fileFilter, myContext);
       final boolean processed = builder.buildArchives(writtenPaths);
       if (!processed) {
@@ -246,6 +259,21 @@ public class ArtifactsCompilerInstance extends GenericCompilerInstance<ArtifactB
     return true;
   }
 
+  /**
+   * @return true if the source was only touched (e.g. recompiled to the same bytes) and its outputs are still the same as after
+   * the previous build
+   */
+  private static boolean isContentUnchanged(@Nonnull GenericCompilerProcessingItem<ArtifactCompilerCompileItem, VirtualFilePersistentState, ArtifactPackagingItemOutputState> item) {
+    final ArtifactPackagingItemOutputState cachedState = item.getCachedOutputState();
+    if (cachedState == null || cachedState.myContentHash == null) {
+      return false;
+    }
+
+    final ArtifactCompilerCompileItem sourceItem = item.getItem();
+    return AccessRule.read(() -> sourceItem.isOutputUpToDate(cachedState) &&
+                                 Arrays.equals(cachedState.myContentHash, ArtifactCompilerCompileItem.computeContentHash(sourceItem.getFile())));
+  }
+
   private void extractFile(VirtualFile sourceFile, File toFile, Set<String> writtenPaths, FileFilter fileFilter) throws IOException {
     if (!writtenPaths.add(toFile.getPath())) {
       return;
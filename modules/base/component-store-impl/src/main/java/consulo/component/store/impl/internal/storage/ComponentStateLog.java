@@ -0,0 +1,296 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.component.store.impl.internal.storage;
+
+import consulo.component.persist.StoragePathMacros;
+import consulo.logging.Logger;
+import consulo.util.io.FileUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append-only binary log of component states, used instead of the xml file of a non shared storage (workspace).
+ * <p/>
+ * Each record is a component name and its LZ4-archived state with collapsed paths (see {@link StateMap#archiveState(org.jdom.Element)}),
+ * or a tombstone for a removed component. On load the last record of a component wins, so a save appends
+ * only the components which were changed since the previous save, instead of rewriting the whole file.
+ * When the log grows to {@link #COMPACTION_RATIO} times of its live size, it's rewritten with live records only.
+ * <p/>
+ * Saving to the log is enabled by {@code -Dconsulo.component.state.log=true}. An existing log is always loaded,
+ * and when the option is off, the next save writes the xml file again and deletes the log.
+ * <p/>
+ * The xml file is not deleted when the log is used, it's the last full snapshot. If the log is corrupted,
+ * states are recovered from the snapshot and the valid records of the log (see {@link #loadValidRecords}), and the log is rewritten.
+ * The log is rewritten through a temp file, which is read back and verified before it replaces the log.
+ */
+final class ComponentStateLog {
+  private static final Logger LOG = Logger.getInstance(ComponentStateLog.class);
+
+  static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("consulo.component.state.log", "false"));
+
+  private static final String EXTENSION = ".log";
+
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 4;
+  private static final int TOMBSTONE = -1;
+
+  private static final int COMPACTION_RATIO = 2;
+  private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+  private final File myFile;
+
+  // record size of each live component, and size of the whole file (-1 if the log is not loaded yet)
+  private final Map<String, Long> myLiveRecordSizes = new HashMap<>();
+  private long myLiveSize;
+  private long myTotalSize = -1;
+
+  private ComponentStateLog(@Nonnull File storageFile) {
+    myFile = new File(storageFile.getPath() + EXTENSION);
+  }
+
+  @Nullable
+  static ComponentStateLog create(@Nonnull String fileSpec, @Nonnull File storageFile) {
+    if (!fileSpec.equals(StoragePathMacros.WORKSPACE_FILE)) {
+      return null;
+    }
+    return new ComponentStateLog(storageFile);
+  }
+
+  boolean exists() {
+    return myFile.isFile();
+  }
+
+  boolean isLoaded() {
+    return myTotalSize >= 0 && exists();
+  }
+
+  /**
+   * @return component name -> archived state, in the order of the first record
+   * @throws IOException if the log can't be read or is corrupted
+   */
+  @Nonnull
+  synchronized Map<String, byte[]> load() throws IOException {
+    byte[] bytes = Files.readAllBytes(myFile.toPath());
+
+    Map<String, byte[]> states = new LinkedHashMap<>();
+    // length of the log up to the end of the last complete record
+    long validLength = readRecords(bytes, states);
+    if (validLength < 0) {
+      throw new IOException("Corrupted log " + myFile + " at " + ~validLength);
+    }
+
+    if (validLength < bytes.length) {
+      // drop the partial record left by an interrupted append, otherwise the next append would be written after it
+      LOG.warn("Truncating incomplete record at " + validLength + " of " + myFile + " (" + bytes.length + " bytes)");
+      try (RandomAccessFile file = new RandomAccessFile(myFile, "rw")) {
+        file.setLength(validLength);
+      }
+    }
+
+    setLive(states);
+    myTotalSize = validLength;
+    return states;
+  }
+
+  /**
+   * Applies records of a corrupted log up to the first broken one to the states. The log is not loaded after it,
+   * it must be rewritten by {@link #write}.
+   */
+  synchronized void loadValidRecords(@Nonnull Map<String, byte[]> states) {
+    try {
+      readRecords(Files.readAllBytes(myFile.toPath()), states);
+    }
+    catch (IOException e) {
+      LOG.warn("Cannot read log " + myFile, e);
+    }
+  }
+
+  /**
+   * Applies records to the states, up to the first incomplete or broken one
+   *
+   * @return length of the valid part of the log, or its bitwise complement (negative) if the log has a broken header or record,
+   * not just incomplete last record
+   */
+  private static long readRecords(@Nonnull byte[] bytes, @Nonnull Map<String, byte[]> states) {
+    ByteArrayInputStream bytesIn = new ByteArrayInputStream(bytes);
+    DataInputStream in = new DataInputStream(bytesIn);
+    long validLength = 0;
+    try {
+      if (in.readInt() != VERSION) {
+        return ~validLength;
+      }
+      validLength = HEADER_SIZE;
+
+      while (bytesIn.available() > 0) {
+        String name = in.readUTF();
+        int length = in.readInt();
+        if (length < TOMBSTONE) {
+          return ~validLength;
+        }
+        if (length > bytesIn.available()) {
+          // the state was not completely written
+          return validLength;
+        }
+
+        if (length == TOMBSTONE) {
+          states.remove(name);
+        }
+        else {
+          byte[] state = new byte[length];
+          in.readFully(state);
+          states.put(name, state);
+        }
+        validLength = bytes.length - bytesIn.available();
+      }
+      return validLength;
+    }
+    catch (EOFException e) {
+      // a record which was not completely written
+      return validLength == 0 ? ~validLength : validLength;
+    }
+    catch (IOException | RuntimeException e) {
+      return ~validLength;
+    }
+  }
+
+  /**
+   * Appends records of changed and removed components, and compacts the log if it has too many overwritten records
+   */
+  synchronized void append(@Nonnull Map<String, byte[]> changed, @Nonnull Set<String> removed) throws IOException {
+    if (!isLoaded()) {
+      throw new IOException("Log " + myFile + " is not loaded");
+    }
+
+    long length = myFile.length();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(myFile, true)))) {
+      for (Map.Entry<String, byte[]> entry : changed.entrySet()) {
+        writeRecord(out, entry.getKey(), entry.getValue());
+      }
+      for (String name : removed) {
+        writeRecord(out, name, null);
+      }
+    }
+    catch (IOException e) {
+      // don't leave a partial record for the next append
+      try (RandomAccessFile file = new RandomAccessFile(myFile, "rw")) {
+        file.setLength(length);
+      }
+      catch (IOException e1) {
+        e.addSuppressed(e1);
+      }
+      throw e;
+    }
+
+    for (Map.Entry<String, byte[]> entry : changed.entrySet()) {
+      long size = recordSize(entry.getKey(), entry.getValue());
+      Long oldSize = myLiveRecordSizes.put(entry.getKey(), size);
+      myLiveSize += size - (oldSize == null ? 0 : oldSize);
+      myTotalSize += size;
+    }
+    for (String name : removed) {
+      Long oldSize = myLiveRecordSizes.remove(name);
+      myLiveSize -= oldSize == null ? 0 : oldSize;
+      myTotalSize += recordSize(name, null);
+    }
+
+    if (myTotalSize > MIN_COMPACTION_SIZE && myTotalSize > myLiveSize * COMPACTION_RATIO) {
+      write(load());
+    }
+  }
+
+  /**
+   * Rewrites the log with the given states only
+   */
+  synchronized void write(@Nonnull Map<String, byte[]> states) throws IOException {
+    FileUtil.createParentDirs(myFile);
+
+    File tempFile = new File(myFile.getPath() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+      out.writeInt(VERSION);
+      for (Map.Entry<String, byte[]> entry : states.entrySet()) {
+        writeRecord(out, entry.getKey(), entry.getValue());
+      }
+    }
+
+    // the previous log stays, if the new one can't be read back
+    byte[] written = Files.readAllBytes(tempFile.toPath());
+    Map<String, byte[]> writtenStates = new HashMap<>();
+    if (readRecords(written, writtenStates) != written.length || !isSame(states, writtenStates)) {
+      FileUtil.delete(tempFile);
+      throw new IOException("Verification of " + tempFile + " failed");
+    }
+    Files.move(tempFile.toPath(), myFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+    setLive(states);
+    myTotalSize = myLiveSize;
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Component state log " + myFile + " rewritten: " + states.size() + " components, " + myTotalSize + " bytes");
+    }
+  }
+
+  synchronized void delete() {
+    FileUtil.delete(myFile);
+    myLiveRecordSizes.clear();
+    myTotalSize = -1;
+  }
+
+  private void setLive(@Nonnull Map<String, byte[]> states) {
+    myLiveRecordSizes.clear();
+    myLiveSize = HEADER_SIZE;
+    for (Map.Entry<String, byte[]> entry : states.entrySet()) {
+      long size = recordSize(entry.getKey(), entry.getValue());
+      myLiveRecordSizes.put(entry.getKey(), size);
+      myLiveSize += size;
+    }
+  }
+
+  private static boolean isSame(@Nonnull Map<String, byte[]> states, @Nonnull Map<String, byte[]> otherStates) {
+    if (states.size() != otherStates.size()) {
+      return false;
+    }
+    for (Map.Entry<String, byte[]> entry : states.entrySet()) {
+      if (!Arrays.equals(entry.getValue(), otherStates.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void writeRecord(@Nonnull DataOutputStream out, @Nonnull String name, @Nullable byte[] state) throws IOException {
+    out.writeUTF(name);
+    if (state == null) {
+      out.writeInt(TOMBSTONE);
+    }
+    else {
+      out.writeInt(state.length);
+      out.write(state);
+    }
+  }
+
+  // approximate for non ascii names, enough for compaction decision
+  private static long recordSize(@Nonnull String name, @Nullable byte[] state) {
+    return 2 + name.length() + 4 + (state == null ? 0 : state.length);
+  }
+}
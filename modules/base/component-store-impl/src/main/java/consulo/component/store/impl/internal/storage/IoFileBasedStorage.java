@@ -65,6 +65,7 @@ public final class IoFileBasedStorage extends XmlElementStorage {
     myFilePath = filePath;
     myUseXmlProlog = useXmlProlog;
     myFile = new File(filePath);
+    myStateLog = ComponentStateLog.create(fileSpec, myFile);
   }
 
   protected boolean isUseXmlProlog() {
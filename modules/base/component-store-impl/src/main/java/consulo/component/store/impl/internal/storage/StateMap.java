@@ -161,7 +161,7 @@ final class StateMap {
   }
 
   @Nonnull
-  private static byte[] archiveState(@Nonnull Element state) {
+  static byte[] archiveState(@Nonnull Element state) {
     BufferExposingByteArrayOutputStream byteOut = new BufferExposingByteArrayOutputStream();
     try {
       try (OutputStreamWriter writer = new OutputStreamWriter(new LZ4BlockOutputStream(byteOut), CharsetToolkit.UTF8_CHARSET)) {
@@ -219,6 +219,34 @@ public class StorageData extends StorageDataBase {
     state.setName(COMPONENT);
   }
 
+  /**
+   * Collects components which state was set or removed in the newStorageData, a modified copy of this data.
+   * A state is replaced only if it was changed (see {@link #setState}), so comparing references is enough.
+   */
+  void collectChangedComponents(@Nonnull StorageData newStorageData, @Nonnull Set<String> changed, @Nonnull Set<String> removed) {
+    newStorageData.myStates.forEachEntry((name, state) -> {
+      if (myStates.get(name) != state) {
+        changed.add(name);
+      }
+    });
+    for (String name : myStates.keys()) {
+      if (newStorageData.myStates.get(name) == null) {
+        removed.add(name);
+      }
+    }
+  }
+
+  /**
+   * @return a state element, which can be modified by the caller
+   */
+  @Nonnull
+  Element getStateCopy(@Nonnull String name, @Nonnull Map<String, Element> newLiveStates) {
+    Object state = myStates.get(name);
+    Element element = StateMap.stateToElement(name, state, newLiveStates);
+    // stateToElement clones only a not archived state
+    return state instanceof Element ? element : element.clone();
+  }
+
   @Override
   public StorageData clone() {
     return new StorageData(this);
@@ -68,6 +68,7 @@ public final class VfsFileBasedStorage extends XmlElementStorage {
     myFilePath = filePath;
     myUseXmlProlog = useXmlProlog;
     myFile = new File(filePath);
+    myStateLog = ComponentStateLog.create(fileSpec, myFile);
 
     if (listener != null) {
       VirtualFileTracker virtualFileTracker = Application.get().getInstance(VirtualFileTracker.class);
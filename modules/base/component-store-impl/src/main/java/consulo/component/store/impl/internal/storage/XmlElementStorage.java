@@ -27,9 +27,7 @@ import org.jdom.JDOMException;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 public abstract class XmlElementStorage extends StateStorageBase<StorageData> {
   @Nonnull
@@ -42,6 +40,10 @@ public abstract class XmlElementStorage extends StateStorageBase<StorageData> {
   protected final RoamingType myRoamingType;
   protected final PathMacrosService myPathMacrosService;
 
+  // not null for a storage, which can be saved to the component state log instead of the xml
+  @Nullable
+  protected ComponentStateLog myStateLog;
+
   protected XmlElementStorage(@Nonnull String fileSpec,
                               @Nullable RoamingType roamingType,
                               @Nullable TrackingPathMacroSubstitutor pathMacroSubstitutor,
@@ -98,7 +100,7 @@ public abstract class XmlElementStorage extends StateStorageBase<StorageData> {
       }
     }
 
-    Element element = loadLocalData();
+    Element element = myStateLog != null && myStateLog.exists() ? loadStateLog(myStateLog) : loadLocalData();
     if (element != null) {
       loadState(result, element);
     }
@@ -106,6 +108,59 @@ public abstract class XmlElementStorage extends StateStorageBase<StorageData> {
     return result;
   }
 
+  @Nonnull
+  private Element loadStateLog(@Nonnull ComponentStateLog stateLog) {
+    Map<String, byte[]> states;
+    try {
+      states = stateLog.load();
+    }
+    catch (IOException e) {
+      LOG.warn("Cannot load component state log for " + myFileSpec + ", states will be recovered from xml file and valid records of the log", e);
+      states = recoverStateLog(stateLog);
+    }
+
+    Element rootElement = new Element(myRootElementName);
+    for (Map.Entry<String, byte[]> entry : states.entrySet()) {
+      try {
+        Element element = StateMap.unarchiveState(entry.getValue());
+        element.setAttribute(StorageData.NAME, entry.getKey());
+        rootElement.addContent(element);
+      }
+      catch (RuntimeException e) {
+        LOG.warn("Cannot load state of " + entry.getKey() + " from component state log for " + myFileSpec, e);
+      }
+    }
+    return rootElement;
+  }
+
+  /**
+   * Xml file is the last full snapshot, valid records of the log are applied to it. The log is rewritten with the result
+   */
+  @Nonnull
+  private Map<String, byte[]> recoverStateLog(@Nonnull ComponentStateLog stateLog) {
+    Map<String, byte[]> states = new LinkedHashMap<>();
+    Element snapshot = loadLocalData();
+    if (snapshot != null) {
+      for (Element component : snapshot.getChildren(StorageData.COMPONENT)) {
+        String name = component.getAttributeValue(StorageData.NAME);
+        if (name != null) {
+          states.put(name, StateMap.archiveState(component));
+        }
+      }
+    }
+
+    stateLog.loadValidRecords(states);
+
+    try {
+      stateLog.write(states);
+    }
+    catch (IOException e) {
+      // will be written by the next save
+      LOG.warn("Cannot rewrite component state log for " + myFileSpec, e);
+    }
+    return states;
+  }
+
   @Nullable
   protected final Element loadDataFromStreamProvider() throws IOException, JDOMException {
     assert myStreamProvider != null;
@@ -229,11 +284,20 @@ public abstract class XmlElementStorage extends StateStorageBase<StorageData> {
       }
 
       try {
-        if(force) {
-          doSave(getElement(myOriginalStorageData, isCollapsePathsOnSave(), Map.of()));
+        StorageData storageData = force ? myOriginalStorageData : myCopiedStorageData;
+        Map<String, Element> newLiveStates = force ? Map.of() : myNewLiveStates;
+        if (myStateLog != null && ComponentStateLog.ENABLED) {
+          saveToStateLog(myStateLog, storageData, newLiveStates, force);
         }
         else {
-          doSave(getElement(myCopiedStorageData, isCollapsePathsOnSave(), myNewLiveStates));
+          doSave(getElement(storageData, isCollapsePathsOnSave(), newLiveStates));
+          if (myStateLog != null && myStateLog.exists()) {
+            // log was disabled - xml is actual again
+            myStateLog.delete();
+          }
+        }
+
+        if (!force) {
           myLoadedData = myCopiedStorageData;
         }
       }
@@ -242,6 +306,50 @@ public abstract class XmlElementStorage extends StateStorageBase<StorageData> {
       }
     }
 
+    private void saveToStateLog(@Nonnull ComponentStateLog stateLog,
+                                @Nonnull StorageData storageData,
+                                @Nonnull Map<String, Element> newLiveStates,
+                                boolean force) throws IOException {
+      if (force || !stateLog.isLoaded()) {
+        Map<String, byte[]> states = new LinkedHashMap<>();
+        for (String name : new TreeSet<>(storageData.getComponentNames())) {
+          states.put(name, archiveForStateLog(storageData, name, newLiveStates));
+        }
+        // xml file is kept as the last full snapshot for recovery of a corrupted log
+        stateLog.write(states);
+        return;
+      }
+
+      Set<String> changed = new TreeSet<>();
+      Set<String> removed = new TreeSet<>();
+      myOriginalStorageData.collectChangedComponents(storageData, changed, removed);
+      if (changed.isEmpty() && removed.isEmpty()) {
+        return;
+      }
+
+      Map<String, byte[]> changedStates = new LinkedHashMap<>();
+      for (String name : changed) {
+        changedStates.put(name, archiveForStateLog(storageData, name, newLiveStates));
+      }
+      stateLog.append(changedStates, removed);
+    }
+
+    @Nonnull
+    private byte[] archiveForStateLog(@Nonnull StorageData storageData, @Nonnull String name, @Nonnull Map<String, Element> newLiveStates) {
+      Element element = storageData.getStateCopy(name, newLiveStates);
+      // some PathMacroFilter requires name attribute
+      element.setAttribute(StorageData.NAME, name);
+      if (isCollapsePathsOnSave() && myPathMacroSubstitutor != null) {
+        try {
+          myPathMacroSubstitutor.collapsePaths(element);
+        }
+        finally {
+          myPathMacroSubstitutor.reset();
+        }
+      }
+      return StateMap.archiveState(element);
+    }
+
     // only because default project store hack
     protected boolean isCollapsePathsOnSave() {
       return true;
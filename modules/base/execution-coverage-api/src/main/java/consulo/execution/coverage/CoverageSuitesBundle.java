@@ -8,6 +8,7 @@ import consulo.language.psi.scope.GlobalSearchScopesCore;
 import consulo.application.util.CachedValue;
 import consulo.application.util.CachedValueProvider;
 import consulo.application.util.CachedValuesManager;
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.logging.Logger;
 import consulo.module.Module;
 import consulo.project.Project;
@@ -19,8 +20,11 @@ import consulo.util.lang.ref.SoftReference;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -88,12 +92,25 @@ public class CoverageSuitesBundle {
     final ProjectData projectData = myData.get();
     if (projectData != null) return projectData;
     ProjectData data = new ProjectData();
-    for (CoverageSuite suite : mySuites) {
-      final ProjectData coverageData = suite.getCoverageData(null);
+    if (mySuites.length == 1) {
+      final ProjectData coverageData = mySuites[0].getCoverageData(null);
       if (coverageData != null) {
         data.merge(coverageData);
       }
     }
+    else {
+      // sessions are loaded concurrently, but merged in the suites order since ProjectData isn't thread-safe
+      List<CompletableFuture<ProjectData>> futures = new ArrayList<>(mySuites.length);
+      for (CoverageSuite suite : mySuites) {
+        futures.add(CompletableFuture.supplyAsync(() -> suite.getCoverageData(null), AppExecutorUtil.getAppExecutorService()));
+      }
+      for (CompletableFuture<ProjectData> future : futures) {
+        final ProjectData coverageData = future.join();
+        if (coverageData != null) {
+          data.merge(coverageData);
+        }
+      }
+    }
     myData = new SoftReference<ProjectData>(data);
     return data;
   }
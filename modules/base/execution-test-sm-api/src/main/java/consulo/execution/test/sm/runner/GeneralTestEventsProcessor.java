@@ -28,6 +28,9 @@ import jakarta.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Processes events of test runner in general text-based form.
@@ -38,6 +41,9 @@ import java.util.List;
  */
 public abstract class GeneralTestEventsProcessor implements Disposable {
   private static final Logger LOG = Logger.getInstance(GeneralTestEventsProcessor.class);
+  // max time of one EDT pass over queued events, the rest is rescheduled to keep UI responsive
+  private static final int EVENTS_BATCH_THRESHOLD_MS = 30;
+
   protected final SMTRunnerEventsListener myEventPublisher;
   protected final SMTestProxy.SMRootTestProxy myTestsRootProxy;
   protected SMTestLocator myLocator = null;
@@ -47,6 +53,9 @@ public abstract class GeneralTestEventsProcessor implements Disposable {
 
   protected boolean myTreeBuildBeforeStart = false;
 
+  private final Queue<Runnable> myPendingEvents = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean myEventsDrainScheduled = new AtomicBoolean();
+
   public GeneralTestEventsProcessor(Project project, @Nonnull String testFrameworkName, @Nonnull SMTestProxy.SMRootTestProxy testsRootProxy) {
     myProject = project;
     myEventPublisher = project.getMessageBus().syncPublisher(SMTRunnerEventsListener.class);
@@ -290,9 +299,40 @@ public abstract class GeneralTestEventsProcessor implements Disposable {
     myListenerAdapters.clear();
   }
 
+  /**
+   * Events are queued and processed in EDT in batches, so a test run producing hundreds of thousands of events
+   * doesn't post one EDT event per service message.
+   */
   @Deprecated(forRemoval = true)
   public void addToInvokeLater(final Runnable runnable) {
-    Application.get().invokeLater(runnable);
+    myPendingEvents.offer(runnable);
+    scheduleEventsDrain();
+  }
+
+  private void scheduleEventsDrain() {
+    if (myEventsDrainScheduled.compareAndSet(false, true)) {
+      Application.get().invokeLater(this::drainEvents);
+    }
+  }
+
+  private void drainEvents() {
+    myEventsDrainScheduled.set(false);
+
+    long start = System.currentTimeMillis();
+    try {
+      Runnable event;
+      while ((event = myPendingEvents.poll()) != null) {
+        event.run();
+        if (System.currentTimeMillis() - start > EVENTS_BATCH_THRESHOLD_MS) {
+          break;
+        }
+      }
+    }
+    finally {
+      if (!myPendingEvents.isEmpty()) {
+        scheduleEventsDrain();
+      }
+    }
   }
 
   protected static <T> boolean isTreeComplete(Collection<T> runningTests, SMTestProxy.SMRootTestProxy rootNode) {
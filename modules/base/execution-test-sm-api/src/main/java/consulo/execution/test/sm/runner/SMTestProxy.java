@@ -225,6 +225,21 @@ public class SMTestProxy extends AbstractTestProxy {
     if (myPreferredPrinter != null && child.myPreferredPrinter == null) {
       child.setPreferredPrinter(myPreferredPrinter);
     }
+
+    child.propagateDefectToParents();
+  }
+
+  /**
+   * Marks in-progress container suites as defects, see {@link SuiteInProgressState#markDefectFound()}
+   */
+  private void propagateDefectToParents() {
+    if (!myState.isDefect()) {
+      return;
+    }
+    SMTestProxy parent = myParent;
+    while (parent != null && parent.myState instanceof SuiteInProgressState && ((SuiteInProgressState)parent.myState).markDefectFound()) {
+      parent = parent.myParent;
+    }
   }
 
   @Nullable
@@ -420,6 +435,7 @@ public class SMTestProxy extends AbstractTestProxy {
       //Test Suite
       myState = determineSuiteStateOnFinished();
     }
+    propagateDefectToParents();
     // prints final state additional info
     fireOnNewPrintable(myState);
   }
@@ -445,6 +461,7 @@ public class SMTestProxy extends AbstractTestProxy {
       myState = testError ? new TestErrorState(localizedMessage, stackTrace) : failedState;
       fireOnNewPrintable(myState);
     }
+    propagateDefectToParents();
   }
 
   public void setTestComparisonFailed(@Nonnull final String localizedMessage,
@@ -485,6 +502,7 @@ public class SMTestProxy extends AbstractTestProxy {
     else {
       myState = comparisionFailedState;
     }
+    propagateDefectToParents();
     fireOnNewPrintable(comparisionFailedState);
     return comparisionFailedState;
   }
@@ -501,6 +519,7 @@ public class SMTestProxy extends AbstractTestProxy {
   public void setTestIgnored(@Nullable String ignoreComment, @Nullable String stackTrace) {
     setStacktraceIfNotSet(stackTrace);
     myState = new TestIgnoredState(ignoreComment, stackTrace);
+    propagateDefectToParents();
     fireOnNewPrintable(myState);
   }
 
@@ -50,10 +50,23 @@ public class SuiteInProgressState extends TestInProgressState {
       }
     }
 
-    //cannot cache because one of child tests may fail in future
+    // children are scanned only once, later failures are reported by the children themselves via markDefectFound(),
+    // otherwise suites with a lot of tests would rescan them on every repaint
+    isDefectWasReallyFound = false;
     return false;
   }
 
+  /**
+   * @return false if the suite was already known to be a defect
+   */
+  public boolean markDefectFound() {
+    if (isDefectWasReallyFound == Boolean.TRUE) {
+      return false;
+    }
+    isDefectWasReallyFound = true;
+    return true;
+  }
+
   public boolean wasTerminated() {
     return false;
   }
@@ -15,13 +15,10 @@
  */
 package consulo.externalSystem.model;
 
-import consulo.util.io.StreamUtil;
-
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.io.*;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.Proxy;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
 import java.util.*;
 
 /**
@@ -47,7 +44,9 @@ public class DataNode<T> implements Serializable {
   @Nonnull
   private final Key<T> myKey;
   private transient T myData;
-  private byte[] myRawData;
+  // not decoded data, see DataNodeCodec
+  @Nullable
+  private transient DataNodeCodec.PayloadBlock myPayloadBlock;
 
   @Nullable
   private final DataNode<?> myParent;
@@ -58,6 +57,11 @@ public class DataNode<T> implements Serializable {
     myParent = parent;
   }
 
+  DataNode(@Nonnull Key<T> key, @Nullable DataNode<?> parent) {
+    myKey = key;
+    myParent = parent;
+  }
+
   @Nullable
   public DataNode<?> getParent() {
     return myParent;
@@ -100,95 +104,33 @@ public class DataNode<T> implements Serializable {
    * core ide plugins, non-core ide plugins, third-party plugins etc. That means that when a service from a core plugin needs to
    * unmarshall {@link DataNode} object, its content should not be unmarshalled as well because its class might be unavailable here.
    * <p/>
-   * That's why the content is delivered as a raw byte array and this method allows to build actual java object from it using
-   * the right class loader.
+   * That's why the content is delivered as a raw byte array (see {@link DataNodeCodec}) and this method allows to build actual
+   * java object from it using the right class loader. Content of all nodes with the same key is built at once.
    * <p/>
    * This method is a no-op if the content is already built.
    *
    * @param loaders  class loaders which are assumed to be able to build object of the target content class
    */
-  @SuppressWarnings({"unchecked", "IOResourceOpenedButNotSafelyClosed"})
   public void prepareData(@Nonnull final ClassLoader ... loaders) {
-    if (myData != null) {
+    if (myData != null || myPayloadBlock == null) {
       return;
     }
-    ObjectInputStream oIn = null;
-    try {
-      oIn = new ObjectInputStream(new ByteArrayInputStream(myRawData)) {
-        @Override
-        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
-          String name = desc.getName();
-          for (ClassLoader loader : loaders) {
-            try {
-              return Class.forName(name, false, loader);
-            }
-            catch (ClassNotFoundException e) {
-              // Ignore
-            }
-          }
-          return super.resolveClass(desc);
-        }
+    myPayloadBlock.decode(loaders);
+  }
 
-        @Override
-        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
-          for (ClassLoader loader : loaders) {
-            try {
-              return doResolveProxyClass(interfaces, loader);
-            }
-            catch (ClassNotFoundException e) {
-              // Ignore
-            }
-          }
-          return super.resolveProxyClass(interfaces);
-        }
+  @SuppressWarnings("unchecked")
+  void setDecodedData(Object data) {
+    myData = (T)data;
+    myPayloadBlock = null;
+  }
 
-        private Class<?> doResolveProxyClass(@Nonnull String[] interfaces, @Nonnull ClassLoader loader) throws ClassNotFoundException {
-          ClassLoader nonPublicLoader = null;
-          boolean hasNonPublicInterface = false;
+  @Nullable
+  DataNodeCodec.PayloadBlock getPayloadBlock() {
+    return myPayloadBlock;
+  }
 
-          // define proxy in class loader of non-public interface(s), if any
-          Class[] classObjs = new Class[interfaces.length];
-          for (int i = 0; i < interfaces.length; i++) {
-            Class cl = Class.forName(interfaces[i], false, loader);
-            if ((cl.getModifiers() & Modifier.PUBLIC) == 0) {
-              if (hasNonPublicInterface) {
-                if (nonPublicLoader != cl.getClassLoader()) {
-                  throw new IllegalAccessError(
-                          "conflicting non-public interface class loaders");
-                }
-              } else {
-                nonPublicLoader = cl.getClassLoader();
-                hasNonPublicInterface = true;
-              }
-            }
-            classObjs[i] = cl;
-          }
-          try {
-            return Proxy.getProxyClass(hasNonPublicInterface ? nonPublicLoader : loader, classObjs);
-          }
-          catch (IllegalArgumentException e) {
-            throw new ClassNotFoundException(null, e);
-          }
-        }
-      };
-      myData = (T)oIn.readObject();
-      myRawData = null;
-    }
-    catch (IOException e) {
-      throw new IllegalStateException(
-              String.format("Can't deserialize target data of key '%s'. Given class loaders: %s", myKey, Arrays.toString(loaders)),
-              e
-      );
-    }
-    catch (ClassNotFoundException e) {
-      throw new IllegalStateException(
-              String.format("Can't deserialize target data of key '%s'. Given class loaders: %s", myKey, Arrays.toString(loaders)),
-              e
-      );
-    }
-    finally {
-      StreamUtil.closeStream(oIn);
-    }
+  void setPayloadBlock(@Nullable DataNodeCodec.PayloadBlock payloadBlock) {
+    myPayloadBlock = payloadBlock;
   }
 
   /**
@@ -235,17 +177,8 @@ public class DataNode<T> implements Serializable {
     return myChildren;
   }
 
-  private void writeObject(ObjectOutputStream out) throws IOException {
-    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
-    ObjectOutputStream oOut = new ObjectOutputStream(bOut);
-    try {
-      oOut.writeObject(myData);
-    }
-    finally {
-      oOut.close();
-    }
-    myRawData = bOut.toByteArray();
-    out.defaultWriteObject();
+  private Object writeReplace() throws ObjectStreamException {
+    return new DataNodeCodec.SerializedNode(this);
   }
 
   @Override
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.externalSystem.model;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Binary form of {@link DataNode} graph.
+ * <p/>
+ * Layout: key table, tree structure (key index and children count of every node in pre-order), then payload segments of every key.
+ * A payload segment is a single object stream with data of several nodes of the key, so class descriptors and shared objects
+ * (paths, names, common dependency data) are written once per segment instead of once per node.
+ * <p/>
+ * Segments are not decoded while reading - a segment is decoded on first {@link DataNode#prepareData(ClassLoader...)}
+ * of any of its nodes, with class loaders of the caller, same as it was done for each node before.
+ * When a graph is written again, not decoded segments are copied as is, so data classes of plugins are never resolved
+ * with a wrong class loader.
+ */
+public class DataNodeCodec {
+  private static final int VERSION = 2;
+
+  /**
+   * Java serialization form of {@link DataNode}, see {@link DataNode#writeReplace()}.
+   * It refers to the {@link SerializedGraph} of the whole graph, so parent and children of the node are available after deserialization
+   * like before. The graph is written once per object stream, so all nodes of a graph written to one stream stay a single graph.
+   */
+  static final class SerializedNode implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // graphs written to every stream, by root node. Graph can't be shared by streams - it holds the nodes as they were written to the stream
+    private static final Map<ObjectOutputStream, Map<DataNode<?>, SerializedGraph>> ourWrittenGraphs = new WeakHashMap<>();
+
+    private transient DataNode<?> myNode;
+
+    SerializedNode(@Nonnull DataNode<?> node) {
+      myNode = node;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      DataNode<?> root = myNode;
+      while (root.getParent() != null) {
+        root = root.getParent();
+      }
+
+      SerializedGraph graph;
+      synchronized (ourWrittenGraphs) {
+        graph = ourWrittenGraphs.computeIfAbsent(out, stream -> new IdentityHashMap<>()).computeIfAbsent(root, SerializedGraph::new);
+      }
+      // encodes the graph if it's the first node of the graph in this stream
+      out.writeObject(graph);
+      out.writeInt(graph.indexOf(myNode));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      SerializedGraph graph = (SerializedGraph)in.readObject();
+      myNode = graph.getNode(in.readInt());
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+      return myNode;
+    }
+  }
+
+  /**
+   * Graph of a root node in one object stream, java serialization writes it once per stream and refers to it by handle afterwards
+   */
+  static final class SerializedGraph implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Nullable
+    private final transient DataNode<?> myRoot;
+    // nodes in pre-order as they were written to the stream, or as they were read
+    private transient List<DataNode<?>> myNodes;
+    private transient Map<DataNode<?>, Integer> myIndexes;
+
+    SerializedGraph(@Nonnull DataNode<?> root) {
+      myRoot = root;
+    }
+
+    private int indexOf(@Nonnull DataNode<?> node) throws IOException {
+      Integer index = myIndexes == null ? null : myIndexes.get(node);
+      if (index == null) {
+        throw new NotSerializableException("Node is not a part of written graph: " + node);
+      }
+      return index;
+    }
+
+    private DataNode<?> getNode(int index) throws IOException {
+      if (myNodes == null || index < 0 || index >= myNodes.size()) {
+        throw new InvalidObjectException("Invalid node index " + index);
+      }
+      return myNodes.get(index);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      assert myRoot != null;
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      myNodes = DataNodeCodec.write(myRoot, new DataOutputStream(bytes));
+      myIndexes = new IdentityHashMap<>(myNodes.size());
+      for (DataNode<?> node : myNodes) {
+        myIndexes.put(node, myIndexes.size());
+      }
+
+      out.writeInt(bytes.size());
+      bytes.writeTo(out);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException {
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      myNodes = read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+  }
+
+  /**
+   * Not decoded data of several nodes with the same key
+   */
+  static final class PayloadBlock {
+    private final Key<?> myKey;
+    // node of every object in the segment, null for objects of nodes which were not a part of the written graph
+    private final List<DataNode<?>> myNodes;
+    private byte[] myBytes;
+
+    private PayloadBlock(Key<?> key, List<DataNode<?>> nodes, byte[] bytes) {
+      myKey = key;
+      myNodes = nodes;
+      myBytes = bytes;
+    }
+
+    // block is shared by nodes of different subtrees, which can be read from different threads
+    synchronized void decode(@Nonnull ClassLoader... loaders) {
+      if (myBytes == null) {
+        return;
+      }
+
+      try (ObjectInputStream in = new ClassLoadersObjectInputStream(new ByteArrayInputStream(myBytes), loaders)) {
+        for (DataNode<?> node : myNodes) {
+          Object data = in.readObject();
+          if (node != null) {
+            node.setDecodedData(data);
+          }
+        }
+      }
+      catch (IOException | ClassNotFoundException e) {
+        throw new IllegalStateException(String.format("Can't deserialize target data of key '%s'. Given class loaders: %s",
+                                                      myKey,
+                                                      Arrays.toString(loaders)), e);
+      }
+      myBytes = null;
+    }
+
+    @Nullable
+    private synchronized byte[] getUndecodedBytes() {
+      return myBytes;
+    }
+  }
+
+  public static void write(@Nonnull DataNode<?> root, @Nonnull OutputStream stream) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+    write(root, out);
+    out.flush();
+  }
+
+  @Nonnull
+  @SuppressWarnings("unchecked")
+  public static <T> DataNode<T> read(@Nonnull InputStream stream) throws IOException {
+    return (DataNode<T>)read(new DataInputStream(new BufferedInputStream(stream))).get(0);
+  }
+
+  /**
+   * @return all written nodes in pre-order
+   */
+  @Nonnull
+  private static List<DataNode<?>> write(@Nonnull DataNode<?> root, @Nonnull DataOutputStream out) throws IOException {
+    List<DataNode<?>> nodes = new ArrayList<>();
+    collect(root, nodes);
+
+    Map<Key<?>, Integer> keyIndexes = new LinkedHashMap<>();
+    Map<Key<?>, List<DataNode<?>>> nodesByKey = new HashMap<>();
+    for (DataNode<?> node : nodes) {
+      keyIndexes.putIfAbsent(node.getKey(), keyIndexes.size());
+      nodesByKey.computeIfAbsent(node.getKey(), k -> new ArrayList<>()).add(node);
+    }
+
+    out.writeInt(VERSION);
+
+    writeVarInt(out, keyIndexes.size());
+    for (Key<?> key : keyIndexes.keySet()) {
+      out.writeUTF(key.getDataClass());
+      writeVarInt(out, key.getProcessingWeight());
+    }
+
+    writeVarInt(out, nodes.size());
+    for (DataNode<?> node : nodes) {
+      writeVarInt(out, keyIndexes.get(node.getKey()));
+      writeVarInt(out, node.getChildren().size());
+    }
+
+    for (Key<?> key : keyIndexes.keySet()) {
+      writePayloadSegments(nodesByKey.get(key), out);
+    }
+    return nodes;
+  }
+
+  private static void writePayloadSegments(@Nonnull List<DataNode<?>> nodes, @Nonnull DataOutputStream out) throws IOException {
+    Map<DataNode<?>, Integer> positions = new IdentityHashMap<>();
+    // not decoded blocks are copied as is, decoding them here would need class loaders of the data classes
+    Map<PayloadBlock, byte[]> undecoded = new LinkedHashMap<>();
+    List<DataNode<?>> decoded = new ArrayList<>();
+    for (DataNode<?> node : nodes) {
+      positions.put(node, positions.size());
+
+      PayloadBlock block = node.getPayloadBlock();
+      byte[] bytes = block == null ? null : block.getUndecodedBytes();
+      if (bytes != null) {
+        undecoded.putIfAbsent(block, bytes);
+      }
+      else {
+        decoded.add(node);
+      }
+    }
+
+    writeVarInt(out, undecoded.size() + (decoded.isEmpty() ? 0 : 1));
+    for (Map.Entry<PayloadBlock, byte[]> entry : undecoded.entrySet()) {
+      List<DataNode<?>> blockNodes = entry.getKey().myNodes;
+      writeVarInt(out, blockNodes.size());
+      for (DataNode<?> node : blockNodes) {
+        Integer position = node == null ? null : positions.get(node);
+        writeVarInt(out, position == null ? 0 : position + 1);
+      }
+      writeVarInt(out, entry.getValue().length);
+      out.write(entry.getValue());
+    }
+
+    if (!decoded.isEmpty()) {
+      writeVarInt(out, decoded.size());
+      for (DataNode<?> node : decoded) {
+        writeVarInt(out, positions.get(node) + 1);
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+        for (DataNode<?> node : decoded) {
+          objects.writeObject(node.getData());
+        }
+      }
+      writeVarInt(out, bytes.size());
+      bytes.writeTo(out);
+    }
+  }
+
+  @Nonnull
+  private static List<DataNode<?>> read(@Nonnull DataInputStream in) throws IOException {
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported version: " + version);
+    }
+
+    int keyCount = readVarInt(in);
+    Key<?>[] keys = new Key[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      String dataClass = in.readUTF();
+      keys[i] = new Key<>(dataClass, readVarInt(in));
+    }
+
+    int nodeCount = readVarInt(in);
+    List<DataNode<?>> nodes = new ArrayList<>(nodeCount);
+    List<List<DataNode<?>>> nodesByKey = new ArrayList<>(keyCount);
+    for (int i = 0; i < keyCount; i++) {
+      nodesByKey.add(new ArrayList<>());
+    }
+
+    // parent and count of not yet read children of every node on the path from root
+    Deque<DataNode<?>> parents = new ArrayDeque<>();
+    Deque<Integer> remainingChildren = new ArrayDeque<>();
+    for (int i = 0; i < nodeCount; i++) {
+      int keyIndex = readVarInt(in);
+      int childCount = readVarInt(in);
+
+      DataNode<?> parent = parents.peek();
+      DataNode<?> node = new DataNode<>(keys[keyIndex], parent);
+      if (parent != null) {
+        parent.addChild(node);
+        remainingChildren.push(remainingChildren.pop() - 1);
+      }
+
+      nodesByKey.get(keyIndex).add(node);
+      nodes.add(node);
+
+      if (childCount > 0) {
+        parents.push(node);
+        remainingChildren.push(childCount);
+      }
+      else {
+        while (!remainingChildren.isEmpty() && remainingChildren.peek() == 0) {
+          parents.pop();
+          remainingChildren.pop();
+        }
+      }
+    }
+
+    for (int keyIndex = 0; keyIndex < keyCount; keyIndex++) {
+      List<DataNode<?>> keyNodes = nodesByKey.get(keyIndex);
+      int segmentCount = readVarInt(in);
+      for (int i = 0; i < segmentCount; i++) {
+        int itemCount = readVarInt(in);
+        List<DataNode<?>> blockNodes = new ArrayList<>(itemCount);
+        for (int j = 0; j < itemCount; j++) {
+          int position = readVarInt(in) - 1;
+          blockNodes.add(position < 0 ? null : keyNodes.get(position));
+        }
+
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+
+        PayloadBlock block = new PayloadBlock(keys[keyIndex], blockNodes, bytes);
+        for (DataNode<?> node : blockNodes) {
+          if (node != null) {
+            node.setPayloadBlock(block);
+          }
+        }
+      }
+    }
+    return nodes;
+  }
+
+  private static void collect(@Nonnull DataNode<?> node, @Nonnull List<DataNode<?>> nodes) {
+    nodes.add(node);
+    for (DataNode<?> child : node.getChildren()) {
+      collect(child, nodes);
+    }
+  }
+
+  private static void writeVarInt(@Nonnull DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(@Nonnull DataInput in) throws IOException {
+    int value = 0;
+    int shift = 0;
+    while (true) {
+      int b = in.readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+      shift += 7;
+    }
+  }
+
+  private static class ClassLoadersObjectInputStream extends ObjectInputStream {
+    private final ClassLoader[] myLoaders;
+
+    private ClassLoadersObjectInputStream(@Nonnull InputStream in, @Nonnull ClassLoader[] loaders) throws IOException {
+      super(in);
+      myLoaders = loaders;
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      String name = desc.getName();
+      for (ClassLoader loader : myLoaders) {
+        try {
+          return Class.forName(name, false, loader);
+        }
+        catch (ClassNotFoundException e) {
+          // Ignore
+        }
+      }
+      return super.resolveClass(desc);
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+      for (ClassLoader loader : myLoaders) {
+        try {
+          return doResolveProxyClass(interfaces, loader);
+        }
+        catch (ClassNotFoundException e) {
+          // Ignore
+        }
+      }
+      return super.resolveProxyClass(interfaces);
+    }
+
+    private static Class<?> doResolveProxyClass(@Nonnull String[] interfaces, @Nonnull ClassLoader loader) throws ClassNotFoundException {
+      ClassLoader nonPublicLoader = null;
+      boolean hasNonPublicInterface = false;
+
+      // define proxy in class loader of non-public interface(s), if any
+      Class[] classObjs = new Class[interfaces.length];
+      for (int i = 0; i < interfaces.length; i++) {
+        Class cl = Class.forName(interfaces[i], false, loader);
+        if ((cl.getModifiers() & Modifier.PUBLIC) == 0) {
+          if (hasNonPublicInterface) {
+            if (nonPublicLoader != cl.getClassLoader()) {
+              throw new IllegalAccessError("conflicting non-public interface class loaders");
+            }
+          }
+          else {
+            nonPublicLoader = cl.getClassLoader();
+            hasNonPublicInterface = true;
+          }
+        }
+        classObjs[i] = cl;
+      }
+      try {
+        return Proxy.getProxyClass(hasNonPublicInterface ? nonPublicLoader : loader, classObjs);
+      }
+      catch (IllegalArgumentException e) {
+        throw new ClassNotFoundException(null, e);
+      }
+    }
+  }
+}
@@ -61,6 +61,11 @@ public class Key<T> implements Serializable, Comparable<Key<?>> {
     return new Key<T>(dataClass.getName(), processingWeight);
   }
 
+  @Nonnull
+  public String getDataClass() {
+    return myDataClass;
+  }
+
   /**
    * There is a possible case that when a {@link DataNode} object has children of more than on type (children with more than
    * one different {@link Key} we might want to process one type of children before another. That's why we need a way to define
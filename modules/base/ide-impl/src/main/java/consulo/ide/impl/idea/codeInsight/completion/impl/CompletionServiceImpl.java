@@ -32,6 +32,7 @@ import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -75,6 +76,37 @@ public final class CompletionServiceImpl extends CompletionService {
     }
   }
 
+  @Override
+  protected void getVariantsFromContributors(CompletionParameters parameters, @Nullable CompletionContributor from, PrefixMatcher matcher, Consumer<? super CompletionResult> consumer) {
+    List<CompletionContributor> contributors = CompletionContributor.forParameters(parameters);
+    List<CompletionContributor> remaining = contributors.subList(contributors.indexOf(from) + 1, contributors.size());
+
+    // runRemainingContributors() is called from a contributor, so only the top level run is parallel
+    if (from == null && ParallelCompletionContributors.canRun(remaining)) {
+      ParallelCompletionContributors.run(this, parameters, matcher, consumer, remaining);
+      return;
+    }
+    if (from != null) {
+      // the remaining contributors are run right here, the parallel workers for them would only duplicate the work
+      ParallelCompletionContributors.skipLaterContributors();
+    }
+
+    for (CompletionContributor contributor : remaining) {
+      ProgressManager.checkCanceled();
+
+      long start = System.nanoTime();
+      CompletionResultSet result = createResultSet(parameters, consumer, contributor, matcher);
+      contributor.fillCompletionVariants(parameters, result);
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(contributor.getClass().getName() + " took " + (System.nanoTime() - start) / 1000000 + "ms");
+      }
+
+      if (result.isStopped()) {
+        return;
+      }
+    }
+  }
+
   @SuppressWarnings({"MethodOverridesStaticMethodOfSuperclass"})
   public static CompletionServiceImpl getCompletionService() {
     return (CompletionServiceImpl)CompletionService.getCompletionService();
@@ -145,6 +177,11 @@ public final class CompletionServiceImpl extends CompletionService {
 
     @Override
     public void addAllElements(@Nonnull Iterable<? extends LookupElement> elements) {
+      if (ParallelCompletionContributors.isInWorker()) {
+        // the batch is delivered by ParallelCompletionContributors in contributor order
+        super.addAllElements(elements);
+        return;
+      }
       CompletionThreadingBase.withBatchUpdate(() -> super.addAllElements(elements), myParameters.getProcess());
     }
 
@@ -178,6 +215,7 @@ public final class CompletionServiceImpl extends CompletionService {
         LOG.trace("Completion stopped\n" + DebugUtil.currentStackTrace());
       }
       super.stopHere();
+      ParallelCompletionContributors.skipLaterContributors();
       if (myOriginal != null) {
         myOriginal.stopHere();
       }
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.ide.impl.idea.codeInsight.completion.impl;
+
+import consulo.application.ApplicationManager;
+import consulo.application.impl.internal.progress.SensitiveProgressWrapper;
+import consulo.application.progress.ProgressIndicator;
+import consulo.application.progress.ProgressManager;
+import consulo.application.util.concurrent.JobLauncher;
+import consulo.application.util.matcher.PrefixMatcher;
+import consulo.component.ProcessCanceledException;
+import consulo.ide.impl.idea.codeInsight.completion.CompletionThreadingBase;
+import consulo.language.editor.completion.BatchConsumer;
+import consulo.language.editor.completion.CompletionContributor;
+import consulo.language.editor.completion.CompletionParameters;
+import consulo.language.editor.completion.CompletionResult;
+import consulo.language.editor.completion.CompletionResultSet;
+import consulo.logging.Logger;
+import jakarta.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs completion contributors concurrently under the read action of the completion thread.
+ * <p/>
+ * Results still reach the consumer in the contributor order: the contributor which is first in order streams its results immediately,
+ * the later ones are buffered until all previous contributors finish. When a contributor calls {@link CompletionResultSet#stopHere()},
+ * or delegates to {@link CompletionResultSet#runRemainingContributors}, the later contributors are cancelled, or not started at all,
+ * and their results are dropped - same as in the sequential run.
+ * Batches ({@link CompletionResultSet#addAllElements}) are delivered as a whole, so they appear in the lookup all together.
+ * <p/>
+ * Disabled by default, enable with {@code -Dcompletion.parallel.contributors=true}.
+ */
+class ParallelCompletionContributors {
+  private static final Logger LOG = Logger.getInstance(ParallelCompletionContributors.class);
+
+  private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("completion.parallel.contributors", "false"));
+
+  // set while a contributor is running in a worker, nested completion runs sequentially
+  private static final ThreadLocal<ContributorResults> ourWorker = new ThreadLocal<>();
+
+  private final CompletionServiceImpl myService;
+  private final CompletionParameters myParameters;
+  private final PrefixMatcher myMatcher;
+  private final Consumer<? super CompletionResult> myConsumer;
+  private final List<CompletionContributor> myContributors;
+
+  private final Object myLock = new Object();
+  private final ContributorResults[] myResults;
+  // index of the contributor whose results are delivered right now, guarded by myLock
+  private int myCurrent;
+  // contributors after this index are skipped, guarded by myLock
+  private int myLastIndex;
+
+  private ParallelCompletionContributors(CompletionServiceImpl service,
+                                         CompletionParameters parameters,
+                                         PrefixMatcher matcher,
+                                         Consumer<? super CompletionResult> consumer,
+                                         List<CompletionContributor> contributors) {
+    myService = service;
+    myParameters = parameters;
+    myMatcher = matcher;
+    myConsumer = consumer;
+    myContributors = contributors;
+    myResults = new ContributorResults[contributors.size()];
+    myLastIndex = myResults.length - 1;
+    for (int i = 0; i < myResults.length; i++) {
+      myResults[i] = new ContributorResults(i);
+    }
+  }
+
+  static boolean canRun(@Nonnull List<CompletionContributor> contributors) {
+    return ENABLED &&
+           contributors.size() > 1 &&
+           ourWorker.get() == null &&
+           ApplicationManager.getApplication().isReadAccessAllowed();
+  }
+
+  /**
+   * Batch updates of the completion threading are bound to a thread, inside a worker they are replaced by the ordered delivery
+   */
+  static boolean isInWorker() {
+    return ourWorker.get() != null;
+  }
+
+  /**
+   * Called when the contributor running in the current worker stops or runs the remaining contributors itself,
+   * the results of the later workers would be dropped anyway, so they are cancelled
+   */
+  static void skipLaterContributors() {
+    ContributorResults worker = ourWorker.get();
+    if (worker != null) {
+      worker.owner().skipAfter(worker.myIndex);
+    }
+  }
+
+  static void run(@Nonnull CompletionServiceImpl service,
+                  @Nonnull CompletionParameters parameters,
+                  @Nonnull PrefixMatcher matcher,
+                  @Nonnull Consumer<? super CompletionResult> consumer,
+                  @Nonnull List<CompletionContributor> contributors) {
+    new ParallelCompletionContributors(service, parameters, matcher, consumer, contributors).run();
+  }
+
+  private void run() {
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(List.of(myResults), indicator, results -> {
+      runContributor(results);
+      return true;
+    });
+    ProgressManager.checkCanceled();
+  }
+
+  private void runContributor(ContributorResults results) {
+    if (isDropped(results.myIndex)) {
+      results.finish(false);
+      return;
+    }
+
+    CompletionContributor contributor = myContributors.get(results.myIndex);
+    CompletionResultSet resultSet = myService.createResultSet(myParameters, results, contributor, myMatcher);
+
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    ProgressIndicator workerIndicator = indicator == null ? null : new SensitiveProgressWrapper(indicator);
+    results.setIndicator(workerIndicator);
+
+    long start = System.nanoTime();
+    ourWorker.set(results);
+    try {
+      if (workerIndicator == null) {
+        contributor.fillCompletionVariants(myParameters, resultSet);
+      }
+      else {
+        ProgressManager.getInstance().executeProcessUnderProgress(() -> contributor.fillCompletionVariants(myParameters, resultSet), workerIndicator);
+      }
+    }
+    catch (ProcessCanceledException e) {
+      // only this worker was cancelled because an earlier contributor stopped the completion
+      if (indicator == null || indicator.isCanceled() || !isDropped(results.myIndex)) {
+        throw e;
+      }
+    }
+    finally {
+      ourWorker.remove();
+      results.finish(resultSet.isStopped());
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(contributor.getClass().getName() + " took " + (System.nanoTime() - start) / 1000000 + "ms");
+      }
+    }
+  }
+
+  private boolean isDropped(int index) {
+    synchronized (myLock) {
+      return myCurrent > index || index > myLastIndex;
+    }
+  }
+
+  private void skipAfter(int index) {
+    synchronized (myLock) {
+      if (index >= myLastIndex) return;
+
+      myLastIndex = index;
+      for (int i = index + 1; i < myResults.length; i++) {
+        myResults[i].myPending.clear();
+        ProgressIndicator indicator = myResults[i].myIndicator;
+        if (indicator != null) {
+          indicator.cancel();
+        }
+      }
+    }
+  }
+
+  private void deliver(Object unit) {
+    if (unit instanceof CompletionResult) {
+      myConsumer.accept((CompletionResult)unit);
+      return;
+    }
+
+    @SuppressWarnings("unchecked") List<CompletionResult> batch = (List<CompletionResult>)unit;
+    CompletionThreadingBase.withBatchUpdate(() -> {
+      if (myConsumer instanceof BatchConsumer) {
+        ((BatchConsumer)myConsumer).startBatch();
+      }
+      for (CompletionResult result : batch) {
+        myConsumer.accept(result);
+      }
+      if (myConsumer instanceof BatchConsumer) {
+        ((BatchConsumer)myConsumer).endBatch();
+      }
+    }, myParameters.getProcess());
+  }
+
+  private class ContributorResults implements BatchConsumer<CompletionResult> {
+    private final int myIndex;
+
+    // touched only by the thread running the contributor
+    private List<CompletionResult> myBatch;
+    private int myBatchDepth;
+
+    // single results and whole batches not delivered yet, guarded by myLock
+    private final List<Object> myPending = new ArrayList<>();
+    private boolean myFinished;
+    private boolean myStopped;
+    private ProgressIndicator myIndicator;
+
+    private ContributorResults(int index) {
+      myIndex = index;
+    }
+
+    private ParallelCompletionContributors owner() {
+      return ParallelCompletionContributors.this;
+    }
+
+    private void setIndicator(ProgressIndicator indicator) {
+      synchronized (myLock) {
+        myIndicator = indicator;
+        // skipped while the indicator was being created
+        if (indicator != null && myIndex > myLastIndex) {
+          indicator.cancel();
+        }
+      }
+    }
+
+    @Override
+    public void startBatch() {
+      if (myBatchDepth++ == 0) {
+        myBatch = new ArrayList<>();
+      }
+    }
+
+    @Override
+    public void endBatch() {
+      if (myBatchDepth > 0 && --myBatchDepth == 0) {
+        List<CompletionResult> batch = myBatch;
+        myBatch = null;
+        if (!batch.isEmpty()) {
+          offer(batch);
+        }
+      }
+    }
+
+    @Override
+    public void accept(CompletionResult result) {
+      if (myBatch != null) {
+        myBatch.add(result);
+      }
+      else {
+        offer(result);
+      }
+    }
+
+    private void offer(Object unit) {
+      synchronized (myLock) {
+        if (myIndex > myLastIndex) {
+          return;
+        }
+        if (myCurrent == myIndex) {
+          deliver(unit);
+        }
+        else if (myCurrent < myIndex) {
+          myPending.add(unit);
+        }
+      }
+    }
+
+    private void finish(boolean stopped) {
+      if (myBatch != null) {
+        // contributor failed inside a batch
+        List<CompletionResult> batch = myBatch;
+        myBatch = null;
+        myBatchDepth = 0;
+        offer(batch);
+      }
+
+      synchronized (myLock) {
+        myFinished = true;
+        myStopped = stopped;
+        myIndicator = null;
+
+        while (myCurrent < myResults.length && myResults[myCurrent].myFinished) {
+          if (myResults[myCurrent].myStopped || myCurrent >= myLastIndex) {
+            myCurrent = myResults.length;
+            break;
+          }
+
+          myCurrent++;
+          if (myCurrent < myResults.length) {
+            ContributorResults next = myResults[myCurrent];
+            for (Object unit : next.myPending) {
+              deliver(unit);
+            }
+            next.myPending.clear();
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.ide.impl.idea.execution.impl;
+
+import consulo.application.util.concurrent.SequentialTaskExecutor;
+import consulo.index.io.CompressionUtil;
+import consulo.logging.Logger;
+import consulo.util.io.FileUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Append-only on-disk log of everything printed to a console, see {@link ConsoleViewImpl#isSpillToDiskEnabled()}.
+ * <p/>
+ * The console document keeps only the recent window limited by the cycle buffer, while here the text is collected
+ * into segments of {@link #SEGMENT_SIZE} chars, and each completed segment is LZ4-compressed and appended to a temporary file.
+ * So the heap holds at most one segment regardless of how much the process has printed, plus the segments queued for writing.
+ * <p/>
+ * {@link #append} is called under the console lock, so it only collects the text: compression and file I/O
+ * are done on a sequential pooled thread, which also owns the file.
+ */
+class ConsoleSpillStorage {
+  private static final Logger LOG = Logger.getInstance(ConsoleSpillStorage.class);
+
+  private static final int SEGMENT_SIZE = 256 * 1024;
+
+  private final ExecutorService myWriter = SequentialTaskExecutor.createSequentialApplicationPoolExecutor("Console Spill Writer");
+
+  // guarded by this
+  private final StringBuilder myCurrentSegment = new StringBuilder();
+  private long myFlushedLength;
+  private int mySubmittedSegments;
+  private boolean myDisposed;
+
+  // touched only by myWriter
+  private SpillFile myFile;
+  private FileOutputStream myFileStream;
+  private DataOutputStream myOutput;
+  // file offsets of the written segments
+  private long[] mySegmentOffsets = new long[16];
+  private int mySegmentCount;
+  private boolean myBroken;
+
+  synchronized void append(@Nonnull CharSequence text) {
+    if (myDisposed) return;
+
+    int start = 0;
+    while (start < text.length()) {
+      int chunk = Math.min(text.length() - start, SEGMENT_SIZE - myCurrentSegment.length());
+      myCurrentSegment.append(text, start, start + chunk);
+      start += chunk;
+
+      if (myCurrentSegment.length() == SEGMENT_SIZE) {
+        String segment = myCurrentSegment.toString();
+        myCurrentSegment.setLength(0);
+        myFlushedLength += segment.length();
+        mySubmittedSegments++;
+        myWriter.execute(() -> writeSegment(segment));
+      }
+    }
+  }
+
+  /**
+   * @return total number of chars stored, including the not yet flushed segment
+   */
+  synchronized long length() {
+    return myFlushedLength + myCurrentSegment.length();
+  }
+
+  synchronized boolean hasSpilledSegments() {
+    return mySubmittedSegments > 0;
+  }
+
+  /**
+   * Streams the whole stored text to the writer segment by segment, never loading more than one segment into the heap.
+   * Only the list of segments is taken under the lock, printing to the console is not blocked during the export.
+   * The file is kept by the snapshot, so {@link #clear} and {@link #dispose} running meanwhile delete it only after the export.
+   */
+  void writeTo(@Nonnull Writer writer) throws IOException {
+    String tail;
+    Future<Snapshot> future;
+    synchronized (this) {
+      if (myDisposed) return;
+
+      tail = myCurrentSegment.toString();
+      // queued after all submitted segments, so the snapshot covers exactly the text before the tail
+      future = myWriter.submit(this::takeSnapshot);
+    }
+
+    Snapshot snapshot;
+    try {
+      snapshot = future.get();
+    }
+    catch (InterruptedException | ExecutionException e) {
+      throw new IOException(e);
+    }
+
+    if (snapshot != null) {
+      try (RandomAccessFile file = new RandomAccessFile(snapshot.myFile.myFile, "r")) {
+        for (long offset : snapshot.mySegmentOffsets) {
+          file.seek(offset);
+          writer.write(new String(CompressionUtil.readCompressed(file), StandardCharsets.UTF_8));
+        }
+      }
+      finally {
+        snapshot.myFile.release();
+      }
+    }
+    writer.write(tail);
+  }
+
+  synchronized void clear() {
+    if (myDisposed) return;
+
+    myCurrentSegment.setLength(0);
+    myFlushedLength = 0;
+    mySubmittedSegments = 0;
+    myWriter.execute(() -> {
+      closeFile();
+      myBroken = false;
+    });
+  }
+
+  synchronized void dispose() {
+    if (myDisposed) return;
+
+    myCurrentSegment.setLength(0);
+    myFlushedLength = 0;
+    mySubmittedSegments = 0;
+    myDisposed = true;
+    myWriter.execute(() -> {
+      closeFile();
+      myBroken = true;
+    });
+    myWriter.shutdown();
+  }
+
+  @Nullable
+  private Snapshot takeSnapshot() throws IOException {
+    if (mySegmentCount == 0 || myBroken) return null;
+
+    myOutput.flush();
+    myFile.acquire();
+    return new Snapshot(myFile, Arrays.copyOf(mySegmentOffsets, mySegmentCount));
+  }
+
+  private void writeSegment(String segment) {
+    if (myBroken) return;
+
+    try {
+      if (myOutput == null) {
+        myFile = new SpillFile(FileUtil.createTempFile("console", ".spill", true));
+        myFileStream = new FileOutputStream(myFile.myFile);
+        myOutput = new DataOutputStream(new BufferedOutputStream(myFileStream));
+      }
+
+      myOutput.flush();
+      long offset = myFileStream.getChannel().position();
+      byte[] bytes = segment.getBytes(StandardCharsets.UTF_8);
+      CompressionUtil.writeCompressed(myOutput, bytes, 0, bytes.length);
+
+      if (mySegmentCount == mySegmentOffsets.length) {
+        mySegmentOffsets = Arrays.copyOf(mySegmentOffsets, mySegmentCount * 2);
+      }
+      mySegmentOffsets[mySegmentCount++] = offset;
+    }
+    catch (IOException e) {
+      LOG.warn("Cannot spill console output to disk, older output will be lost", e);
+      closeFile();
+      myBroken = true;
+    }
+  }
+
+  private void closeFile() {
+    if (myOutput != null) {
+      try {
+        myOutput.close();
+      }
+      catch (IOException e) {
+        LOG.debug(e);
+      }
+      myOutput = null;
+      myFileStream = null;
+    }
+    if (myFile != null) {
+      myFile.release();
+      myFile = null;
+    }
+    mySegmentCount = 0;
+  }
+
+  /**
+   * Spill file shared by the writer and the running exports, deleted when the last of them releases it.
+   */
+  private static class SpillFile {
+    private final File myFile;
+    // the writer holds the first reference
+    private int myReferences = 1;
+
+    private SpillFile(File file) {
+      myFile = file;
+    }
+
+    private synchronized void acquire() {
+      myReferences++;
+    }
+
+    private synchronized void release() {
+      if (--myReferences == 0) {
+        FileUtil.delete(myFile);
+      }
+    }
+  }
+
+  private static class Snapshot {
+    private final SpillFile myFile;
+    private final long[] mySegmentOffsets;
+
+    private Snapshot(SpillFile file, long[] segmentOffsets) {
+      myFile = file;
+      mySegmentOffsets = segmentOffsets;
+    }
+  }
+}
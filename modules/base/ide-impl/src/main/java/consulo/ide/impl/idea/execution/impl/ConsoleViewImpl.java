@@ -3,11 +3,13 @@
 package consulo.ide.impl.idea.execution.impl;
 
 import com.google.common.base.CharMatcher;
+import consulo.application.AllIcons;
 import consulo.application.ApplicationManager;
 import consulo.application.ReadAction;
 import consulo.application.dumb.DumbAware;
 import consulo.application.dumb.IndexNotReadyException;
 import consulo.application.impl.internal.IdeaModalityState;
+import consulo.application.progress.Task;
 import consulo.codeEditor.*;
 import consulo.codeEditor.action.EditorActionHandler;
 import consulo.codeEditor.action.EditorActionManager;
@@ -32,9 +34,11 @@ import consulo.document.util.TextRange;
 import consulo.execution.ConsoleFolding;
 import consulo.execution.ExecutionBundle;
 import consulo.execution.ExecutionDataKeys;
+import consulo.execution.localize.ExecutionLocalize;
 import consulo.execution.util.ConsoleBuffer;
 import consulo.execution.ui.console.*;
 import consulo.execution.ui.console.Filter.ResultItem;
+import consulo.fileEditor.FileEditorManager;
 import consulo.ide.impl.idea.codeInsight.navigation.IncrementalSearchHandler;
 import consulo.ide.impl.idea.codeInsight.template.impl.editorActions.TypedActionHandlerBase;
 import consulo.ide.impl.idea.execution.actions.ClearConsoleAction;
@@ -71,9 +75,12 @@ import consulo.ui.ex.keymap.Keymap;
 import consulo.ui.ex.keymap.KeymapManager;
 import consulo.undoRedo.util.UndoUtil;
 import consulo.util.dataholder.Key;
+import consulo.util.io.FileUtil;
 import consulo.util.lang.Pair;
 import consulo.util.lang.SystemProperties;
 import consulo.util.lang.ref.Ref;
+import consulo.virtualFileSystem.LocalFileSystem;
+import consulo.virtualFileSystem.VirtualFile;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.TestOnly;
 
@@ -85,7 +92,12 @@ import java.awt.datatransfer.DataFlavor;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.*;
@@ -98,6 +110,7 @@ public class ConsoleViewImpl extends JPanel implements ConsoleView, ObservableCo
   private static final Logger LOG = Logger.getInstance(ConsoleViewImpl.class);
 
   private static final int DEFAULT_FLUSH_DELAY = SystemProperties.getIntProperty("console.flush.delay.ms", 200);
+  private static final boolean SPILL_TO_DISK = SystemProperties.getBooleanProperty("console.spill.to.disk", false);
 
   public static final Key<ConsoleViewImpl> CONSOLE_VIEW_IN_EDITOR_VIEW = Key.create("CONSOLE_VIEW_IN_EDITOR_VIEW");
   private static final Key<ConsoleViewContentType> CONTENT_TYPE = Key.create("ConsoleViewContentType");
@@ -129,6 +142,11 @@ public class ConsoleViewImpl extends JPanel implements ConsoleView, ObservableCo
    * the text from {@link #print(String, ConsoleViewContentType)} goes there and stays there until {@link #flushDeferredText()} is called
    */
   private final TokenBuffer myDeferredBuffer = new TokenBuffer(ConsoleBuffer.useCycleBuffer() ? ConsoleBuffer.getCycleBufferSize() : Integer.MAX_VALUE);
+  /**
+   * the whole printed text, including the part trimmed from the document by the cycle buffer. Not null only if {@link #isSpillToDiskEnabled()}
+   */
+  @Nullable
+  private final ConsoleSpillStorage mySpillStorage = isSpillToDiskEnabled() ? new ConsoleSpillStorage() : null;
 
   private boolean myUpdateFoldingsEnabled = true;
 
@@ -287,12 +305,23 @@ public class ConsoleViewImpl extends JPanel implements ConsoleView, ObservableCo
     return myProcessTextFilter;
   }
 
+  /**
+   * The cycle buffer keeps only the recent output in the document (and in the heap). In this mode the whole output
+   * is additionally written to a compressed on-disk log, which can be opened in an editor to search through the full history.
+   */
+  public static boolean isSpillToDiskEnabled() {
+    return SPILL_TO_DISK && ConsoleBuffer.useCycleBuffer();
+  }
+
   @Override
   public void clear() {
     if (myEditor == null) return;
     synchronized (LOCK) {
       // real document content will be cleared on next flush;
       myDeferredBuffer.clear();
+      if (mySpillStorage != null) {
+        mySpillStorage.clear();
+      }
     }
     if (!myFlushAlarm.isDisposed()) {
       cancelAllFlushRequests();
@@ -489,6 +518,9 @@ public class ConsoleViewImpl extends JPanel implements ConsoleView, ObservableCo
       myEditor.putUserData(CONSOLE_VIEW_IN_EDITOR_VIEW, null);
       synchronized (LOCK) {
         myDeferredBuffer.clear();
+        if (mySpillStorage != null) {
+          mySpillStorage.dispose();
+        }
       }
       myEditor = null;
       myHyperlinks = null;
@@ -564,6 +596,9 @@ public class ConsoleViewImpl extends JPanel implements ConsoleView, ObservableCo
     text = StringUtil.convertLineSeparators(text, keepSlashR);
     synchronized (LOCK) {
       myDeferredBuffer.print(text, contentType, info);
+      if (mySpillStorage != null) {
+        mySpillStorage.append(text);
+      }
 
       if (contentType == ConsoleViewContentType.USER_INPUT) {
         requestFlushImmediately();
@@ -1426,6 +1461,9 @@ public class ConsoleViewImpl extends JPanel implements ConsoleView, ObservableCo
     consoleActions.add(autoScrollToTheEndAction);
     consoleActions.add(ActionManager.getInstance().getAction("Print"));
     consoleActions.add(new ClearThisConsoleAction(this));
+    if (mySpillStorage != null) {
+      consoleActions.add(new OpenFullOutputAction());
+    }
     consoleActions.addAll(customActions);
     List<ConsoleActionsPostProcessor> postProcessors = ConsoleActionsPostProcessor.EP_NAME.getExtensionList();
     AnAction[] result = consoleActions.toArray(AnAction.EMPTY_ARRAY);
@@ -1618,6 +1656,42 @@ public class ConsoleViewImpl extends JPanel implements ConsoleView, ObservableCo
     }
   }
 
+  private class OpenFullOutputAction extends DumbAwareAction {
+    private OpenFullOutputAction() {
+      super(ExecutionLocalize.consoleOpenFullOutputActionName(), ExecutionLocalize.consoleOpenFullOutputActionDescription(), AllIcons.Actions.Preview);
+    }
+
+    @Override
+    public void update(@Nonnull AnActionEvent e) {
+      e.getPresentation().setEnabled(mySpillStorage != null && mySpillStorage.hasSpilledSegments());
+    }
+
+    @Override
+    public void actionPerformed(@Nonnull AnActionEvent e) {
+      ConsoleSpillStorage storage = mySpillStorage;
+      if (storage == null) return;
+
+      Task.Backgroundable.queue(myProject, ExecutionLocalize.consoleOpenFullOutputProgressTitle().get(), indicator -> {
+        try {
+          File file = FileUtil.createTempFile("consoleOutput", ".log", true);
+          try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            storage.writeTo(writer);
+          }
+
+          ApplicationManager.getApplication().invokeLater(() -> {
+            VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(file);
+            if (virtualFile != null && !myProject.isDisposed()) {
+              FileEditorManager.getInstance(myProject).openFile(virtualFile, true);
+            }
+          });
+        }
+        catch (IOException ex) {
+          LOG.warn(ex);
+        }
+      });
+    }
+  }
+
   @Nonnull
   public String getText() {
     return myEditor.getDocument().getText();
@@ -171,7 +171,9 @@ public class ChangeList {
     v.finished();
   }
 
-  public synchronized void purgeObsolete(long period) {
+  // not synchronized: storage purges in small batches, so event recording may proceed meanwhile,
+  // and hands off each batch after removing it, so contents are released outside of the storage lock
+  public void purgeObsolete(long period) {
     myStorage.purge(period, myIntervalBetweenActivities, changeSet -> {
       for (Content each : changeSet.getContentsToPurge()) {
         each.release();
@@ -22,13 +22,17 @@ import consulo.ide.impl.idea.history.utils.LocalHistoryLog;
 import consulo.ide.impl.idea.ide.BrowserUtil;
 import consulo.ide.impl.idea.ide.actions.ShowFilePathAction;
 import consulo.ide.impl.idea.openapi.util.io.FileUtil;
+import consulo.ide.impl.idea.util.io.UnsyncByteArrayInputStream;
 import consulo.ide.impl.idea.util.io.storage.AbstractStorage;
+import consulo.index.io.CompressionUtil;
+import consulo.index.io.data.DataOutputStream;
 import consulo.project.ui.notification.Notification;
 import consulo.project.ui.notification.NotificationType;
 import consulo.project.ui.notification.Notifications;
 import consulo.project.ui.notification.event.NotificationListener;
 import consulo.util.collection.primitive.ints.IntSet;
 import consulo.util.collection.primitive.ints.IntSets;
+import consulo.util.io.BufferExposingByteArrayOutputStream;
 import consulo.util.lang.Pair;
 import consulo.virtualFileSystem.ManagingFS;
 
@@ -40,17 +44,25 @@ import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 
 public class ChangeListStorageImpl implements ChangeListStorage {
-  private static final int VERSION = 5;
+  private static final int VERSION = 6;
   private static final String STORAGE_FILE = "changes";
+  // number of obsolete blocks removed while holding the storage lock, keeps purging from stalling event recording
+  private static final int PURGE_BATCH_SIZE = 200;
+
+  // serializes whole purges: the background purger and the one on dispose must not interleave their batches
+  private final Object myPurgeLock = new Object();
 
   private final File myStorageDir;
   private LocalHistoryStorage myStorage;
   private long myLastId;
 
   private boolean isCompletelyBroken = false;
+  private boolean isClosed = false;
 
   public ChangeListStorageImpl(File storageDir) throws IOException {
     myStorageDir = storageDir;
@@ -150,6 +162,7 @@ public class ChangeListStorageImpl implements ChangeListStorage {
   }
 
   public synchronized void close() {
+    isClosed = true;
     myStorage.dispose();
   }
 
@@ -209,25 +222,24 @@ public class ChangeListStorageImpl implements ChangeListStorage {
 
   @Nonnull
   private ChangeSetHolder doReadBlock(int id) throws IOException {
-    DataInputStream in = myStorage.readStream(id);
-    try {
-      return new ChangeSetHolder(id, new ChangeSet(in));
-    }
-    finally {
-      in.close();
+    byte[] bytes;
+    try (DataInputStream in = myStorage.readStream(id)) {
+      bytes = CompressionUtil.readCompressed(in);
     }
+    return new ChangeSetHolder(id, new ChangeSet(new DataInputStream(new UnsyncByteArrayInputStream(bytes))));
   }
 
   public synchronized void writeNextSet(ChangeSet changeSet) {
     if (isCompletelyBroken) return;
 
     try {
-      AbstractStorage.StorageDataOutput out = myStorage.writeStream(myStorage.createNextRecord(), true);
-      try {
-        changeSet.write(out);
+      BufferExposingByteArrayOutputStream bytes = new BufferExposingByteArrayOutputStream();
+      try (DataOutputStream setOut = new DataOutputStream(bytes)) {
+        changeSet.write(setOut);
       }
-      finally {
-        out.close();
+
+      try (AbstractStorage.StorageDataOutput out = myStorage.writeStream(myStorage.createNextRecord(), true)) {
+        CompressionUtil.writeCompressed(out, bytes.getInternalBuffer(), 0, bytes.size());
       }
       myStorage.setLastId(myLastId);
       myStorage.force();
@@ -237,26 +249,87 @@ public class ChangeListStorageImpl implements ChangeListStorage {
     }
   }
 
-  public synchronized void purge(long period, int intervalBetweenActivities, Consumer<ChangeSet> processor) {
-    if (isCompletelyBroken) return;
+  /**
+   * Removes obsolete blocks starting from the oldest one in batches of {@link #PURGE_BATCH_SIZE},
+   * releasing the storage lock between batches so {@link #writeNextSet} is never blocked for the whole purge.
+   * Change sets of a batch are collected under the lock and passed to the processor after it is released.
+   */
+  public void purge(long period, int intervalBetweenActivities, Consumer<ChangeSet> processor) {
+    synchronized (myPurgeLock) {
+      LocalHistoryStorage storage;
+      int lastObsoleteId;
+      long lastObsoleteTimestamp;
+      synchronized (this) {
+        if (isCompletelyBroken || isClosed) return;
+
+        storage = myStorage;
+        try {
+          lastObsoleteId = findFirstObsoleteBlock(period, intervalBetweenActivities, IntSets.newHashSet(1000));
+          if (lastObsoleteId == 0) return;
+          lastObsoleteTimestamp = myStorage.getTimestamp(lastObsoleteId);
+        }
+        catch (IOException e) {
+          handleError(e, null);
+          return;
+        }
+      }
 
-    IntSet recursionGuard = IntSets.newHashSet(1000);
+      IntSet recursionGuard = IntSets.newHashSet(1000);
+      List<ChangeSet> purged = new ArrayList<>(PURGE_BATCH_SIZE);
+      boolean done;
+      do {
+        done = purgeBatch(storage, lastObsoleteId, lastObsoleteTimestamp, recursionGuard, purged);
+        purged.forEach(processor);
+        purged.clear();
+      }
+      while (!done);
+    }
+  }
+
+  /**
+   * @return true if there is nothing more to purge
+   */
+  private synchronized boolean purgeBatch(LocalHistoryStorage storage,
+                                          int lastObsoleteId,
+                                          long lastObsoleteTimestamp,
+                                          IntSet recursionGuard,
+                                          List<ChangeSet> purged) {
+    // storage has been rebuilt after an error, record ids are not valid anymore
+    if (isCompletelyBroken || isClosed || storage != myStorage) return true;
 
     try {
-      int firstObsoleteId = findFirstObsoleteBlock(period, intervalBetweenActivities, recursionGuard);
-      if (firstObsoleteId == 0) return;
+      int each = myStorage.getFirstRecord();
+      int deleteUpTo = 0;
+      boolean done = each == 0;
+      List<ChangeSet> batch = new ArrayList<>();
+
+      for (int i = 0; i < PURGE_BATCH_SIZE && !done; i++) {
+        if (!recursionGuard.add(each)) throw new IOException("Recursive records found");
+        // record ids are reused after deletion, so compare timestamps to detect that we went past the obsolete part
+        if (myStorage.getTimestamp(each) > lastObsoleteTimestamp) {
+          done = true;
+          break;
+        }
 
-      int eachBlockId = firstObsoleteId;
+        batch.add(doReadBlock(each).changeSet);
+        deleteUpTo = each;
 
-      while (eachBlockId != 0) {
-        processor.accept(doReadBlock(eachBlockId).changeSet);
-        eachBlockId = doReadPrevSafely(eachBlockId, recursionGuard);
+        done = each == lastObsoleteId;
+        each = myStorage.getNextRecord(each);
+        if (each == 0) done = true;
       }
-      myStorage.deleteRecordsUpTo(firstObsoleteId);
-      myStorage.force();
+
+      if (deleteUpTo != 0) {
+        myStorage.deleteRecordsUpTo(deleteUpTo);
+        // contents are handed off only when their records are gone, otherwise released contents would still be referenced
+        purged.addAll(batch);
+        myStorage.force();
+      }
+      return done;
     }
     catch (IOException e) {
       handleError(e, null);
+      return true;
     }
   }
 
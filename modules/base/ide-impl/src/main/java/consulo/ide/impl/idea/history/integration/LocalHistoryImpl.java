@@ -25,6 +25,7 @@ import consulo.ide.impl.idea.openapi.util.io.FileUtil;
 import consulo.application.AccessRule;
 import consulo.application.Application;
 import consulo.application.ApplicationManager;
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.application.util.function.ThrowableComputable;
 import consulo.application.util.registry.Registry;
 import consulo.component.messagebus.MessageBus;
@@ -46,6 +47,10 @@ import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static consulo.ide.impl.idea.history.integration.LocalHistoryUtil.findRevisionIndexToRevert;
@@ -63,6 +68,8 @@ public class LocalHistoryImpl extends LocalHistory implements Disposable {
 
   private final AtomicBoolean isInitialized = new AtomicBoolean();
   private Runnable myShutdownTask;
+  private ScheduledExecutorService myPurgeExecutor;
+  private Future<?> myPurgeFuture = CompletableFuture.completedFuture(null);
 
   public static LocalHistoryImpl getInstanceImpl() {
     return (LocalHistoryImpl)getInstance();
@@ -108,6 +115,23 @@ public class LocalHistoryImpl extends LocalHistory implements Disposable {
 
     VirtualFileManager fm = VirtualFileManager.getInstance();
     fm.addVirtualFileManagerListener(myEventDispatcher, this);
+
+    int purgeInterval = Registry.intValue("localHistory.purgeIntervalMinutes");
+    if (purgeInterval > 0) {
+      myPurgeExecutor = AppExecutorUtil.createBoundedScheduledExecutorService("Local History Purger", 1);
+      myPurgeFuture = myPurgeExecutor.scheduleWithFixedDelay(this::purgeObsolete, purgeInterval, purgeInterval, TimeUnit.MINUTES);
+    }
+  }
+
+  private static long getPurgePeriod() {
+    return Registry.intValue("localHistory.daysToKeep") * 1000L * 60L * 60L * 24L;
+  }
+
+  private void purgeObsolete() {
+    if (!isInitialized()) return;
+
+    LocalHistoryLog.LOG.debug("Purging local history in background...");
+    myChangeList.purgeObsolete(getPurgePeriod());
   }
 
   public File getStorageDir() {
@@ -126,13 +150,17 @@ public class LocalHistoryImpl extends LocalHistory implements Disposable {
   private void doDispose() {
     if (!isInitialized.getAndSet(false)) return;
 
-    long period = Registry.intValue("localHistory.daysToKeep") * 1000L * 60L * 60L * 24L;
+    myPurgeFuture.cancel(false);
+    if (myPurgeExecutor != null) {
+      myPurgeExecutor.shutdown();
+      myPurgeExecutor = null;
+    }
 
     myConnection.disconnect();
     myConnection = null;
 
     LocalHistoryLog.LOG.debug("Purging local history...");
-    myChangeList.purgeObsolete(period);
+    myChangeList.purgeObsolete(getPurgePeriod());
     myChangeList.close();
     LocalHistoryLog.LOG.debug("Local history storage successfully closed.");
 
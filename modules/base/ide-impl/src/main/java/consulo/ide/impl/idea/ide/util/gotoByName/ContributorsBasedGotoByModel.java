@@ -40,6 +40,9 @@ import java.util.concurrent.ConcurrentMap;
 public abstract class ContributorsBasedGotoByModel implements ChooseByNameModelEx, PossiblyDumbAware {
   public static final Logger LOG = Logger.getInstance(ContributorsBasedGotoByModel.class);
 
+  private static final int PARALLEL_NAMES_THRESHOLD = 50_000;
+  private static final int NAMES_CHUNK_SIZE = 10_000;
+
   protected final Project myProject;
   private final List<? extends ChooseByNameContributor> myContributors;
 
@@ -110,24 +113,62 @@ public abstract class ContributorsBasedGotoByModel implements ChooseByNameModelE
   }
 
   public void processContributorNames(@Nonnull ChooseByNameContributor contributor, @Nonnull FindSymbolParameters parameters, @Nonnull Processor<? super String> nameProcessor) {
-    TIntHashSet filter = new TIntHashSet(1000);
+    List<String> names;
     if (contributor instanceof ChooseByNameContributorEx) {
+      names = new ArrayList<>();
       ((ChooseByNameContributorEx)contributor).processNames(s -> {
-        if (nameProcessor.process(s)) {
-          filter.add(s.hashCode());
-        }
+        names.add(s);
         return true;
       }, parameters.getSearchScope(), parameters.getIdFilter());
     }
     else {
-      String[] names = contributor.getNames(myProject, parameters.isSearchInLibraries());
-      for (String element : names) {
-        if (nameProcessor.process(element)) {
-          filter.add(element.hashCode());
+      names = Arrays.asList(contributor.getNames(myProject, parameters.isSearchInLibraries()));
+    }
+
+    myContributorToItsSymbolsMap.put(contributor, processNamesInChunks(names, nameProcessor));
+  }
+
+  /**
+   * Names of one contributor can be millions (all symbols of a big project) - they are given to the processor
+   * in parallel chunks, processors are already called concurrently for different contributors.
+   *
+   * @return hashes of names accepted by the processor
+   */
+  @Nonnull
+  private static TIntHashSet processNamesInChunks(@Nonnull List<String> names, @Nonnull Processor<? super String> nameProcessor) {
+    if (names.size() < PARALLEL_NAMES_THRESHOLD) {
+      TIntHashSet filter = new TIntHashSet(1000);
+      for (String name : names) {
+        if (nameProcessor.process(name)) {
+          filter.add(name.hashCode());
         }
       }
+      return filter;
+    }
+
+    List<List<String>> chunks = new ArrayList<>(names.size() / NAMES_CHUNK_SIZE + 1);
+    for (int i = 0; i < names.size(); i += NAMES_CHUNK_SIZE) {
+      chunks.add(names.subList(i, Math.min(names.size(), i + NAMES_CHUNK_SIZE)));
+    }
+
+    TIntHashSet filter = new TIntHashSet(1000);
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(chunks, indicator, chunk -> {
+      TIntHashSet chunkFilter = new TIntHashSet();
+      for (String name : chunk) {
+        if (nameProcessor.process(name)) {
+          chunkFilter.add(name.hashCode());
+        }
+      }
+      synchronized (filter) {
+        filter.addAll(chunkFilter.toArray());
+      }
+      return true;
+    });
+    if (!completed) {
+      throw new ProcessCanceledException();
     }
-    myContributorToItsSymbolsMap.put(contributor, filter);
+    return filter;
   }
 
   IdFilter getIdFilter(boolean withLibraries) {
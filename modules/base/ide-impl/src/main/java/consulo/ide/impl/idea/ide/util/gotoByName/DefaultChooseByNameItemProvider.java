@@ -37,6 +37,8 @@ import java.util.function.Supplier;
 public class DefaultChooseByNameItemProvider implements ChooseByNameInScopeItemProvider {
   private static final Logger LOG = Logger.getInstance(DefaultChooseByNameItemProvider.class);
   private static final String UNIVERSAL_SEPARATOR = "\u0000";
+  // matched names of a short pattern in a big project
+  private static final int PARALLEL_SORT_THRESHOLD = 20_000;
   private final SmartPsiElementPointer myContext;
 
   public DefaultChooseByNameItemProvider(@Nullable PsiElement context) {
@@ -149,8 +151,17 @@ public class DefaultChooseByNameItemProvider implements ChooseByNameInScopeItemP
     String pattern = parameters.getCompletePattern();
 
     long started = System.currentTimeMillis();
-    Collections.sort(namesList, Comparator.comparing((MatchResult mr) -> !pattern.equalsIgnoreCase(mr.elementName)).thenComparing((MatchResult mr) -> !namePattern.equalsIgnoreCase(mr.elementName))
-            .thenComparing((mr1, mr2) -> mr1.compareWith(mr2, preferStartMatches)));
+    Comparator<MatchResult> comparator = Comparator.comparing((MatchResult mr) -> !pattern.equalsIgnoreCase(mr.elementName))
+            .thenComparing((MatchResult mr) -> !namePattern.equalsIgnoreCase(mr.elementName))
+            .thenComparing((mr1, mr2) -> mr1.compareWith(mr2, preferStartMatches));
+    if (namesList.size() < PARALLEL_SORT_THRESHOLD) {
+      namesList.sort(comparator);
+    }
+    else {
+      MatchResult[] sorted = namesList.toArray(new MatchResult[0]);
+      Arrays.parallelSort(sorted, comparator);
+      namesList = new ArrayList<>(Arrays.asList(sorted));
+    }
     if (LOG.isDebugEnabled()) {
       LOG.debug("sorted:" + (System.currentTimeMillis() - started) + ",results:" + namesList.size());
     }
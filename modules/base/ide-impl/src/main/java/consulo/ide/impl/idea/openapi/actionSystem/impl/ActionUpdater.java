@@ -47,6 +47,9 @@ public class ActionUpdater {
   private static final Logger LOG = Logger.getInstance(ActionUpdater.class);
   private static final Executor ourExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Action Updater", 2);
 
+  // update children of an expanded group in one EDT pass instead of a pass per action
+  private static final boolean BATCH_EDT_UPDATES = Boolean.parseBoolean(System.getProperty("action.updater.batch.edt", "true"));
+
   private final boolean myModalContext;
   private final PresentationFactory myFactory;
   private final DataContext myDataContext;
@@ -58,6 +61,8 @@ public class ActionUpdater {
   private final Map<AnAction, Presentation> myUpdatedPresentations = new ConcurrentHashMap<>();
   private final Map<ActionGroup, List<AnAction>> myGroupChildren = new ConcurrentHashMap<>();
   private final Map<ActionGroup, Boolean> myCanBePerformedCache = new ConcurrentHashMap<>();
+  // actions which update failed in a batch, so the error is not reported twice
+  private final Set<AnAction> myFailedUpdates = ContainerUtil.newConcurrentSet();
   private final UpdateStrategy myRealUpdateStrategy;
   private final UpdateStrategy myCheapStrategy;
   private final ActionManager myActionManager;
@@ -126,19 +131,81 @@ public class ActionUpdater {
 
     ProgressIndicator progress = Objects.requireNonNull(ProgressManager.getInstance().getProgressIndicator());
 
-    return ActionUpdateEdtExecutor.computeOnEdt(() -> {
-      long start = System.currentTimeMillis();
-      try {
-        return ProgressManager.getInstance().runProcess(call, ProgressWrapper.wrap(progress));
+    return ActionUpdateEdtExecutor.computeOnEdt(() -> callOnEdt(action, operation, call, progress));
+  }
+
+  private static <T> T callOnEdt(AnAction action, String operation, Supplier<T> call, ProgressIndicator progress) {
+    long start = System.currentTimeMillis();
+    try {
+      return ProgressManager.getInstance().runProcess(call, ProgressWrapper.wrap(progress));
+    }
+    finally {
+      long elapsed = System.currentTimeMillis() - start;
+      if (elapsed > 100) {
+        LOG.warn("Slow (" + elapsed + "ms) '" + operation + "' on action " + action + " of " + action.getClass() + ". Consider speeding it up and/or implementing UpdateInBackground.");
       }
-      finally {
-        long elapsed = System.currentTimeMillis() - start;
-        if (elapsed > 100) {
-          LOG.warn("Slow (" + elapsed + "ms) '" + operation + "' on action " + action + " of " + action.getClass() + ". Consider speeding it up and/or implementing UpdateInBackground.");
+    }
+  }
+
+  /**
+   * Updates all not yet updated actions from the list with a single EDT pass: presentations of all actions are cloned there,
+   * and actions which are not {@link UpdateInBackground} are updated right away. Background actions are updated later by {@link #update}
+   * in the current thread. Without the batch each action would take one or two separate EDT round trips.
+   */
+  private void updateInBatch(List<AnAction> actions, UpdateStrategy strategy) {
+    if (!BATCH_EDT_UPDATES || strategy != myRealUpdateStrategy || ApplicationManager.getApplication().isDispatchThread()) {
+      return;
+    }
+
+    List<AnAction> toUpdate = ContainerUtil.filter(actions, action -> !myUpdatedPresentations.containsKey(action) && !myFailedUpdates.contains(action));
+    if (toUpdate.size() < 2) {
+      return;
+    }
+
+    ProgressIndicator progress = Objects.requireNonNull(ProgressManager.getInstance().getProgressIndicator());
+
+    long start = System.currentTimeMillis();
+    Map<AnAction, Presentation> backgroundPresentations = ActionUpdateEdtExecutor.computeOnEdt(() -> {
+      Map<AnAction, Presentation> result = new HashMap<>();
+      for (AnAction action : toUpdate) {
+        if (progress.isCanceled()) {
+          // computeOnEdt will throw PCE in the background thread
+          break;
+        }
+
+        // clone the presentation to avoid partially changing the cached one if update is interrupted
+        Presentation presentation = myFactory.getPresentation(action).clone();
+        presentation.setEnabledAndVisible(true);
+        if (action instanceof UpdateInBackground) {
+          result.put(action, presentation);
+          continue;
         }
 
+        boolean success = callOnEdt(action, "update", () -> doUpdate(myModalContext, action, createActionEvent(action, presentation)), progress);
+        if (success) {
+          myUpdatedPresentations.put(action, presentation);
+        }
+        else {
+          myFailedUpdates.add(action);
+        }
       }
+      return result;
     });
+
+    for (Map.Entry<AnAction, Presentation> entry : backgroundPresentations.entrySet()) {
+      AnAction action = entry.getKey();
+      Presentation presentation = entry.getValue();
+      if (doUpdate(myModalContext, action, createActionEvent(action, presentation))) {
+        myUpdatedPresentations.put(action, presentation);
+      }
+      else {
+        myFailedUpdates.add(action);
+      }
+    }
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Updated " + toUpdate.size() + " actions in one EDT pass in " + (System.currentTimeMillis() - start) + " ms, place: " + myPlace);
+    }
   }
 
   /**
@@ -255,6 +322,8 @@ public class ActionUpdater {
     }
 
     List<AnAction> children = getGroupChildren(group, strategy);
+    // every child is updated by expandGroupChild below
+    updateInBatch(children, strategy);
     List<AnAction> result = ContainerUtil.concat(children, child -> expandGroupChild(child, hideDisabled, strategy));
     return group.postProcessVisibleChildren(result);
   }
@@ -462,6 +531,9 @@ public class ActionUpdater {
     if (cached != null) {
       return cached;
     }
+    if (strategy == myRealUpdateStrategy && myFailedUpdates.contains(action)) {
+      return null;
+    }
 
     Presentation presentation = strategy.update.apply(action);
     if (presentation != null) {
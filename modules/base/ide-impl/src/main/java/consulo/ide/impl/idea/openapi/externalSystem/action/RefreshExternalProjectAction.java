@@ -10,21 +10,15 @@ import consulo.externalSystem.model.ProjectSystemId;
 import consulo.externalSystem.service.project.ProjectData;
 import consulo.ide.impl.idea.openapi.externalSystem.service.project.ExternalProjectRefreshCallback;
 import consulo.ide.impl.idea.openapi.externalSystem.service.project.manage.ProjectDataManager;
-import consulo.externalSystem.util.DisposeAwareProjectChange;
-import consulo.externalSystem.util.ExternalSystemApiUtil;
 import consulo.externalSystem.ExternalSystemBundle;
 import consulo.ide.impl.idea.openapi.externalSystem.util.ExternalSystemUtil;
 import consulo.externalSystem.model.task.ProgressExecutionMode;
 import consulo.document.FileDocumentManager;
 import consulo.application.dumb.DumbAware;
 import consulo.project.Project;
-import consulo.module.content.internal.ProjectRootManagerEx;
-import consulo.ui.annotation.RequiredUIAccess;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 
-import java.util.Collections;
-
 /**
  * * Forces the ide to retrieve the most up-to-date info about the linked external project and updates project state if necessary
  * (e.g. imports missing libraries).
@@ -76,18 +70,7 @@ public class RefreshExternalProjectAction extends AnAction implements DumbAware,
           if (externalProject == null) {
             return;
           }
-          ExternalSystemApiUtil.executeProjectChangeAction(true, new DisposeAwareProjectChange(project) {
-            @RequiredUIAccess
-            @Override
-            public void execute() {
-              ProjectRootManagerEx.getInstanceEx(project).mergeRootsChangesDuring(new Runnable() {
-                @Override
-                public void run() {
-                  projectDataManager.importData(externalProject.getKey(), Collections.singleton(externalProject), project, true);
-                }
-              });
-            }
-          });
+          projectDataManager.importProjectData(externalProject, project, false, true);
         }
 
         @Override
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.ide.impl.idea.openapi.externalSystem.service.project;
+
+import consulo.container.boot.ContainerPathManager;
+import consulo.externalSystem.model.DataNode;
+import consulo.externalSystem.model.DataNodeCodec;
+import consulo.externalSystem.model.ProjectSystemId;
+import consulo.externalSystem.service.project.ProjectData;
+import consulo.logging.Logger;
+import consulo.project.Project;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Last imported external project model, stored in the system directory in {@link DataNodeCodec} form,
+ * and fingerprints of its modules, see {@link #saveModuleFingerprints}.
+ * <p/>
+ * Thread-safe.
+ */
+public class ExternalProjectDataCache {
+  private static final Logger LOG = Logger.getInstance(ExternalProjectDataCache.class);
+
+  private static final String CACHE_PATH = "external_build_system";
+
+  private static final int FINGERPRINTS_VERSION = 2;
+
+  public static void save(@Nonnull Project ideProject,
+                          @Nonnull ProjectSystemId externalSystemId,
+                          @Nonnull String externalProjectPath,
+                          @Nonnull DataNode<ProjectData> projectNode) {
+    Path cacheFile = getCacheFile(ideProject, externalSystemId, externalProjectPath);
+    try {
+      long time = System.currentTimeMillis();
+
+      Files.createDirectories(cacheFile.getParent());
+
+      Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+      try (OutputStream out = Files.newOutputStream(tempFile)) {
+        DataNodeCodec.write(projectNode, out);
+      }
+      Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+
+      LOG.info(externalSystemId.getId() + " project model of " + externalProjectPath + " stored in " +
+               (System.currentTimeMillis() - time) + " ms. Size: " + Files.size(cacheFile));
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.warn("Fail to store project model of " + externalProjectPath, e);
+    }
+  }
+
+  /**
+   * @return last imported project model, or null if it was not stored. Data of nodes is not built, see {@link DataNode#prepareData(ClassLoader...)}
+   */
+  @Nullable
+  public static DataNode<ProjectData> load(@Nonnull Project ideProject, @Nonnull ProjectSystemId externalSystemId, @Nonnull String externalProjectPath) {
+    Path cacheFile = getCacheFile(ideProject, externalSystemId, externalProjectPath);
+    if (!Files.isRegularFile(cacheFile)) {
+      return null;
+    }
+
+    try (InputStream in = Files.newInputStream(cacheFile)) {
+      long time = System.currentTimeMillis();
+
+      DataNode<ProjectData> projectNode = DataNodeCodec.read(in);
+
+      LOG.info(externalSystemId.getId() + " project model of " + externalProjectPath + " loaded in " +
+               (System.currentTimeMillis() - time) + " ms");
+      return projectNode;
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.warn("Fail to load project model of " + externalProjectPath, e);
+      return null;
+    }
+  }
+
+  /**
+   * Stores fingerprints of module subtrees of the last imported model, so the next import can find unchanged modules
+   * without reading the previous model.
+   */
+  public static void saveModuleFingerprints(@Nonnull Project ideProject,
+                                            @Nonnull ProjectSystemId externalSystemId,
+                                            @Nonnull String externalProjectPath,
+                                            @Nonnull Map<String, Long> fingerprints) {
+    Path fingerprintsFile = getFingerprintsFile(ideProject, externalSystemId, externalProjectPath);
+    try {
+      Files.createDirectories(fingerprintsFile.getParent());
+
+      Path tempFile = fingerprintsFile.resolveSibling(fingerprintsFile.getFileName() + ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeInt(FINGERPRINTS_VERSION);
+        out.writeInt(fingerprints.size());
+        for (Map.Entry<String, Long> entry : fingerprints.entrySet()) {
+          out.writeUTF(entry.getKey());
+          out.writeLong(entry.getValue());
+        }
+      }
+      Files.move(tempFile, fingerprintsFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.warn("Fail to store module fingerprints of " + externalProjectPath, e);
+    }
+  }
+
+  /**
+   * @return fingerprints of module subtrees by module internal name, empty if they were not stored
+   */
+  @Nonnull
+  public static Map<String, Long> loadModuleFingerprints(@Nonnull Project ideProject,
+                                                         @Nonnull ProjectSystemId externalSystemId,
+                                                         @Nonnull String externalProjectPath) {
+    Path fingerprintsFile = getFingerprintsFile(ideProject, externalSystemId, externalProjectPath);
+    if (!Files.isRegularFile(fingerprintsFile)) {
+      return Collections.emptyMap();
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fingerprintsFile)))) {
+      if (in.readInt() != FINGERPRINTS_VERSION) {
+        return Collections.emptyMap();
+      }
+
+      int count = in.readInt();
+      Map<String, Long> result = new HashMap<>();
+      for (int i = 0; i < count; i++) {
+        String name = in.readUTF();
+        result.put(name, in.readLong());
+      }
+      return result;
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.warn("Fail to load module fingerprints of " + externalProjectPath, e);
+      return Collections.emptyMap();
+    }
+  }
+
+  @Nonnull
+  private static Path getFingerprintsFile(@Nonnull Project ideProject, @Nonnull ProjectSystemId externalSystemId, @Nonnull String externalProjectPath) {
+    Path cacheFile = getCacheFile(ideProject, externalSystemId, externalProjectPath);
+    return cacheFile.resolveSibling(cacheFile.getFileName() + ".fingerprints");
+  }
+
+  @Nonnull
+  private static Path getCacheFile(@Nonnull Project ideProject, @Nonnull ProjectSystemId externalSystemId, @Nonnull String externalProjectPath) {
+    return ContainerPathManager.get().getSystemDir()
+                               .resolve(CACHE_PATH)
+                               .resolve(ideProject.getLocationHash())
+                               .resolve(externalSystemId.getId() + "." + Integer.toHexString(externalProjectPath.hashCode()) + ".bin");
+  }
+}
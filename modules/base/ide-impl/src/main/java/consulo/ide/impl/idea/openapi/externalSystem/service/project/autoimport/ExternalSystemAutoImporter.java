@@ -29,7 +29,6 @@ import consulo.externalSystem.model.task.ExternalSystemTaskType;
 import consulo.externalSystem.service.project.ProjectData;
 import consulo.externalSystem.setting.AbstractExternalSystemSettings;
 import consulo.externalSystem.setting.ExternalProjectSettings;
-import consulo.externalSystem.util.DisposeAwareProjectChange;
 import consulo.externalSystem.util.ExternalSystemApiUtil;
 import consulo.externalSystem.util.ExternalSystemConstants;
 import consulo.ide.ServiceManager;
@@ -42,9 +41,7 @@ import consulo.ide.impl.idea.openapi.externalSystem.service.project.manage.Proje
 import consulo.ide.impl.idea.openapi.externalSystem.util.ExternalSystemUtil;
 import consulo.ide.impl.idea.util.containers.ContainerUtil;
 import consulo.ide.impl.idea.util.containers.ContainerUtilRt;
-import consulo.module.content.internal.ProjectRootManagerEx;
 import consulo.project.Project;
-import consulo.ui.annotation.RequiredUIAccess;
 import consulo.ui.ex.awt.UIUtil;
 import consulo.ui.ex.awt.util.Alarm;
 import consulo.virtualFileSystem.LocalFileSystem;
@@ -99,18 +96,7 @@ public class ExternalSystemAutoImporter implements BulkFileListener, DocumentLis
     @Override
     public void onSuccess(@jakarta.annotation.Nullable final DataNode<ProjectData> externalProject) {
       if (externalProject != null) {
-        ExternalSystemApiUtil.executeProjectChangeAction(new DisposeAwareProjectChange(myProject) {
-          @RequiredUIAccess
-          @Override
-          public void execute() {
-            ProjectRootManagerEx.getInstanceEx(myProject).mergeRootsChangesDuring(new Runnable() {
-              @Override
-              public void run() {
-                myProjectDataManager.importData(externalProject.getKey(), Collections.singleton(externalProject), myProject, true);
-              }
-            });
-          }
-        });
+        myProjectDataManager.importProjectData(externalProject, myProject, true, false);
       }
     }
 
@@ -19,11 +19,17 @@ import consulo.annotation.component.ComponentScope;
 import consulo.annotation.component.ServiceAPI;
 import consulo.annotation.component.ServiceImpl;
 import consulo.application.Application;
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.component.extension.ExtensionPointCacheKey;
 import consulo.externalSystem.model.DataNode;
 import consulo.externalSystem.model.Key;
+import consulo.externalSystem.model.ProjectKeys;
+import consulo.externalSystem.model.project.ModuleData;
+import consulo.externalSystem.service.project.ProjectData;
 import consulo.externalSystem.service.project.manage.ProjectDataService;
 import consulo.externalSystem.util.ExternalSystemApiUtil;
+import consulo.ide.impl.idea.openapi.externalSystem.service.project.ExternalProjectDataCache;
+import consulo.ide.impl.idea.openapi.externalSystem.service.project.ProjectStructureHelper;
 import consulo.logging.Logger;
 import consulo.project.Project;
 import consulo.util.collection.Stack;
@@ -32,6 +38,8 @@ import jakarta.inject.Singleton;
 
 import jakarta.annotation.Nonnull;
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Aggregates all {@link ProjectDataService registered data services} and provides entry points for project data management.
@@ -45,6 +53,8 @@ import java.util.*;
 public class ProjectDataManager {
   private static final Logger LOG = Logger.getInstance(ProjectDataManager.class);
 
+  private static final boolean INCREMENTAL_IMPORT = Boolean.parseBoolean(System.getProperty("external.system.incremental.import", "true"));
+
   private static final ExtensionPointCacheKey<ProjectDataService, Map<Key<?>, List<ProjectDataService<?, ?>>>> CACHE_KEY =
     ExtensionPointCacheKey.create("ProjectDataService", walker -> {
       Map<Key<?>, List<ProjectDataService<?, ?>>> result = new HashMap<>();
@@ -88,9 +98,124 @@ public class ProjectDataManager {
     }
   }
 
-  @SuppressWarnings("unchecked")
   public <T> void importData(@Nonnull Key<T> key, @Nonnull Collection<DataNode<T>> nodes, @Nonnull Project project, boolean synchronous) {
     ensureTheDataIsReadyToUse(nodes);
+    importData(key, nodes, project, synchronous, node -> true);
+  }
+
+  /**
+   * Imports the whole external project model. Must be called from a background thread, outside of read and write actions.
+   * <p/>
+   * Data is prepared and fingerprints of the module subtrees are computed at the calling thread, then every data service
+   * applies its changes in its own write action, as on {@link #importData(Key, Collection, Project, boolean)}.
+   * On incremental import children (content roots, dependencies etc) of modules which fingerprints are the same as at the previous
+   * import are not imported again - module nodes themselves always are, since some services need the complete module list.
+   * Fingerprints cover only the state compared by {@link Object#equals(Object)} of the data, so explicit refresh should use full import,
+   * which also reverts manual changes of the ide module configuration.
+   *
+   * @param incremental true to skip unchanged modules, false to import everything
+   * @param synchronous true to wait for the write actions, false to queue them at EDT
+   */
+  public void importProjectData(@Nonnull DataNode<ProjectData> projectNode, @Nonnull Project project, boolean incremental, boolean synchronous) {
+    long time = System.currentTimeMillis();
+
+    ensureTheDataIsReadyToUse(Collections.singleton(projectNode));
+
+    ProjectData projectData = projectNode.getData();
+    Map<String, Long> fingerprints = INCREMENTAL_IMPORT ? computeModuleFingerprints(projectNode) : Collections.emptyMap();
+    Set<DataNode<?>> unchangedModules = incremental ? findUnchangedModules(projectNode, project, fingerprints) : Collections.emptySet();
+
+    importData(projectNode.getKey(), Collections.singleton(projectNode), project, synchronous, node -> {
+      DataNode<?> parent = node.getParent();
+      return parent == null || !unchangedModules.contains(parent);
+    });
+
+    // queued after the write actions of the services
+    ExternalSystemApiUtil.executeOnEdt(synchronous, () -> {
+      if (project.isDisposed()) {
+        return;
+      }
+
+      LOG.info(String.format("Project '%s' imported in %d ms. Unchanged modules: %d",
+                             projectData.getExternalName(),
+                             System.currentTimeMillis() - time,
+                             unchangedModules.size()));
+
+      if (INCREMENTAL_IMPORT) {
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+          ExternalProjectDataCache.save(project, projectData.getOwner(), projectData.getLinkedExternalProjectPath(), projectNode);
+          ExternalProjectDataCache.saveModuleFingerprints(project, projectData.getOwner(), projectData.getLinkedExternalProjectPath(), fingerprints);
+        });
+      }
+    });
+  }
+
+  /**
+   * @return fingerprints of module subtrees by module internal name
+   */
+  @Nonnull
+  private static Map<String, Long> computeModuleFingerprints(@Nonnull DataNode<ProjectData> projectNode) {
+    Map<String, Long> result = new HashMap<>();
+    for (DataNode<?> child : projectNode.getChildren()) {
+      if (ProjectKeys.MODULE.equals(child.getKey())) {
+        result.put(((ModuleData)child.getData()).getInternalName(), fingerprint(child, 0));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return module nodes which fingerprints are equal to the previously imported ones, and which modules still exist at the ide
+   */
+  @Nonnull
+  private Set<DataNode<?>> findUnchangedModules(@Nonnull DataNode<ProjectData> projectNode,
+                                                @Nonnull Project project,
+                                                @Nonnull Map<String, Long> fingerprints) {
+    if (fingerprints.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    ProjectData projectData = projectNode.getData();
+    Map<String, Long> previousFingerprints =
+      ExternalProjectDataCache.loadModuleFingerprints(project, projectData.getOwner(), projectData.getLinkedExternalProjectPath());
+
+    Set<DataNode<?>> result = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (DataNode<?> child : projectNode.getChildren()) {
+      if (!ProjectKeys.MODULE.equals(child.getKey())) {
+        continue;
+      }
+
+      ModuleData moduleData = (ModuleData)child.getData();
+      Long fingerprint = fingerprints.get(moduleData.getInternalName());
+      if (fingerprint != null &&
+          fingerprint.equals(previousFingerprints.get(moduleData.getInternalName())) &&
+          myApplication.runReadAction((Supplier<Boolean>)() -> ProjectStructureHelper.findIdeModule(moduleData, project) != null)) {
+        result.add(child);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Combines keys and hash codes of data of the whole subtree. Hash codes which differ between sessions (identity or enum ones)
+   * only make the module look changed.
+   */
+  private static long fingerprint(@Nonnull DataNode<?> node, long hash) {
+    hash = hash * 0x9E3779B97F4A7C15L + node.getKey().getDataClass().hashCode();
+    hash = hash * 0x9E3779B97F4A7C15L + node.getData().hashCode();
+    hash = hash * 0x9E3779B97F4A7C15L + node.getChildren().size();
+    for (DataNode<?> child : node.getChildren()) {
+      hash = fingerprint(child, hash);
+    }
+    return hash;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> void importData(@Nonnull Key<T> key,
+                              @Nonnull Collection<DataNode<T>> nodes,
+                              @Nonnull Project project,
+                              boolean synchronous,
+                              @Nonnull Predicate<DataNode<?>> childFilter) {
     List<ProjectDataService<?, ?>> services = getServices().get(key);
     if (services == null) {
       LOG.warn(String.format("Can't import data nodes '%s'. Reason: no service is registered for key %s. Available services for %s",
@@ -105,9 +230,21 @@ public class ProjectDataManager {
 
     Collection<DataNode<?>> children = new ArrayList<>();
     for (DataNode<T> node : nodes) {
-      children.addAll(node.getChildren());
+      for (DataNode<?> child : node.getChildren()) {
+        if (childFilter.test(child)) {
+          children.add(child);
+        }
+      }
+    }
+
+    Map<Key<?>, List<DataNode<?>>> grouped = ExternalSystemApiUtil.group(children);
+    for (Map.Entry<Key<?>, List<DataNode<?>>> entry : grouped.entrySet()) {
+      Collection<DataNode<Object>> dummy = new ArrayList<>();
+      for (DataNode<?> node : entry.getValue()) {
+        dummy.add((DataNode<Object>)node);
+      }
+      importData((Key<Object>)entry.getKey(), dummy, project, synchronous, childFilter);
     }
-    importData(children, project, synchronous);
   }
 
   @SuppressWarnings("unchecked")
@@ -69,7 +69,6 @@ import consulo.ide.impl.idea.util.containers.ContainerUtilRt;
 import consulo.logging.Logger;
 import consulo.module.Module;
 import consulo.module.ModuleManager;
-import consulo.module.content.internal.ProjectRootManagerEx;
 import consulo.project.Project;
 import consulo.project.ui.wm.ToolWindowFactory;
 import consulo.project.ui.wm.ToolWindowManager;
@@ -211,7 +210,7 @@ public class ExternalSystemUtil {
     final ProjectDataManager projectDataManager = ServiceManager.getService(ProjectDataManager.class);
     final int[] counter = new int[1];
 
-    ExternalProjectRefreshCallback callback = new MyMultiExternalProjectRefreshCallback(spec.getProject(), projectDataManager, counter, spec.getExternalSystemId());
+    ExternalProjectRefreshCallback callback = new MyMultiExternalProjectRefreshCallback(spec.getProject(), projectDataManager, counter, spec.getExternalSystemId(), !spec.isForceWhenUptodate());
 
     Map<String, Long> modificationStamps = manager.getLocalSettingsProvider().apply(spec.getProject()).getExternalConfigModificationStamps();
     Set<String> toRefresh = ContainerUtilRt.newHashSet();
@@ -627,19 +626,7 @@ public class ExternalSystemUtil {
         projects.add(projectSettings);
         systemSettings.setLinkedProjectsSettings(projects);
         ensureToolWindowInitialized(project, externalSystemId);
-        ExternalSystemApiUtil.executeProjectChangeAction(new DisposeAwareProjectChange(project) {
-          @RequiredUIAccess
-          @Override
-          public void execute() {
-            ProjectRootManagerEx.getInstanceEx(project).mergeRootsChangesDuring(new Runnable() {
-              @Override
-              public void run() {
-                ProjectDataManager dataManager = ServiceManager.getService(ProjectDataManager.class);
-                dataManager.importData(externalProject.getKey(), Collections.singleton(externalProject), project, true);
-              }
-            });
-          }
-        });
+        ServiceManager.getService(ProjectDataManager.class).importProjectData(externalProject, project, false, false);
         if (executionResultCallback != null) {
           executionResultCallback.accept(true);
         }
@@ -687,12 +674,19 @@ public class ExternalSystemUtil {
     private final ProjectDataManager myProjectDataManager;
     private final int[] myCounter;
     private final ProjectSystemId myExternalSystemId;
-
-    public MyMultiExternalProjectRefreshCallback(Project project, ProjectDataManager projectDataManager, int[] counter, ProjectSystemId externalSystemId) {
+    // forced refresh imports everything, so manual changes of the ide modules are reverted
+    private final boolean myIncremental;
+
+    public MyMultiExternalProjectRefreshCallback(Project project,
+                                                 ProjectDataManager projectDataManager,
+                                                 int[] counter,
+                                                 ProjectSystemId externalSystemId,
+                                                 boolean incremental) {
       myProject = project;
       myProjectDataManager = projectDataManager;
       myCounter = counter;
       myExternalSystemId = externalSystemId;
+      myIncremental = incremental;
       myExternalModulePaths = ContainerUtilRt.newHashSet();
     }
 
@@ -705,17 +699,11 @@ public class ExternalSystemUtil {
       for (DataNode<ModuleData> node : moduleNodes) {
         myExternalModulePaths.add(node.getData().getLinkedExternalProjectPath());
       }
+      myProjectDataManager.importProjectData(externalProject, myProject, myIncremental, true);
       ExternalSystemApiUtil.executeProjectChangeAction(true, new DisposeAwareProjectChange(myProject) {
         @RequiredUIAccess
         @Override
         public void execute() {
-          ProjectRootManagerEx.getInstanceEx(myProject).mergeRootsChangesDuring(new Runnable() {
-            @Override
-            public void run() {
-              myProjectDataManager.importData(externalProject.getKey(), Collections.singleton(externalProject), myProject, true);
-            }
-          });
-
           processOrphanProjectLibraries();
         }
       });
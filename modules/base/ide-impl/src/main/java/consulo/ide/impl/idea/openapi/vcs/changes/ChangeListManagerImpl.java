@@ -494,6 +494,7 @@ public class ChangeListManagerImpl extends ChangeListManagerEx implements Change
     final boolean wasEverythingDirty = invalidated.isEverythingDirty();
     final List<VcsDirtyScope> scopes = invalidated.getScopes();
 
+    long start = System.currentTimeMillis();
     try {
       checkIfDisposed();
 
@@ -585,6 +586,28 @@ public class ChangeListManagerImpl extends ChangeListManagerEx implements Change
         myDelayedNotificator.changeListUpdateDone();
         myChangesViewManager.scheduleRefresh();
       }
+
+      logRefreshStatistics(scopes, wasEverythingDirty, System.currentTimeMillis() - start);
+    }
+  }
+
+  private void logRefreshStatistics(@Nonnull List<VcsDirtyScope> scopes, boolean wasEverythingDirty, long duration) {
+    boolean slow = duration > 5000;
+    if (!slow && !LOG.isDebugEnabled()) return;
+
+    int files = 0;
+    int directories = 0;
+    for (VcsDirtyScope scope : scopes) {
+      files += scope.getDirtyFilesNoExpand().size();
+      directories += scope.getRecursivelyDirtyDirectories().size();
+    }
+    String message = "refresh took " + duration + "ms, everything dirty: " + wasEverythingDirty + ", scopes: " + scopes.size() +
+                     ", dirty files: " + files + ", recursively dirty directories: " + directories;
+    if (slow) {
+      LOG.info(message);
+    }
+    else {
+      LOG.debug(message);
     }
   }
 
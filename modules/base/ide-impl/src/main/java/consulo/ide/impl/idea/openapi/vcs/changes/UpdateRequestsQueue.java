@@ -45,6 +45,9 @@ import java.util.function.Consumer;
 public class UpdateRequestsQueue {
   private final Logger LOG = Logger.getInstance(UpdateRequestsQueue.class);
   private static final String ourHeavyLatchOptimization = "vcs.local.changes.track.heavy.latch";
+  private static final int DELAY_MS = 300;
+  // bursts of requests (VFS refresh after a branch switch, save all) are zipped into one update, but it's delayed no longer than this
+  private static final int MAX_COALESCE_DELAY_MS = Integer.getInteger("vcs.local.changes.max.coalesce.delay", 1500);
   private final Project myProject;
   private ChangeListManagerImpl.Scheduler myScheduler;
   private final Runnable myDelegate;
@@ -55,6 +58,8 @@ public class UpdateRequestsQueue {
 
   private boolean myRequestSubmitted;
   private boolean myRequestRunning;
+  private long myFirstRequestTime;
+  private long myLastRequestTime;
   private final List<Runnable> myWaitingUpdateCompletionQueue;
   private final List<Semaphore> myWaitingUpdateCompletionSemaphores = new ArrayList<>();
   private final ProjectLevelVcsManager myPlVcsManager;
@@ -103,10 +108,12 @@ public class UpdateRequestsQueue {
       if (! myStarted && ApplicationManager.getApplication().isUnitTestMode()) return;
 
       if (! myStopped) {
+        myLastRequestTime = System.currentTimeMillis();
         if (! myRequestSubmitted) {
           final MyRunnable runnable = new MyRunnable();
           myRequestSubmitted = true;
-          myScheduler.schedule(runnable, 300, TimeUnit.MILLISECONDS);
+          myFirstRequestTime = myLastRequestTime;
+          myScheduler.schedule(runnable, DELAY_MS, TimeUnit.MILLISECONDS);
           LOG.debug("Scheduled for project: " + myProject.getName() + ", runnable: " + runnable.hashCode());
         }
       }
@@ -234,6 +241,22 @@ public class UpdateRequestsQueue {
     return !myStarted || !((StartupManagerImpl)myStartupManager).startupActivityPassed();
   }
 
+  /**
+   * @return how long to wait more for a pause in update requests, or 0 to update right now
+   */
+  private long getQuietTimeLeft() {
+    if (!myWaitingUpdateCompletionQueue.isEmpty() || !myWaitingUpdateCompletionSemaphores.isEmpty() ||
+        ApplicationManager.getApplication().isUnitTestMode()) {
+      // somebody waits for this update
+      return 0;
+    }
+
+    long now = System.currentTimeMillis();
+    long quietLeft = myLastRequestTime + DELAY_MS - now;
+    long maxLeft = myFirstRequestTime + MAX_COALESCE_DELAY_MS - now;
+    return Math.max(0, Math.min(quietLeft, maxLeft));
+  }
+
   private class MyRunnable implements Runnable {
     public void run() {
       final List<Runnable> copy = new ArrayList<>(myWaitingUpdateCompletionQueue.size());
@@ -249,6 +272,14 @@ public class UpdateRequestsQueue {
             return;
           }
 
+          long quietLeft = getQuietTimeLeft();
+          if (quietLeft > 0) {
+            LOG.debug("MyRunnable: requests keep coming, delay, project: " + myProject.getName() + ", runnable: " + hashCode());
+            // request stays submitted
+            myScheduler.schedule(new MyRunnable(), quietLeft, TimeUnit.MILLISECONDS);
+            return;
+          }
+
           if (checkLifeCycle() || checkHeavyOperations()) {
             LOG.debug("MyRunnable: reschedule, project: " + myProject.getName() + ", runnable: " + hashCode());
             myRequestSubmitted = false;
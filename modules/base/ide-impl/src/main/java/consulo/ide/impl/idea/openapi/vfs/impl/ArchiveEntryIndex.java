@@ -0,0 +1,264 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.ide.impl.idea.openapi.vfs.impl;
+
+import consulo.application.util.concurrent.AppExecutorUtil;
+import consulo.container.boot.ContainerPathManager;
+import consulo.logging.Logger;
+import consulo.util.io.FileAttributes;
+import consulo.util.lang.ByteArrayCharSequence;
+import consulo.virtualFileSystem.impl.internal.mediator.FileSystemUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entries of an archive, stored in the system directory, so {@link ZipHandler} doesn't read the central directory
+ * of an unchanged archive again after restart or after its entries map was collected.
+ * <p/>
+ * Layout: header (version, archive path, length, timestamp), then entries, each parent before its children:
+ * parent index, flags, length, short name. Relative paths are not stored - they are restored from parents,
+ * as in {@link ZipEntryMap}.
+ * <p/>
+ * Indices of deleted or changed archives are removed once per session, when the first index is saved.
+ */
+class ArchiveEntryIndex {
+  private static final Logger LOG = Logger.getInstance(ArchiveEntryIndex.class);
+
+  static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("vfs.archive.entry.index", "true"));
+
+  // central directory of a small archive is read faster than the index file is opened
+  static final int MIN_ENTRIES = 64;
+
+  private static final int VERSION = 1;
+
+  private static final byte DIRECTORY = 1;
+  // entry has timestamp of the archive, otherwise ArchiveHandler.DEFAULT_TIMESTAMP
+  private static final byte STAMPED = 2;
+  // entry is a value of the map, otherwise it's only a parent of other entries
+  private static final byte MAPPED = 4;
+
+  private static final AtomicBoolean ourPruneScheduled = new AtomicBoolean();
+
+  @Nonnull
+  private static Path getIndexDir() {
+    return ContainerPathManager.get().getSystemDir().resolve("archive-index");
+  }
+
+  @Nonnull
+  static Path getIndexFile(@Nonnull String archivePath) {
+    String name = new File(archivePath).getName();
+    return getIndexDir().resolve(name + "." + Integer.toHexString(archivePath.hashCode()) + ".bin");
+  }
+
+  @Nullable
+  static Map<String, ArchiveHandler.EntryInfo> load(@Nonnull String archivePath, long archiveLength, long archiveTimestamp) {
+    Path indexFile = getIndexFile(archivePath);
+    if (!Files.isRegularFile(indexFile)) {
+      return null;
+    }
+
+    try {
+      // not mapped - a mapping keeps the file open until it's collected, and the file can't be replaced on Windows meanwhile
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+      if (buffer.getInt() != VERSION ||
+          !archivePath.equals(readString(buffer)) ||
+          buffer.getLong() != archiveLength ||
+          buffer.getLong() != archiveTimestamp) {
+        return null;
+      }
+
+      int count = buffer.getInt();
+      ArchiveHandler.EntryInfo[] entries = new ArchiveHandler.EntryInfo[count];
+      String[] paths = new String[count];
+      Map<String, ArchiveHandler.EntryInfo> map = new ZipEntryMap(count);
+      for (int i = 0; i < count; i++) {
+        int parentIndex = buffer.getInt();
+        byte flags = buffer.get();
+        long length = buffer.getLong();
+        String shortName = readString(buffer);
+
+        ArchiveHandler.EntryInfo parent = parentIndex < 0 ? null : entries[parentIndex];
+        long timestamp = (flags & STAMPED) != 0 ? archiveTimestamp : ArchiveHandler.DEFAULT_TIMESTAMP;
+        entries[i] = new ArchiveHandler.EntryInfo(ByteArrayCharSequence.convertToBytesIfPossible(shortName), (flags & DIRECTORY) != 0, length, timestamp, parent);
+
+        String parentPath = parent == null ? null : paths[parentIndex];
+        paths[i] = parentPath == null || parentPath.isEmpty() ? shortName : parentPath + "/" + shortName;
+        if ((flags & MAPPED) != 0) {
+          map.put(paths[i], entries[i]);
+        }
+      }
+      return map;
+    }
+    catch (Exception e) {
+      LOG.warn("Fail to read archive index " + indexFile, e);
+      return null;
+    }
+  }
+
+  static void save(@Nonnull String archivePath, long archiveLength, long archiveTimestamp, @Nonnull Map<String, ArchiveHandler.EntryInfo> map) {
+    if (ourPruneScheduled.compareAndSet(false, true)) {
+      AppExecutorUtil.getAppExecutorService().execute(ArchiveEntryIndex::pruneStaleFiles);
+    }
+
+    Path indexFile = getIndexFile(archivePath);
+    try {
+      Map<ArchiveHandler.EntryInfo, Integer> indices = new IdentityHashMap<>();
+      List<ArchiveHandler.EntryInfo> ordered = new ArrayList<>(map.size());
+      for (ArchiveHandler.EntryInfo entry : map.values()) {
+        addWithParents(entry, indices, ordered);
+      }
+
+      Map<ArchiveHandler.EntryInfo, Boolean> mapped = new IdentityHashMap<>();
+      for (ArchiveHandler.EntryInfo entry : map.values()) {
+        mapped.put(entry, Boolean.TRUE);
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(ordered.size() * 32);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(VERSION);
+      writeString(out, archivePath);
+      out.writeLong(archiveLength);
+      out.writeLong(archiveTimestamp);
+      out.writeInt(ordered.size());
+      for (ArchiveHandler.EntryInfo entry : ordered) {
+        byte flags = 0;
+        if (entry.isDirectory) flags |= DIRECTORY;
+        if (entry.timestamp == archiveTimestamp) flags |= STAMPED;
+        if (mapped.containsKey(entry)) flags |= MAPPED;
+
+        out.writeInt(entry.parent == null ? -1 : indices.get(entry.parent));
+        out.writeByte(flags);
+        out.writeLong(entry.length);
+        writeString(out, entry.shortName.toString());
+      }
+
+      Files.createDirectories(indexFile.getParent());
+
+      Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+      try (OutputStream stream = Files.newOutputStream(tempFile)) {
+        bytes.writeTo(stream);
+      }
+      Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (IOException e) {
+      LOG.warn("Fail to write archive index " + indexFile, e);
+    }
+  }
+
+  /**
+   * Deletes indices which archives are deleted or changed since the index was saved, and leftovers of interrupted saves.
+   */
+  private static void pruneStaleFiles() {
+    Path indexDir = getIndexDir();
+    if (!Files.isDirectory(indexDir)) {
+      return;
+    }
+
+    int deleted = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(indexDir)) {
+      for (Path file : files) {
+        try {
+          if (isStale(file) && Files.deleteIfExists(file)) {
+            deleted++;
+          }
+        }
+        catch (IOException e) {
+          LOG.debug(e);
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.warn("Fail to clean archive indices in " + indexDir, e);
+    }
+
+    if (deleted > 0) {
+      LOG.info(deleted + " stale archive indices deleted");
+    }
+  }
+
+  private static boolean isStale(@Nonnull Path indexFile) throws IOException {
+    String name = indexFile.getFileName().toString();
+    if (name.endsWith(".tmp")) {
+      // can be written right now
+      return Files.getLastModifiedTime(indexFile).toMillis() < System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+    }
+    if (!name.endsWith(".bin")) {
+      return false;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+      if (in.readInt() != VERSION) {
+        return true;
+      }
+
+      int pathLength = in.readInt();
+      if (pathLength < 0 || pathLength > Short.MAX_VALUE) {
+        return true;
+      }
+      byte[] pathBytes = new byte[pathLength];
+      in.readFully(pathBytes);
+      String archivePath = new String(pathBytes, StandardCharsets.UTF_8);
+      long archiveLength = in.readLong();
+      long archiveTimestamp = in.readLong();
+
+      FileAttributes attributes = FileSystemUtil.getAttributes(archivePath);
+      return attributes == null || attributes.length != archiveLength || attributes.lastModified != archiveTimestamp;
+    }
+    catch (EOFException e) {
+      return true;
+    }
+  }
+
+  private static void addWithParents(@Nonnull ArchiveHandler.EntryInfo entry,
+                                     @Nonnull Map<ArchiveHandler.EntryInfo, Integer> indices,
+                                     @Nonnull List<ArchiveHandler.EntryInfo> ordered) {
+    if (indices.containsKey(entry)) {
+      return;
+    }
+    if (entry.parent != null) {
+      addWithParents(entry.parent, indices, ordered);
+    }
+    indices.put(entry, ordered.size());
+    ordered.add(entry);
+  }
+
+  private static void writeString(@Nonnull DataOutput out, @Nonnull String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @Nonnull
+  private static String readString(@Nonnull ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
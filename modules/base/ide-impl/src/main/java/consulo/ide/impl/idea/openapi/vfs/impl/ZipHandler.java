@@ -36,9 +36,18 @@ import java.util.Iterator;
 import java.util.Map;
 
 public abstract class ZipHandler extends ArchiveHandler {
-  private static final FileAccessorCache<ZipHandler, ArchiveFile> ourZipFileFileAccessorCache = new FileAccessorCache<ZipHandler, ArchiveFile>(20, 10) {
+  private static final Logger LOG = Logger.getInstance(ZipHandler.class);
+
+  // projects have hundreds of library jars, reopening of a zip reads its central directory again
+  private static final int OPEN_FILES_CACHE_SIZE = Integer.getInteger("zip.handler.open.files", 60);
+
+  private static final FileAccessorCache<ZipHandler, ArchiveFile> ourZipFileFileAccessorCache = new FileAccessorCache<ZipHandler, ArchiveFile>(OPEN_FILES_CACHE_SIZE, OPEN_FILES_CACHE_SIZE / 2) {
     @Override
     protected ArchiveFile createAccessor(ZipHandler key) throws IOException {
+      if (LOG.isDebugEnabled() && (getMissCount() & 0x3FF) == 0) {
+        LOG.debug("Zip file cache: " + getHitCount() + " hits, " + getMissCount() + " misses");
+      }
+
       final String canonicalPathToZip = key.getCanonicalPathToZip();
       FileAttributes attributes = FileSystemUtil.getAttributes(canonicalPathToZip);
       key.myFileStamp = attributes != null ? attributes.lastModified : DEFAULT_TIMESTAMP;
@@ -82,6 +91,15 @@ public abstract class ZipHandler extends ArchiveHandler {
   @Nonnull
   @Override
   protected Map<String, EntryInfo> createEntriesMap() throws IOException {
+    String canonicalPathToZip = getCanonicalPathToZip();
+    FileAttributes attributes = ArchiveEntryIndex.ENABLED ? FileSystemUtil.getAttributes(canonicalPathToZip) : null;
+    if (attributes != null) {
+      Map<String, EntryInfo> map = ArchiveEntryIndex.load(canonicalPathToZip, attributes.length, attributes.lastModified);
+      if (map != null) {
+        return map;
+      }
+    }
+
     FileAccessorCache.Handle<ArchiveFile> zipRef = getZipFileHandle();
     try {
       ArchiveFile zip = zipRef.get();
@@ -94,6 +112,11 @@ public abstract class ZipHandler extends ArchiveHandler {
         getOrCreate(entries.next(), map, zip);
       }
 
+      // entries are stamped by the opened file, it must be the same file as the index is saved for
+      if (attributes != null && map.size() >= ArchiveEntryIndex.MIN_ENTRIES && attributes.lastModified == myFileStamp && attributes.length == myFileLength) {
+        ArchiveEntryIndex.save(canonicalPathToZip, attributes.length, attributes.lastModified, map);
+      }
+
       return map;
     }
     finally {
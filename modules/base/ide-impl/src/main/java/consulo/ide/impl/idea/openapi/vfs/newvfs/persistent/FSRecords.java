@@ -1512,9 +1512,7 @@ public class FSRecords {
       else {
         recordId = getContentStorage().acquireNewRecord();
       }
-      try (AbstractStorage.StorageDataOutput output = getContentStorage().writeStream(recordId, true)) {
-        output.write(bytes);
-      }
+      getContentStorage().writeBytes(recordId, compressContent(new ByteArraySequence(bytes)), true);
       return recordId;
     });
   }
@@ -1582,22 +1580,23 @@ public class FSRecords {
           fixedSize = myFixedSize;
         }
 
-        ByteArraySequence newBytes;
-        if (useCompressionUtil) {
-          BufferExposingByteArrayOutputStream out = new BufferExposingByteArrayOutputStream();
-          try (DataOutputStream outputStream = new DataOutputStream(out)) {
-            CompressionUtil.writeCompressed(outputStream, bytes.getBytes(), bytes.getOffset(), bytes.getLength());
-          }
-          newBytes = out.toByteArraySequence();
-        }
-        else {
-          newBytes = bytes;
-        }
-        contentStorage.writeBytes(page, newBytes, fixedSize);
+        contentStorage.writeBytes(page, compressContent(bytes), fixedSize);
       });
     }
   }
 
+  // must mirror doReadContentById(): unlinked (e.g. local history) contents are read back through the same path
+  @Nonnull
+  private static ByteArraySequence compressContent(@Nonnull ByteArraySequence bytes) throws IOException {
+    if (!useCompressionUtil) return bytes;
+
+    BufferExposingByteArrayOutputStream out = new BufferExposingByteArrayOutputStream();
+    try (DataOutputStream outputStream = new DataOutputStream(out)) {
+      CompressionUtil.writeCompressed(outputStream, bytes.getBytes(), bytes.getOffset(), bytes.getLength());
+    }
+    return out.toByteArraySequence();
+  }
+
   private static final boolean DUMP_STATISTICS = WE_HAVE_CONTENT_HASHES;  // TODO: remove once not needed
   private static long totalContents;
   private static long totalReuses;
@@ -22,11 +22,13 @@ import org.yaml.snakeyaml.Yaml;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * @author VISTALL
@@ -36,34 +38,97 @@ class LocalizeFileState {
   private static final Logger LOG = Logger.getInstance(LocalizeFileState.class);
 
   private final String myId;
-  private URL myFileUrl;
+  private final URL myFileUrl;
 
-  private volatile Map<String, LocalizeKeyText> myTexts;
+  // mapped library cache (see LocalizeLibraryCache), if null - texts are parsed from yaml
+  @Nullable
+  private final ByteBuffer myCacheBuffer;
+  private final int myCacheOffset;
+
+  private volatile LocalizeTexts myTexts;
 
   public LocalizeFileState(String id, URL fileUrl) {
+    this(id, fileUrl, null, 0);
+  }
+
+  public LocalizeFileState(String id, URL fileUrl, @Nullable ByteBuffer cacheBuffer, int cacheOffset) {
     myId = id;
     myFileUrl = fileUrl;
+    myCacheBuffer = cacheBuffer;
+    myCacheOffset = cacheOffset;
+  }
+
+  public String getId() {
+    return myId;
+  }
+
+  public URL getFileUrl() {
+    return myFileUrl;
   }
 
   @Nullable
   public String getValue(LocalizeKey key) {
-    Map<String, LocalizeKeyText> texts = myTexts;
+    LocalizeTexts texts = myTexts;
 
     if (texts == null) {
-      texts = loadTexts(myFileUrl);
+      texts = loadTexts();
       myTexts = texts;
     }
 
-    LocalizeKeyText text = texts.get(key.getKey());
-    return text == null ? null : text.getText();
+    return texts.get(key.getKey());
   }
 
   @Nonnull
-  private Map<String, LocalizeKeyText> loadTexts(URL fileUrl) {
-    Map<String, LocalizeKeyText> map = new HashMap<>();
+  private LocalizeTexts loadTexts() {
+    if (myCacheBuffer != null) {
+      try {
+        ByteBuffer buffer = myCacheBuffer.duplicate();
+        buffer.position(myCacheOffset);
+        return LocalizeTexts.read(buffer);
+      }
+      catch (RuntimeException e) {
+        LOG.warn("Broken localize cache for " + myId + ", parsing " + myFileUrl, e);
+      }
+    }
+    return parseTexts(myId, myFileUrl);
+  }
+
+  @Nonnull
+  static LocalizeTexts parseTexts(String id, URL fileUrl) {
+    TreeMap<String, String> map = new TreeMap<>();
 
     long time = System.currentTimeMillis();
 
+    try {
+      parseTexts(fileUrl, map);
+    }
+    catch (Exception e) {
+      LOG.error(e);
+    }
+
+    LOG.info(id + " parsed in " + (System.currentTimeMillis() - time) + " ms. Size: " + map.size());
+    return LocalizeTexts.of(map);
+  }
+
+  /**
+   * Unlike {@link #parseTexts(String, URL)} fails instead of returning texts parsed before an error, for caching
+   */
+  @Nonnull
+  static LocalizeTexts parseTextsOrFail(URL fileUrl) throws IOException {
+    TreeMap<String, String> map = new TreeMap<>();
+    try {
+      parseTexts(fileUrl, map);
+    }
+    catch (IOException e) {
+      throw e;
+    }
+    catch (Exception e) {
+      throw new IOException("Fail to parse " + fileUrl, e);
+    }
+    return LocalizeTexts.of(map);
+  }
+
+  private static void parseTexts(URL fileUrl, Map<String, String> map) throws Exception {
     Yaml yaml = new Yaml();
     try (InputStream stream = fileUrl.openStream()) {
       Map<String, Map<String, String>> o = yaml.load(stream);
@@ -72,16 +137,8 @@ class LocalizeFileState {
         String key = entry.getKey();
         Map<String, String> value = entry.getValue();
 
-        LocalizeKeyText instance = new LocalizeKeyText(StringUtil.notNullize(value.get("text")));
-
-        map.put(key.toLowerCase(Locale.ROOT), instance);
+        map.put(key.toLowerCase(Locale.ROOT), StringUtil.notNullize(value.get("text")));
       }
     }
-    catch (Exception e) {
-      LOG.error(e);
-    }
-
-    LOG.info(myId + " parsed in " + (System.currentTimeMillis() - time) + " ms. Size: " + map.size());
-    return map;
   }
 }
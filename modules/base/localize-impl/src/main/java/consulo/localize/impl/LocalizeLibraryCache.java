@@ -0,0 +1,177 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.localize.impl;
+
+import consulo.logging.Logger;
+import consulo.util.io.URLUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary form of all localize files of one library jar, stored in the system directory.
+ * <p/>
+ * Layout: header (version, jar path, size, timestamp), table of files (locale, localize id, offset of texts),
+ * then {@link LocalizeTexts} of each file. The file is memory mapped, and texts of a localize file are decoded
+ * on its first access, so no yaml is parsed while the jar is unchanged.
+ * <p/>
+ * Cache is not written if any localize file of the jar can't be parsed. Caches of jars which are not localize libraries
+ * anymore are deleted on startup, see {@link #deleteUnused}.
+ */
+class LocalizeLibraryCache {
+  private static final Logger LOG = Logger.getInstance(LocalizeLibraryCache.class);
+
+  private static final int VERSION = 1;
+
+  @Nonnull
+  static Path getCacheFile(@Nonnull Path cacheDir, @Nonnull File jarFile) {
+    return cacheDir.resolve(jarFile.getName() + "." + Integer.toHexString(jarFile.getAbsolutePath().hashCode()) + ".bin");
+  }
+
+  /**
+   * @return locale -> localize id -> state, or null if there is no valid cache for the jar
+   */
+  @Nullable
+  static Map<String, Map<String, LocalizeFileState>> load(@Nonnull Path cacheFile, @Nonnull File jarFile) {
+    if (!Files.isRegularFile(cacheFile)) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      if (buffer.getInt() != VERSION ||
+          !jarFile.getAbsolutePath().equals(LocalizeTexts.readString(buffer)) ||
+          buffer.getLong() != jarFile.length() ||
+          buffer.getLong() != jarFile.lastModified()) {
+        return null;
+      }
+
+      int count = buffer.getInt();
+      String[] locales = new String[count];
+      String[] ids = new String[count];
+      int[] offsets = new int[count];
+      for (int i = 0; i < count; i++) {
+        locales[i] = LocalizeTexts.readString(buffer);
+        ids[i] = LocalizeTexts.readString(buffer);
+        offsets[i] = buffer.getInt();
+      }
+
+      int bodyStart = buffer.position();
+
+      Map<String, Map<String, LocalizeFileState>> result = new HashMap<>();
+      for (int i = 0; i < count; i++) {
+        URL fileUrl = URLUtil.getJarEntryURL(jarFile, getEntryName(locales[i], ids[i]));
+
+        LocalizeFileState state = new LocalizeFileState(ids[i], fileUrl, buffer, bodyStart + offsets[i]);
+
+        result.computeIfAbsent(locales[i], l -> new HashMap<>()).put(ids[i], state);
+      }
+      return result;
+    }
+    catch (Exception e) {
+      LOG.warn("Fail to read localize cache " + cacheFile, e);
+      return null;
+    }
+  }
+
+  static void save(@Nonnull Path cacheFile, @Nonnull File jarFile, @Nonnull Map<String, Map<String, LocalizeFileState>> files) {
+    try {
+      ByteArrayOutputStream body = new ByteArrayOutputStream();
+      DataOutputStream bodyOutput = new DataOutputStream(body);
+
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      DataOutputStream headerOutput = new DataOutputStream(header);
+      headerOutput.writeInt(VERSION);
+      LocalizeTexts.writeString(headerOutput, jarFile.getAbsolutePath());
+      headerOutput.writeLong(jarFile.length());
+      headerOutput.writeLong(jarFile.lastModified());
+
+      int count = 0;
+      for (Map<String, LocalizeFileState> states : files.values()) {
+        count += states.size();
+      }
+      headerOutput.writeInt(count);
+
+      for (Map.Entry<String, Map<String, LocalizeFileState>> entry : files.entrySet()) {
+        for (LocalizeFileState state : entry.getValue().values()) {
+          LocalizeTexts.writeString(headerOutput, entry.getKey());
+          LocalizeTexts.writeString(headerOutput, state.getId());
+          headerOutput.writeInt(bodyOutput.size());
+
+          // a broken file fails the whole cache, so it's parsed (and reported) again on the next start
+          LocalizeFileState.parseTextsOrFail(state.getFileUrl()).write(bodyOutput);
+        }
+      }
+
+      Files.createDirectories(cacheFile.getParent());
+
+      Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+      try (OutputStream out = Files.newOutputStream(tempFile)) {
+        header.writeTo(out);
+        body.writeTo(out);
+      }
+      Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (IOException e) {
+      LOG.warn("Fail to write localize cache " + cacheFile, e);
+
+      // cache of the previous jar version is invalid anyway
+      try {
+        Files.deleteIfExists(cacheFile);
+      }
+      catch (IOException ignored) {
+      }
+    }
+  }
+
+  /**
+   * Deletes caches (and leftovers of interrupted saves) in the cache dir, except the used ones
+   */
+  static void deleteUnused(@Nonnull Path cacheDir, @Nonnull Set<Path> usedCacheFiles) {
+    if (!Files.isDirectory(cacheDir)) {
+      return;
+    }
+
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, "*.{bin,tmp}")) {
+      for (Path file : files) {
+        if (!usedCacheFiles.contains(file)) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.warn("Fail to clean localize caches in " + cacheDir, e);
+    }
+  }
+
+  @Nonnull
+  static String getEntryName(@Nonnull String locale, @Nonnull String localizeId) {
+    return LocalizeManagerImpl.LOCALIZE_DIRECTORY + locale + "/" + localizeId + ".yaml";
+  }
+}
@@ -30,6 +30,7 @@ import jakarta.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -59,26 +60,65 @@ public class LocalizeManagerImpl extends LocalizeManager {
   private final AtomicLong myModificationCount = new AtomicLong();
 
   public void initialize(@Nullable List<String> files) {
+    initialize(files, null);
+  }
+
+  /**
+   * @param cacheDir directory for binary caches of localize files (see {@link LocalizeLibraryCache}), if null - yaml is always parsed
+   */
+  public void initialize(@Nullable List<String> files, @Nullable Path cacheDir) {
     if (myInitialized.compareAndSet(false, true)) {
       if(files == null) {
         return;
       }
 
+      Map<File, Map<String, Map<String, LocalizeFileState>>> notCached = new LinkedHashMap<>();
+      Set<Path> usedCacheFiles = new HashSet<>();
       for (String file : files) {
+        if (cacheDir != null) {
+          usedCacheFiles.add(LocalizeLibraryCache.getCacheFile(cacheDir, new File(file)));
+        }
+
         try {
-          analyzeLibraryJar(file);
+          analyzeLibraryJar(file, cacheDir, notCached);
         }
         catch (IOException e) {
           LOG.error("Fail to analyze library from url: " + file, e);
         }
       }
       myModificationCount.incrementAndGet();
+
+      if (cacheDir != null) {
+        LocalizeLibraryCache.deleteUnused(cacheDir, usedCacheFiles);
+      }
+
+      if (cacheDir != null && !notCached.isEmpty()) {
+        // yaml of these libraries is parsed once more here, but in background - next start will use the cache
+        Thread thread = new Thread(() -> {
+          for (Map.Entry<File, Map<String, Map<String, LocalizeFileState>>> entry : notCached.entrySet()) {
+            LocalizeLibraryCache.save(LocalizeLibraryCache.getCacheFile(cacheDir, entry.getKey()), entry.getKey(), entry.getValue());
+          }
+        }, "Localize Cache Writer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+      }
     }
   }
 
-  private void analyzeLibraryJar(String filePath) throws IOException {
+  private void analyzeLibraryJar(String filePath,
+                                 @Nullable Path cacheDir,
+                                 Map<File, Map<String, Map<String, LocalizeFileState>>> notCached) throws IOException {
     File jarFile = new File(filePath);
 
+    if (cacheDir != null) {
+      Map<String, Map<String, LocalizeFileState>> cached = LocalizeLibraryCache.load(LocalizeLibraryCache.getCacheFile(cacheDir, jarFile), jarFile);
+      if (cached != null) {
+        registerLocalizeFiles(cached);
+        return;
+      }
+    }
+
     // locale <localize id, state>
     Map<String, Map<String, LocalizeFileState>> localizeFiles = new HashMap<>();
 
@@ -107,6 +147,14 @@ public class LocalizeManagerImpl extends LocalizeManager {
       }
     }
 
+    registerLocalizeFiles(localizeFiles);
+
+    if (!localizeFiles.isEmpty()) {
+      notCached.put(jarFile, localizeFiles);
+    }
+  }
+
+  private void registerLocalizeFiles(Map<String, Map<String, LocalizeFileState>> localizeFiles) {
     for (Map.Entry<String, Map<String, LocalizeFileState>> entry : localizeFiles.entrySet()) {
       String localeString = entry.getKey();
       Map<String, LocalizeFileState> states = entry.getValue();
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.localize.impl;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Texts of one localize file as two parallel arrays sorted by key - lookup is a binary search without any per-file hash map.
+ */
+class LocalizeTexts {
+  static final LocalizeTexts EMPTY = new LocalizeTexts(new String[0], new String[0]);
+
+  private final String[] myKeys;
+  private final String[] myTexts;
+
+  private LocalizeTexts(String[] keys, String[] texts) {
+    myKeys = keys;
+    myTexts = texts;
+  }
+
+  @Nonnull
+  static LocalizeTexts of(@Nonnull TreeMap<String, String> texts) {
+    if (texts.isEmpty()) {
+      return EMPTY;
+    }
+
+    String[] keys = new String[texts.size()];
+    String[] values = new String[texts.size()];
+    int i = 0;
+    for (Map.Entry<String, String> entry : texts.entrySet()) {
+      keys[i] = entry.getKey();
+      values[i] = entry.getValue();
+      i++;
+    }
+    return new LocalizeTexts(keys, values);
+  }
+
+  @Nullable
+  String get(@Nonnull String key) {
+    int index = Arrays.binarySearch(myKeys, key);
+    return index >= 0 ? myTexts[index] : null;
+  }
+
+  int size() {
+    return myKeys.length;
+  }
+
+  void write(@Nonnull DataOutput out) throws IOException {
+    out.writeInt(myKeys.length);
+    for (int i = 0; i < myKeys.length; i++) {
+      writeString(out, myKeys[i]);
+      writeString(out, myTexts[i]);
+    }
+  }
+
+  @Nonnull
+  static LocalizeTexts read(@Nonnull ByteBuffer buffer) {
+    int size = buffer.getInt();
+    if (size == 0) {
+      return EMPTY;
+    }
+
+    String[] keys = new String[size];
+    String[] texts = new String[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = readString(buffer);
+      texts[i] = readString(buffer);
+    }
+    return new LocalizeTexts(keys, texts);
+  }
+
+  // DataOutput#writeUTF is limited to 64K
+  static void writeString(@Nonnull DataOutput out, @Nonnull String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @Nonnull
+  static String readString(@Nonnull ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -13,6 +13,7 @@ import consulo.process.io.BaseOutputReader;
 import consulo.process.io.ProcessIOExecutorService;
 import consulo.util.dataholder.Key;
 import consulo.util.lang.StringUtil;
+import consulo.util.lang.SystemProperties;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 
@@ -68,6 +69,9 @@ public class BaseOSProcessHandler extends LocalProcessHandler<Process> {
     if (Boolean.getBoolean("output.reader.blocking.mode")) {
       return BaseOutputReader.Options.BLOCKING;
     }
+    else if (SystemProperties.getBooleanProperty("output.reader.shared.polling", false)) {
+      return BaseOutputReader.Options.NON_BLOCKING_SHARED;
+    }
     else {
       return BaseOutputReader.Options.NON_BLOCKING;
     }
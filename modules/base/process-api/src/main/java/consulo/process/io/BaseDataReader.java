@@ -9,10 +9,7 @@ import consulo.util.lang.StringUtil;
 import jakarta.annotation.Nonnull;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.*;
 
 /**
  * @author Konstantin Kolosovsky.
@@ -25,6 +22,7 @@ public abstract class BaseDataReader {
   protected volatile boolean isStopped;
 
   private Future<?> myFinishedFuture;
+  private volatile PollingTask myPollingTask;
 
   /**
    * @param sleepingPolicy default is {@link SleepingPolicy#NON_BLOCKING} for the reasons described on {@link SleepingPolicy} which may be changed
@@ -47,6 +45,12 @@ public abstract class BaseDataReader {
     if (StringUtil.isEmptyOrSpaces(presentableName)) {
       LOG.warn(new Throwable("Must provide not-empty presentable name"));
     }
+    if (myFinishedFuture == null && isSharedPolling()) {
+      CompletableFuture<Void> finished = new CompletableFuture<>();
+      myFinishedFuture = finished;
+      myPollingTask = new PollingTask(finished, presentableName);
+      myPollingTask.schedule(0);
+    }
     if (myFinishedFuture == null) {
       myFinishedFuture = executeOnPooledThread(() -> {
         if (StringUtil.isEmptyOrSpaces(presentableName)) {
@@ -94,6 +98,15 @@ public abstract class BaseDataReader {
   @Nonnull
   protected abstract Future<?> executeOnPooledThread(@Nonnull Runnable runnable);
 
+  /**
+   * If true, the reader doesn't occupy a pooled thread (see {@link #executeOnPooledThread}) but is polled
+   * by the shared {@link ProcessIOPollingService}. Only applicable to {@link SleepingPolicy#NON_BLOCKING} readers,
+   * since a blocking read would stall every other stream served by the same poller thread.
+   */
+  protected boolean isSharedPolling() {
+    return false;
+  }
+
   /**
    * <p>
    * <h2>Blocking</h2>
@@ -212,6 +225,85 @@ public abstract class BaseDataReader {
     synchronized (mySleepMonitor) {
       mySleepMonitor.notifyAll();
     }
+    if (myPollingTask != null) {
+      myPollingTask.wakeUp();
+    }
+  }
+
+  /**
+   * One iteration of the {@link #doRun} loop, rescheduled on {@link ProcessIOPollingService} instead of sleeping.
+   */
+  private class PollingTask implements Runnable {
+    private final CompletableFuture<Void> myFinished;
+    private final String myPresentableName;
+    private ScheduledFuture<?> myScheduled;
+    private boolean myRunning;
+
+    private PollingTask(@Nonnull CompletableFuture<Void> finished, String presentableName) {
+      myFinished = finished;
+      myPresentableName = presentableName;
+    }
+
+    private void schedule(int delay) {
+      synchronized (this) {
+        myRunning = false;
+        myScheduled = ProcessIOPollingService.INSTANCE.schedule(this, delay, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    private void wakeUp() {
+      synchronized (this) {
+        // if the poll is running right now it will notice the stop signal on the next iteration
+        if (!myRunning && myScheduled != null && myScheduled.cancel(false)) {
+          myScheduled = ProcessIOPollingService.INSTANCE.schedule(this, 0, TimeUnit.MILLISECONDS);
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        myRunning = true;
+      }
+
+      // the poller thread takes the name of the stream while polling it, same as a dedicated reader thread
+      if (StringUtil.isEmptyOrSpaces(myPresentableName)) {
+        poll();
+      }
+      else {
+        ConcurrencyUtil.runUnderThreadName("BaseDataReader: " + myPresentableName, this::poll);
+      }
+    }
+
+    private void poll() {
+      // the same contract as in doRun(): once stop is signalled, the stream is read one more time
+      boolean stopSignalled = isStopped;
+      try {
+        boolean read = readAvailable();
+        if (!stopSignalled) {
+          beforeSleeping(read);
+          schedule(isStopped ? 0 : mySleepingPolicy.getTimeToSleep(read));
+          return;
+        }
+      }
+      catch (IOException e) {
+        LOG.info(e);
+      }
+      catch (Exception e) {
+        LOG.error(e);
+      }
+
+      try {
+        flush();
+        close();
+      }
+      catch (IOException e) {
+        LOG.error("Can't close stream", e);
+      }
+      finally {
+        myFinished.complete(null);
+      }
+    }
   }
 
   public void waitFor() throws InterruptedException {
@@ -27,6 +27,22 @@ public abstract class BaseOutputReader extends BaseDataReader {
      * @see BaseDataReader.SleepingPolicy#NON_BLOCKING
      */
     public static final Options NON_BLOCKING = withPolicy(SleepingPolicy.NON_BLOCKING);
+    /**
+     * Same as {@link #NON_BLOCKING}, but polled by the shared {@link ProcessIOPollingService}.
+     *
+     * @see #sharedPolling()
+     */
+    public static final Options NON_BLOCKING_SHARED = new Options() {
+      @Override
+      public SleepingPolicy policy() {
+        return SleepingPolicy.NON_BLOCKING;
+      }
+
+      @Override
+      public boolean sharedPolling() {
+        return true;
+      }
+    };
 
     public SleepingPolicy policy() {
       return null;
@@ -44,6 +60,15 @@ public abstract class BaseOutputReader extends BaseDataReader {
       return true;
     }
 
+    /**
+     * Non-blocking readers only: don't occupy a thread per stream, poll the stream from the shared {@link ProcessIOPollingService}.
+     * Each poll drains everything available, so the output is delivered in the same chunks as with a dedicated thread.
+     * {@link #onTextAvailable} is called on the poller thread, so a slow listener delays the output of the other streams.
+     */
+    public boolean sharedPolling() {
+      return false;
+    }
+
     public static Options withPolicy(final SleepingPolicy policy) {
       return new Options() {
         @Override
@@ -91,6 +116,11 @@ public abstract class BaseOutputReader extends BaseDataReader {
     myOptions = options;
   }
 
+  @Override
+  protected boolean isSharedPolling() {
+    return myOptions.sharedPolling() && mySleepingPolicy != SleepingPolicy.BLOCKING;
+  }
+
   private static Reader createInputStreamReader(@Nonnull InputStream stream, @Nullable Charset charset) {
     return charset == null ? new BaseInputStreamReader(stream) : new BaseInputStreamReader(stream, charset);
   }
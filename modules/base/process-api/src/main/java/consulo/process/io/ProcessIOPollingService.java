@@ -0,0 +1,34 @@
+package consulo.process.io;
+
+import jakarta.annotation.Nonnull;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small fixed pool which polls non-blocking process output readers (see {@link BaseOutputReader.Options#sharedPolling()}).
+ * Unlike {@link ProcessIOExecutorService}, where every stream occupies its own sleeping thread for the whole process lifetime,
+ * here each poll is a short task and all streams of all running processes share a few threads.
+ */
+public class ProcessIOPollingService extends ScheduledThreadPoolExecutor {
+  public static final String POOLED_THREAD_PREFIX = "Process I/O poller ";
+  public static final ScheduledExecutorService INSTANCE = new ProcessIOPollingService();
+  private final AtomicInteger counter = new AtomicInteger();
+
+  private ProcessIOPollingService() {
+    super(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+    setRemoveOnCancelPolicy(true);
+    setThreadFactory(new ThreadFactory() {
+      @Nonnull
+      @Override
+      public Thread newThread(@Nonnull final Runnable r) {
+        Thread thread = new Thread(r, POOLED_THREAD_PREFIX + counter.incrementAndGet());
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        // core threads never time out, they must not keep the JVM alive
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+}
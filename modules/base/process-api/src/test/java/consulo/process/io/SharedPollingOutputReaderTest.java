@@ -0,0 +1,246 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.process.io;
+
+import jakarta.annotation.Nonnull;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivery of output by {@link BaseOutputReader.Options#NON_BLOCKING_SHARED} readers, mostly on real child processes.
+ * Child processes are started from {@link #main} of this class.
+ */
+public class SharedPollingOutputReaderTest extends Assert {
+  private static final int PROCESSES = 16;
+  private static final int LINES = 5000;
+
+  private final List<Process> myProcesses = new ArrayList<>();
+
+  public static void main(String[] args) throws Exception {
+    PrintStream out = System.out;
+    switch (args[0]) {
+      case "lines":
+        int count = Integer.parseInt(args[1]);
+        for (int i = 0; i < count; i++) {
+          out.println("line " + i);
+        }
+        break;
+      case "silent":
+        Thread.sleep(Long.parseLong(args[1]));
+        break;
+    }
+    out.flush();
+  }
+
+  @After
+  public void tearDown() {
+    for (Process process : myProcesses) {
+      process.destroyForcibly();
+    }
+  }
+
+  @Test
+  public void testAllOutputOfManyProcessesIsDelivered() throws Exception {
+    List<Process> processes = new ArrayList<>();
+    List<CollectingReader> readers = new ArrayList<>();
+
+    for (int i = 0; i < PROCESSES; i++) {
+      Process process = startChild("lines", String.valueOf(LINES));
+      processes.add(process);
+      readers.add(new CollectingReader(process.getInputStream(), BaseOutputReader.Options.NON_BLOCKING_SHARED, "process " + i));
+    }
+
+    for (int i = 0; i < PROCESSES; i++) {
+      assertTrue(processes.get(i).waitFor(60, TimeUnit.SECONDS));
+      CollectingReader reader = readers.get(i);
+      reader.stop();
+      reader.waitFor(10, TimeUnit.SECONDS);
+    }
+
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < LINES; i++) {
+      expected.append("line ").append(i).append('\n');
+    }
+    for (CollectingReader reader : readers) {
+      assertEquals(expected.toString(), reader.getText().replace("\r\n", "\n"));
+    }
+  }
+
+  @Test
+  public void testOutputIsDeliveredByNextPoll() throws Exception {
+    PipedOutputStream output = new PipedOutputStream();
+    PipedInputStream input = new PipedInputStream(output);
+    SteppingPolicy policy = new SteppingPolicy();
+    CollectingReader reader = new CollectingReader(input, policy.options(), "stepping");
+    try {
+      // the first poll runs on start
+      policy.awaitPoll();
+      assertEquals("", reader.getText());
+
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < 10; i++) {
+        String line = "line " + i + "\n";
+        output.write(line.getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        expected.append(line);
+
+        policy.nextPoll();
+        assertEquals(expected.toString(), reader.getText());
+      }
+
+      // nothing is written, nothing is delivered
+      policy.nextPoll();
+      assertEquals(expected.toString(), reader.getText());
+    }
+    finally {
+      reader.stop();
+      policy.release();
+      reader.waitFor(10, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void testStopWakesSleepingReader() throws Exception {
+    Process process = startChild("silent", "30000");
+
+    // would sleep between polls for much longer than the test waits
+    BaseOutputReader.Options options = new BaseOutputReader.Options() {
+      @Override
+      public BaseDataReader.SleepingPolicy policy() {
+        return wasActive -> 60000;
+      }
+
+      @Override
+      public boolean sharedPolling() {
+        return true;
+      }
+    };
+    CollectingReader reader = new CollectingReader(process.getInputStream(), options, "silent");
+    Thread.sleep(200);
+
+    reader.stop();
+    // throws TimeoutException if the reader still sleeps
+    reader.waitFor(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testPollerThreadHasStreamName() throws Exception {
+    Process process = startChild("lines", "100");
+    CollectingReader reader = new CollectingReader(process.getInputStream(), BaseOutputReader.Options.NON_BLOCKING_SHARED, "named stream");
+
+    assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+    reader.stop();
+    reader.waitFor(10, TimeUnit.SECONDS);
+
+    assertFalse(reader.myThreadNames.isEmpty());
+    for (String name : reader.myThreadNames) {
+      assertEquals("BaseDataReader: named stream", name);
+    }
+  }
+
+  private Process startChild(String... args) throws Exception {
+    File classes = new File(SharedPollingOutputReaderTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    List<String> command = new ArrayList<>();
+    command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+    command.add("-cp");
+    command.add(classes.getPath());
+    command.add(SharedPollingOutputReaderTest.class.getName());
+    command.addAll(List.of(args));
+
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    myProcesses.add(process);
+    return process;
+  }
+
+  private static class CollectingReader extends BaseOutputReader {
+    private final StringBuffer myText = new StringBuffer();
+    private final Set<String> myThreadNames = ConcurrentHashMap.newKeySet();
+
+    private CollectingReader(@Nonnull InputStream stream, @Nonnull Options options, @Nonnull String name) {
+      super(stream, StandardCharsets.UTF_8, options);
+      start(name);
+    }
+
+    @Override
+    protected void onTextAvailable(@Nonnull String text) {
+      myText.append(text);
+      myThreadNames.add(Thread.currentThread().getName());
+    }
+
+    @Nonnull
+    @Override
+    protected Future<?> executeOnPooledThread(@Nonnull Runnable runnable) {
+      return ProcessIOExecutorService.INSTANCE.submit(runnable);
+    }
+
+    private String getText() {
+      return myText.toString();
+    }
+  }
+
+  /**
+   * Lets the test decide when the next poll runs: the poller waits in {@link #getTimeToSleep} until {@link #nextPoll} is called.
+   */
+  private static class SteppingPolicy implements BaseDataReader.SleepingPolicy {
+    private final Semaphore myAllowedPolls = new Semaphore(0);
+    private final Semaphore myFinishedPolls = new Semaphore(0);
+
+    @Override
+    public int getTimeToSleep(boolean wasActive) {
+      myFinishedPolls.release();
+      myAllowedPolls.acquireUninterruptibly();
+      return 0;
+    }
+
+    private BaseOutputReader.Options options() {
+      return new BaseOutputReader.Options() {
+        @Override
+        public BaseDataReader.SleepingPolicy policy() {
+          return SteppingPolicy.this;
+        }
+
+        @Override
+        public boolean sharedPolling() {
+          return true;
+        }
+      };
+    }
+
+    private void awaitPoll() throws InterruptedException {
+      assertTrue("poll is not finished", myFinishedPolls.tryAcquire(10, TimeUnit.SECONDS));
+    }
+
+    private void nextPoll() throws InterruptedException {
+      myAllowedPolls.release();
+      awaitPoll();
+    }
+
+    private void release() {
+      myAllowedPolls.release(Integer.MAX_VALUE / 2);
+    }
+  }
+}
@@ -381,41 +381,53 @@ public final class AsyncTreeModel extends AbstractTreeModel implements Identifia
     return map;
   }
 
-  private static int getIntersectionCount(@Nonnull Map<Object, Integer> indices, @Nonnull Iterable<Object> objects) {
+  /**
+   * @return the longest list of objects kept in the same relative order, so only the rest of children is reported as removed and inserted
+   */
+  @Nonnull
+  private static List<Object> getIntersection(@Nonnull Map<Object, Integer> removed, @Nonnull Map<Object, Integer> inserted) {
+    if (removed.isEmpty() || inserted.isEmpty()) return emptyList();
+
+    // old indices of common objects in the new order
+    Object[] objects = new Object[Math.min(removed.size(), inserted.size())];
+    int[] indices = new int[objects.length];
     int count = 0;
-    int last = -1;
-    for (Object object : objects) {
-      Integer index = indices.get(object);
-      if (index != null && last < index.intValue()) {
-        last = index;
+    for (Object object : inserted.keySet()) {
+      Integer index = removed.get(object);
+      if (index != null) {
+        objects[count] = object;
+        indices[count] = index;
         count++;
       }
     }
-    return count;
-  }
+    if (count == 0) return emptyList();
 
-  @Nonnull
-  private static List<Object> getIntersection(@Nonnull Map<Object, Integer> indices, @Nonnull Iterable<Object> objects) {
-    List<Object> list = new ArrayList<>(indices.size());
-    int last = -1;
-    for (Object object : objects) {
-      Integer index = indices.get(object);
-      if (index != null && last < index.intValue()) {
-        last = index;
-        list.add(object);
+    // longest increasing subsequence of old indices
+    int[] tails = new int[count];
+    int[] previous = new int[count];
+    int length = 0;
+    for (int i = 0; i < count; i++) {
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (indices[tails[middle]] < indices[i]) {
+          low = middle + 1;
+        }
+        else {
+          high = middle;
+        }
       }
+      previous[i] = low > 0 ? tails[low - 1] : -1;
+      tails[low] = i;
+      if (low == length) length++;
     }
-    return list;
-  }
 
-  @Nonnull
-  private static List<Object> getIntersection(@Nonnull Map<Object, Integer> removed, @Nonnull Map<Object, Integer> inserted) {
-    if (removed.isEmpty() || inserted.isEmpty()) return emptyList();
-    int countOne = getIntersectionCount(removed, inserted.keySet());
-    int countTwo = getIntersectionCount(inserted, removed.keySet());
-    if (countOne > countTwo) return getIntersection(removed, inserted.keySet());
-    if (countTwo > 0) return getIntersection(inserted, removed.keySet());
-    return emptyList();
+    Object[] result = new Object[length];
+    for (int i = tails[length - 1], j = length - 1; i >= 0; i = previous[i], j--) {
+      result[j] = objects[i];
+    }
+    return Arrays.asList(result);
   }
 
   private abstract static class ObsolescentCommand implements Obsolescent, Command<Node> {
@@ -452,7 +464,13 @@ public final class AsyncTreeModel extends AbstractTreeModel implements Identifia
       }
       else {
         LOG.debug("background command: ", this);
-        return getNode(object);
+        long start = System.nanoTime();
+        try {
+          return getNode(object);
+        }
+        finally {
+          if (LOG.isDebugEnabled()) LOG.debug("background command: " + this + " took " + (System.nanoTime() - start) / 1000000 + "ms");
+        }
       }
     }
 
@@ -463,7 +481,9 @@ public final class AsyncTreeModel extends AbstractTreeModel implements Identifia
       }
       else {
         LOG.debug("foreground command: ", this);
+        long start = System.nanoTime();
         setNode(node);
+        if (LOG.isDebugEnabled()) LOG.debug("foreground command: " + this + " took " + (System.nanoTime() - start) / 1000000 + "ms");
       }
     }
   }
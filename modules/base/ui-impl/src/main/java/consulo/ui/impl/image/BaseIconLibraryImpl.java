@@ -24,6 +24,7 @@ import consulo.util.lang.ref.SoftReference;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -34,11 +35,31 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * @since 2020-09-26
  */
 public abstract class BaseIconLibraryImpl implements IconLibrary {
+  /**
+   * Data of an image stored in an icon library jar. Can be read again, so image implementations don't need to keep it
+   */
+  public interface JarImageData {
+    /**
+     * @return id of the jar, which changes when the jar is changed
+     */
+    @Nonnull
+    String getJarId();
+
+    @Nullable
+    byte[] read(boolean x2) throws IOException;
+  }
+
   public static class ImageState {
     private byte[] my1xData;
     private byte[] my2xData;
     private final boolean myIsSVG;
 
+    // if not null - data is read from jar on first access
+    @Nullable
+    private final IconLibraryJar myJar;
+    private final String my1xEntry;
+    private final String my2xEntry;
+
     private final AtomicBoolean myInitialized = new AtomicBoolean();
 
     private SimpleReference<Image> myImageRef;
@@ -47,6 +68,16 @@ public abstract class BaseIconLibraryImpl implements IconLibrary {
       my1xData = _1xData;
       my2xData = _2xdata;
       myIsSVG = isSVG;
+      myJar = null;
+      my1xEntry = null;
+      my2xEntry = null;
+    }
+
+    ImageState(@Nonnull IconLibraryJar jar, @Nonnull String _1xEntry, @Nullable String _2xEntry, boolean isSVG) {
+      myJar = jar;
+      my1xEntry = _1xEntry;
+      my2xEntry = _2xEntry;
+      myIsSVG = isSVG;
     }
 
     @Nullable
@@ -56,7 +87,35 @@ public abstract class BaseIconLibraryImpl implements IconLibrary {
       }
 
       if (myInitialized.compareAndSet(false, true)) {
-        Image image = library.createImage(my1xData, my2xData, myIsSVG, width, height, groupId, imageId);
+        if (myJar != null) {
+          try {
+            my1xData = myJar.read(my1xEntry);
+            my2xData = my2xEntry == null ? null : myJar.read(my2xEntry);
+          }
+          catch (IOException e) {
+            LOG.warn("Fail to read icon " + groupId + "@" + imageId + " from " + myJar.getFile(), e);
+            Image image = Image.empty(width, height);
+            myImageRef = SimpleReference.create(image);
+            return image;
+          }
+        }
+
+        IconLibraryJar jar = myJar;
+        JarImageData jarData = jar == null ? null : new JarImageData() {
+          @Nonnull
+          @Override
+          public String getJarId() {
+            return jar.getId();
+          }
+
+          @Nullable
+          @Override
+          public byte[] read(boolean x2) throws IOException {
+            return x2 ? my2xEntry == null ? null : jar.read(my2xEntry) : jar.read(my1xEntry);
+          }
+        };
+
+        Image image = library.createImage(my1xData, my2xData, myIsSVG, width, height, groupId, imageId, jarData);
         myImageRef = SimpleReference.create(image);
 
         // reset data
@@ -78,6 +137,10 @@ public abstract class BaseIconLibraryImpl implements IconLibrary {
     protected void registerIcon(String imageId, byte[] _1xdata, byte[] _2xdata, boolean isSVG) {
       myRegisteredIcons.put(imageId, new ImageState(_1xdata, _2xdata, isSVG));
     }
+
+    void registerIcon(String imageId, IconLibraryJar jar, String _1xEntry, @Nullable String _2xEntry, boolean isSVG) {
+      myRegisteredIcons.put(imageId, new ImageState(jar, _1xEntry, _2xEntry, isSVG));
+    }
   }
 
   private static final Logger LOG = Logger.getInstance(BaseIconLibraryImpl.class);
@@ -103,6 +166,10 @@ public abstract class BaseIconLibraryImpl implements IconLibrary {
     myRegisteredGroups.computeIfAbsent(groupId, IconGroup::new).registerIcon(imageId, _1xdata, _2xdata, isSVG);
   }
 
+  void registerIcon(String groupId, String imageId, IconLibraryJar jar, String _1xEntry, @Nullable String _2xEntry, boolean isSVG) {
+    myRegisteredGroups.computeIfAbsent(groupId, IconGroup::new).registerIcon(imageId, jar, _1xEntry, _2xEntry, isSVG);
+  }
+
   public void setBaseId(String baseId) {
     myBaseId = baseId;
   }
@@ -115,6 +182,11 @@ public abstract class BaseIconLibraryImpl implements IconLibrary {
     myInverseId = inverseId;
   }
 
+  @Nonnull
+  public BaseIconLibraryManager getIconLibraryManager() {
+    return myIconLibraryManager;
+  }
+
   public String getInverseId() {
     return myInverseId;
   }
@@ -137,6 +209,21 @@ public abstract class BaseIconLibraryImpl implements IconLibrary {
   @Nullable
   protected abstract Image createImage(@Nonnull byte[] _1xData, @Nullable byte[] _2xdata, boolean isSVG, int width, int height, String groupId, String imageId);
 
+  /**
+   * @param jarData source of the image data, if the image is read from an icon library jar
+   */
+  @Nullable
+  protected Image createImage(@Nonnull byte[] _1xData,
+                              @Nullable byte[] _2xdata,
+                              boolean isSVG,
+                              int width,
+                              int height,
+                              String groupId,
+                              String imageId,
+                              @Nullable JarImageData jarData) {
+    return createImage(_1xData, _2xdata, isSVG, width, height, groupId, imageId);
+  }
+
   @Nullable
   public Image getIcon(String groupId, String imageId, int width, int height) {
     Image image = getIconNoLog(groupId, imageId, width, height);
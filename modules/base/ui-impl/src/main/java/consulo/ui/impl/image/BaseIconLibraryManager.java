@@ -24,7 +24,6 @@ import consulo.ui.image.Image;
 import consulo.ui.image.internal.IconLibraryDescriptorLoader;
 import consulo.ui.style.Style;
 import consulo.ui.style.StyleManager;
-import consulo.util.io.StreamUtil;
 import consulo.util.lang.Couple;
 import consulo.util.lang.ThreeState;
 import jakarta.annotation.Nonnull;
@@ -32,7 +31,7 @@ import jakarta.annotation.Nullable;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -47,8 +46,9 @@ public abstract class BaseIconLibraryManager implements IconLibraryManager {
   private static class JarIcon {
     public ThreeState svgState = ThreeState.UNSURE;
 
-    public byte[] _1x;
-    public byte[] _2x;
+    // entry names inside jar
+    public String _1x;
+    public String _2x;
   }
 
   private static final Logger LOG = Logger.getInstance(BaseIconLibraryManager.class);
@@ -67,6 +67,11 @@ public abstract class BaseIconLibraryManager implements IconLibraryManager {
 
   private ErrorBaseIconLibraryImpl myErrorLibrary = new ErrorBaseIconLibraryImpl(this);
 
+  @Nullable
+  private Path myCacheDir;
+
+  private final Set<String> myJarIds = new HashSet<>();
+
   @Nonnull
   @Override
   public Map<String, IconLibrary> getLibraries() {
@@ -149,22 +154,40 @@ public abstract class BaseIconLibraryManager implements IconLibraryManager {
   protected abstract BaseIconLibraryImpl createLibrary(@Nonnull String id);
 
   public void initialize(@Nullable List<String> files) {
+    initialize(files, null);
+  }
+
+  /**
+   * @param cacheDir directory for icon indexes and other icon caches, if null - icon jars are always enumerated
+   */
+  public void initialize(@Nullable List<String> files, @Nullable Path cacheDir) {
     if (myInitialized.compareAndSet(false, true)) {
+      myCacheDir = cacheDir;
+
       if (files == null) {
         return;
       }
 
       Set<String> analyzedGroups = new HashSet<>();
+      Set<Path> usedIndexFiles = new HashSet<>();
 
       for (String file : files) {
+        if (cacheDir != null) {
+          usedIndexFiles.add(IconLibraryIndex.getIndexFile(cacheDir, new File(file)));
+        }
+
         try {
-          analyzeLibraryJar(file, analyzedGroups);
+          analyzeLibraryJar(file, analyzedGroups, cacheDir);
         }
         catch (IOException e) {
           LOG.error("Fail to analyze library from url: " + file, e);
         }
       }
 
+      if (cacheDir != null) {
+        IconLibraryIndex.deleteUnused(cacheDir, usedIndexFiles);
+      }
+
       Map<String, IconLibraryDescriptor> descriptors = getAllDescriptors();
 
       for (Map.Entry<String, IconLibrary> entry : myLibraries.entrySet()) {
@@ -183,6 +206,19 @@ public abstract class BaseIconLibraryManager implements IconLibraryManager {
     }
   }
 
+  @Nullable
+  public Path getCacheDir() {
+    return myCacheDir;
+  }
+
+  /**
+   * @return ids of analyzed icon library jars, caches of other jars can be deleted
+   */
+  @Nonnull
+  public Set<String> getJarIds() {
+    return Collections.unmodifiableSet(myJarIds);
+  }
+
   @Nonnull
   private static Map<String, IconLibraryDescriptor> getAllDescriptors() {
     Map<String, IconLibraryDescriptor> list = new HashMap<>();
@@ -200,11 +236,51 @@ public abstract class BaseIconLibraryManager implements IconLibraryManager {
     return list;
   }
 
-  private void analyzeLibraryJar(@Nonnull String filePath, @Nonnull Set<String> analyzedGroups) throws IOException {
+  private void analyzeLibraryJar(@Nonnull String filePath, @Nonnull Set<String> analyzedGroups, @Nullable Path cacheDir) throws IOException {
     File jarFile = new File(filePath);
 
     Map<Couple<String>, Map<String, JarIcon>> libraries = new HashMap<>();
 
+    List<IconLibraryIndex.Record> indexRecords = cacheDir == null ? null : IconLibraryIndex.load(IconLibraryIndex.getIndexFile(cacheDir, jarFile), jarFile);
+    if (indexRecords != null) {
+      for (IconLibraryIndex.Record record : indexRecords) {
+        JarIcon jarIcon = new JarIcon();
+        jarIcon.svgState = ThreeState.fromBoolean(record.myIsSVG);
+        jarIcon._1x = record.my1xEntry;
+        jarIcon._2x = record.my2xEntry;
+
+        libraries.computeIfAbsent(Couple.of(record.myLibraryId, record.myGroupId), it -> new HashMap<>()).put(record.myImageId, jarIcon);
+      }
+    }
+    else {
+      scanLibraryJar(jarFile, libraries);
+
+      if (cacheDir != null) {
+        List<IconLibraryIndex.Record> records = new ArrayList<>();
+        for (Map.Entry<Couple<String>, Map<String, JarIcon>> entry : libraries.entrySet()) {
+          for (Map.Entry<String, JarIcon> image : entry.getValue().entrySet()) {
+            JarIcon jarIcon = image.getValue();
+            if (jarIcon._1x != null) {
+              records.add(new IconLibraryIndex.Record(entry.getKey().getFirst(),
+                                                      entry.getKey().getSecond(),
+                                                      image.getKey(),
+                                                      jarIcon._1x,
+                                                      jarIcon._2x,
+                                                      jarIcon.svgState.toBoolean()));
+            }
+          }
+        }
+        IconLibraryIndex.save(IconLibraryIndex.getIndexFile(cacheDir, jarFile), jarFile, records);
+      }
+    }
+
+    IconLibraryJar libraryJar = new IconLibraryJar(jarFile);
+    myJarIds.add(libraryJar.getId());
+
+    registerIcons(filePath, libraryJar, libraries, analyzedGroups);
+  }
+
+  private static void scanLibraryJar(@Nonnull File jarFile, @Nonnull Map<Couple<String>, Map<String, JarIcon>> libraries) throws IOException {
     try (ZipFile zipFile = new ZipFile(jarFile)) {
       Enumeration<? extends ZipEntry> entries = zipFile.entries();
 
@@ -227,7 +303,7 @@ public abstract class BaseIconLibraryManager implements IconLibraryManager {
 
             Map<String, JarIcon> iconUrls = libraries.computeIfAbsent(Couple.of(libraryId, groupId), it -> new HashMap<>());
 
-            processImage(imagePath, jarFile, zipFile, zipEntry, iconUrls);
+            processImage(imagePath, jarFile, zipEntry, iconUrls);
           }
         }
         catch (Exception e) {
@@ -235,7 +311,12 @@ public abstract class BaseIconLibraryManager implements IconLibraryManager {
         }
       }
     }
+  }
 
+  private void registerIcons(@Nonnull String filePath,
+                             @Nonnull IconLibraryJar libraryJar,
+                             @Nonnull Map<Couple<String>, Map<String, JarIcon>> libraries,
+                             @Nonnull Set<String> analyzedGroups) {
     for (Map.Entry<Couple<String>, Map<String, JarIcon>> entry : libraries.entrySet()) {
       Couple<String> key = entry.getKey();
       Map<String, JarIcon> value = entry.getValue();
@@ -259,13 +340,13 @@ public abstract class BaseIconLibraryManager implements IconLibraryManager {
           continue;
         }
 
-        lib.registerIcon(groupId, imageId, jarIcon._1x, jarIcon._2x, jarIcon.svgState.toBoolean());
+        lib.registerIcon(groupId, imageId, libraryJar, jarIcon._1x, jarIcon._2x, jarIcon.svgState.toBoolean());
       }
     }
   }
 
 
-  private void processImage(@Nonnull String imagePath, @Nonnull File jarFile, @Nonnull ZipFile zipFile, @Nonnull ZipEntry zipEntry, @Nonnull Map<String, JarIcon> iconUrls) throws IOException {
+  private static void processImage(@Nonnull String imagePath, @Nonnull File jarFile, @Nonnull ZipEntry zipEntry, @Nonnull Map<String, JarIcon> iconUrls) {
     boolean isSVG = imagePath.endsWith("svg");
     int dotIndex = imagePath.lastIndexOf('.');
 
@@ -301,18 +382,14 @@ public abstract class BaseIconLibraryManager implements IconLibraryManager {
 
     JarIcon jarIcon = iconUrls.computeIfAbsent(imageId, it -> new JarIcon());
 
-    byte[] bytes;
-    try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
-      bytes = StreamUtil.loadFromStream(inputStream);
-    }
-
     jarIcon.svgState = isSVG ? ThreeState.YES : ThreeState.NO;
 
+    // bytes are read on first access of image, see BaseIconLibraryImpl.ImageState
     if (is2x) {
-      jarIcon._2x = bytes;
+      jarIcon._2x = zipEntry.getName();
     }
     else {
-      jarIcon._1x = bytes;
+      jarIcon._1x = zipEntry.getName();
     }
   }
 
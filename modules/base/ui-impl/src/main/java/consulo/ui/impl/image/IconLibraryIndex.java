@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.ui.impl.image;
+
+import consulo.logging.Logger;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persisted list of icons of one icon library jar (library, group, image id, entry names), stored in the system directory.
+ * <p/>
+ * While the jar is unchanged (same path, size and timestamp) the index replaces enumeration of all jar entries on startup.
+ * Indices of jars which are not icon libraries anymore are deleted on startup, see {@link #deleteUnused}.
+ */
+class IconLibraryIndex {
+  static final class Record {
+    final String myLibraryId;
+    final String myGroupId;
+    final String myImageId;
+    final String my1xEntry;
+    @Nullable
+    final String my2xEntry;
+    final boolean myIsSVG;
+
+    Record(String libraryId, String groupId, String imageId, String _1xEntry, @Nullable String _2xEntry, boolean isSVG) {
+      myLibraryId = libraryId;
+      myGroupId = groupId;
+      myImageId = imageId;
+      my1xEntry = _1xEntry;
+      my2xEntry = _2xEntry;
+      myIsSVG = isSVG;
+    }
+  }
+
+  private static final Logger LOG = Logger.getInstance(IconLibraryIndex.class);
+
+  private static final int VERSION = 1;
+
+  @Nonnull
+  static Path getIndexFile(@Nonnull Path cacheDir, @Nonnull File jarFile) {
+    return cacheDir.resolve(jarFile.getName() + "." + Integer.toHexString(jarFile.getAbsolutePath().hashCode()) + ".idx");
+  }
+
+  /**
+   * @return icons of the jar, or null if there is no valid index for the jar
+   */
+  @Nullable
+  static List<Record> load(@Nonnull Path indexFile, @Nonnull File jarFile) {
+    if (!Files.isRegularFile(indexFile)) {
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+      if (in.readInt() != VERSION ||
+          !jarFile.getAbsolutePath().equals(in.readUTF()) ||
+          in.readLong() != jarFile.length() ||
+          in.readLong() != jarFile.lastModified()) {
+        return null;
+      }
+
+      int count = in.readInt();
+      List<Record> records = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        String libraryId = in.readUTF();
+        String groupId = in.readUTF();
+        String imageId = in.readUTF();
+        String _1xEntry = in.readUTF();
+        String _2xEntry = in.readUTF();
+        boolean isSVG = in.readBoolean();
+
+        records.add(new Record(libraryId, groupId, imageId, _1xEntry, _2xEntry.isEmpty() ? null : _2xEntry, isSVG));
+      }
+      return records;
+    }
+    catch (IOException e) {
+      LOG.warn("Fail to read icon index " + indexFile, e);
+      return null;
+    }
+  }
+
+  static void save(@Nonnull Path indexFile, @Nonnull File jarFile, @Nonnull List<Record> records) {
+    try {
+      Files.createDirectories(indexFile.getParent());
+
+      Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeInt(VERSION);
+        out.writeUTF(jarFile.getAbsolutePath());
+        out.writeLong(jarFile.length());
+        out.writeLong(jarFile.lastModified());
+
+        out.writeInt(records.size());
+        for (Record record : records) {
+          out.writeUTF(record.myLibraryId);
+          out.writeUTF(record.myGroupId);
+          out.writeUTF(record.myImageId);
+          out.writeUTF(record.my1xEntry);
+          out.writeUTF(record.my2xEntry == null ? "" : record.my2xEntry);
+          out.writeBoolean(record.myIsSVG);
+        }
+      }
+      Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (IOException e) {
+      LOG.warn("Fail to write icon index " + indexFile, e);
+    }
+  }
+
+  /**
+   * Deletes indices (and leftovers of interrupted saves) in the cache dir, except the used ones
+   */
+  static void deleteUnused(@Nonnull Path cacheDir, @Nonnull Set<Path> usedIndexFiles) {
+    if (!Files.isDirectory(cacheDir)) {
+      return;
+    }
+
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, "*.{idx,tmp}")) {
+      for (Path file : files) {
+        if (!usedIndexFiles.contains(file)) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.warn("Fail to clean icon indices in " + cacheDir, e);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.ui.impl.image;
+
+import consulo.util.io.DigestUtil;
+import consulo.util.io.StreamUtil;
+import jakarta.annotation.Nonnull;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Icon library jar, icon bytes are read from it on first access of an image instead of on startup.
+ * The zip file is opened lazily and is never closed - same as the jar of the plugin class loader.
+ */
+class IconLibraryJar {
+  private final File myFile;
+  private final String myId;
+
+  private volatile ZipFile myZipFile;
+
+  IconLibraryJar(@Nonnull File file) {
+    myFile = file;
+    myId = calcId(file);
+  }
+
+  /**
+   * @return file name plus digest of path, size and timestamp of the jar
+   */
+  @Nonnull
+  private static String calcId(@Nonnull File file) {
+    String stamp = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+    byte[] digest = DigestUtil.sha256().digest(stamp.getBytes(StandardCharsets.UTF_8));
+    return file.getName() + "." + new BigInteger(1, Arrays.copyOf(digest, 8)).toString(36);
+  }
+
+  @Nonnull
+  File getFile() {
+    return myFile;
+  }
+
+  @Nonnull
+  String getId() {
+    return myId;
+  }
+
+  @Nonnull
+  byte[] read(@Nonnull String entryName) throws IOException {
+    ZipFile zipFile = getZipFile();
+
+    ZipEntry entry = zipFile.getEntry(entryName);
+    if (entry == null) {
+      throw new FileNotFoundException(myFile + "!/" + entryName);
+    }
+
+    try (InputStream stream = zipFile.getInputStream(entry)) {
+      return StreamUtil.loadFromStream(stream);
+    }
+  }
+
+  @Nonnull
+  private ZipFile getZipFile() throws IOException {
+    ZipFile zipFile = myZipFile;
+    if (zipFile == null) {
+      synchronized (this) {
+        zipFile = myZipFile;
+        if (zipFile == null) {
+          myZipFile = zipFile = new ZipFile(myFile);
+        }
+      }
+    }
+    return zipFile;
+  }
+}
@@ -23,12 +23,15 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class FileAccessorCache<K, T> implements HashingStrategy<K> {
   /*@GuardedBy("myCacheLock")*/ private final SLRUMap<K, Handle<T>> myCache;
   /*@GuardedBy("myCacheLock")*/ private final List<T> myElementsToBeDisposed = new ArrayList<T>();
   private final Object myCacheLock = new Object();
   private final Object myUpdateLock = new Object();
+  private final AtomicLong myHitCount = new AtomicLong();
+  private final AtomicLong myMissCount = new AtomicLong();
 
   public FileAccessorCache(int protectedQueueSize, int probationalQueueSize) {
     myCache = new SLRUMap<K, Handle<T>>(protectedQueueSize, probationalQueueSize, this) {
@@ -46,15 +49,36 @@ public abstract class FileAccessorCache<K, T> implements HashingStrategy<K> {
   @Nonnull
   public final Handle<T> get(K key) {
     Handle<T> cached = getIfCached(key);
-    if (cached != null) return cached;
+    if (cached != null) {
+      myHitCount.incrementAndGet();
+      return cached;
+    }
 
     synchronized (myUpdateLock) {
       cached = getIfCached(key);
-      if (cached != null) return cached;
+      if (cached != null) {
+        myHitCount.incrementAndGet();
+        return cached;
+      }
+      myMissCount.incrementAndGet();
       return createHandle(key);
     }
   }
 
+  /**
+   * @return number of {@link #get} calls, which found an already opened accessor
+   */
+  public long getHitCount() {
+    return myHitCount.get();
+  }
+
+  /**
+   * @return number of {@link #get} calls, which opened a new accessor
+   */
+  public long getMissCount() {
+    return myMissCount.get();
+  }
+
   //private static final int FACTOR = 0xF;
   //private static final AtomicLong myCreateTime = new AtomicLong();
   //private static final AtomicInteger myCreateRequests = new AtomicInteger();
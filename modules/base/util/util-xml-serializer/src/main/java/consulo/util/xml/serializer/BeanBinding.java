@@ -26,6 +26,7 @@ import org.jdom.Element;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -43,6 +44,13 @@ class BeanBinding extends Binding {
 
   ThreeState hasEqualMethod = ThreeState.UNSURE;
 
+  // binding -> filter from its Property annotation, null if no binding has filter
+  @Nullable
+  private Map<Binding, SerializationFilter> myPropertyFilters;
+
+  // created on first deserialization, not every serialized bean has default constructor
+  private volatile MethodHandle myConstructor;
+
   public BeanBinding(@Nonnull Class<?> beanClass, @Nullable MutableAccessor accessor) {
     super(accessor);
 
@@ -61,6 +69,14 @@ class BeanBinding extends Binding {
     myBindings = new Binding[accessors.size()];
     for (int i = 0, size = accessors.size(); i < size; i++) {
       myBindings[i] = createBinding(accessors.get(i));
+
+      Property property = accessors.get(i).getAnnotation(Property.class);
+      if (property != null && property.filter() != SerializationFilter.class) {
+        if (myPropertyFilters == null) {
+          myPropertyFilters = new IdentityHashMap<>();
+        }
+        myPropertyFilters.put(myBindings[i], InternalReflectionUtil.newInstance(property.filter()));
+      }
     }
   }
 
@@ -88,9 +104,8 @@ class BeanBinding extends Binding {
         continue;
       }
 
-      //todo: optimize. Cache it.
-      Property property = accessor.getAnnotation(Property.class);
-      if (property != null && property.filter() != SerializationFilter.class && !InternalReflectionUtil.newInstance(property.filter()).accepts(accessor, o)) {
+      SerializationFilter propertyFilter = myPropertyFilters == null ? null : myPropertyFilters.get(binding);
+      if (propertyFilter != null && !propertyFilter.accepts(accessor, o)) {
         continue;
       }
 
@@ -113,11 +128,29 @@ class BeanBinding extends Binding {
 
   @Override
   public Object deserialize(Object context, @Nonnull Element element) {
-    Object instance = InternalReflectionUtil.newInstance(myBeanClass);
+    Object instance = newInstance();
     deserializeInto(instance, element, null);
     return instance;
   }
 
+  @Nonnull
+  private Object newInstance() {
+    MethodHandle constructor = myConstructor;
+    if (constructor == null) {
+      myConstructor = constructor = InternalReflectionUtil.findDefaultConstructor(myBeanClass);
+    }
+
+    try {
+      return (Object)constructor.invokeExact();
+    }
+    catch (RuntimeException | Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   boolean equalByFields(@Nonnull Object currentValue, @Nonnull Object defaultValue, @Nonnull SkipDefaultsSerializationFilter filter) {
     for (Binding binding : myBindings) {
       Accessor accessor = binding.getAccessor();
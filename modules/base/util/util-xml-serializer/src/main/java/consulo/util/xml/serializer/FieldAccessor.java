@@ -15,103 +15,118 @@
  */
 package consulo.util.xml.serializer;
 
-import consulo.util.xml.serializer.MutableAccessor;
-import consulo.util.xml.serializer.XmlSerializationException;
-
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 
+/**
+ * Field access goes through method handles, created once per field - they don't check access and don't wrap exceptions on each call.
+ * {@link Field} is used only if a handle can't be created (some final fields).
+ */
 class FieldAccessor implements MutableAccessor {
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
   private final Field myField;
+  private final MethodHandle myGetter;
+  @Nullable
+  private final MethodHandle mySetter;
 
   public FieldAccessor(@Nonnull Field field) {
     myField = field;
     field.setAccessible(true);
+
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      myGetter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+    }
+    catch (IllegalAccessException e) {
+      throw new XmlSerializationException("Reading " + myField, e);
+    }
+
+    MethodHandle setter;
+    try {
+      setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+    }
+    catch (IllegalAccessException e) {
+      setter = null;
+    }
+    mySetter = setter;
   }
 
   @Override
   public Object read(@Nonnull Object o) {
     assert myField.getDeclaringClass().isInstance(o) : "Wrong class: " + o.getClass() + "; should be: " + myField.getDeclaringClass();
     try {
-      return myField.get(o);
+      return (Object)myGetter.invokeExact(o);
     }
-    catch (IllegalAccessException e) {
+    catch (RuntimeException | Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
       throw new XmlSerializationException("Reading " + myField, e);
     }
   }
 
   @Override
   public void set(@Nonnull Object host, @Nullable Object value) {
+    if (mySetter == null) {
+      try {
+        myField.set(host, value);
+      }
+      catch (IllegalAccessException e) {
+        throw new XmlSerializationException("Writing " + myField, e);
+      }
+      return;
+    }
+
     try {
-      myField.set(host, value);
+      mySetter.invokeExact(host, value);
     }
-    catch (IllegalAccessException e) {
+    catch (RuntimeException | Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
       throw new XmlSerializationException("Writing " + myField, e);
     }
   }
 
+  // primitive setters are called only for a field of the same type, boxed value is unboxed by the handle
+
   @Override
   public void setBoolean(@Nonnull Object host, boolean value) {
-    try {
-      myField.setBoolean(host, value);
-    }
-    catch (IllegalAccessException e) {
-      throw new XmlSerializationException("Writing " + myField, e);
-    }
+    set(host, value);
   }
 
   @Override
   public void setInt(@Nonnull Object host, int value) {
-    try {
-      myField.setInt(host, value);
-    }
-    catch (IllegalAccessException e) {
-      throw new XmlSerializationException("Writing " + myField, e);
-    }
+    set(host, value);
   }
 
   @Override
   public void setShort(@Nonnull Object host, short value) {
-    try {
-      myField.setShort(host, value);
-    }
-    catch (IllegalAccessException e) {
-      throw new XmlSerializationException("Writing " + myField, e);
-    }
+    set(host, value);
   }
 
   @Override
   public void setLong(@Nonnull Object host, long value) {
-    try {
-      myField.setLong(host, value);
-    }
-    catch (IllegalAccessException e) {
-      throw new XmlSerializationException("Writing " + myField, e);
-    }
+    set(host, value);
   }
 
   @Override
   public void setFloat(@Nonnull Object host, float value) {
-    try {
-      myField.setFloat(host, value);
-    }
-    catch (IllegalAccessException e) {
-      throw new XmlSerializationException("Writing " + myField, e);
-    }
+    set(host, value);
   }
 
   @Override
   public void setDouble(@Nonnull Object host, double value) {
-    try {
-      myField.setDouble(host, value);
-    }
-    catch (IllegalAccessException e) {
-      throw new XmlSerializationException("Writing " + myField, e);
-    }
+    set(host, value);
   }
 
   @Override
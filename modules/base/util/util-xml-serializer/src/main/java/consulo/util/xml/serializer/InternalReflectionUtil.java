@@ -16,6 +16,9 @@
 package consulo.util.xml.serializer;
 
 import jakarta.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
@@ -37,4 +40,19 @@ class InternalReflectionUtil {
       throw new RuntimeException(e);
     }
   }
+
+  /**
+   * @return handle of default constructor with type {@code ()Object}, to create many instances without reflection overhead
+   */
+  @Nonnull
+  public static MethodHandle findDefaultConstructor(@Nonnull Class<?> clazz) {
+    try {
+      Constructor<?> declaredConstructor = clazz.getDeclaredConstructor();
+      declaredConstructor.setAccessible(true);
+      return MethodHandles.lookup().unreflectConstructor(declaredConstructor).asType(MethodType.methodType(Object.class));
+    }
+    catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new RuntimeException(e);
+    }
+  }
 }
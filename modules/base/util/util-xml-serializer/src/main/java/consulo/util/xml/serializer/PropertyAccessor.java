@@ -18,17 +18,29 @@ package consulo.util.xml.serializer;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 
 class PropertyAccessor implements MutableAccessor {
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
   private final String myName;
   private final Class<?> myType;
   private final Method myReadMethod;
   private final Method myWriteMethod;
   private final Type myGenericType;
 
+  // null if methods are not accessible for handles - reflection is used then
+  @Nullable
+  private final MethodHandle myReadHandle;
+  @Nullable
+  private final MethodHandle myWriteHandle;
+
   public PropertyAccessor(String name, Class<?> type, @Nonnull Method readMethod, @Nonnull Method writeMethod) {
     myName = name;
     myType = type;
@@ -41,10 +53,35 @@ class PropertyAccessor implements MutableAccessor {
       myWriteMethod.setAccessible(true);
     }
     catch (SecurityException ignored) { }
+
+    myReadHandle = unreflect(readMethod, GETTER_TYPE);
+    myWriteHandle = unreflect(writeMethod, SETTER_TYPE);
+  }
+
+  @Nullable
+  private static MethodHandle unreflect(@Nonnull Method method, @Nonnull MethodType type) {
+    try {
+      return MethodHandles.lookup().unreflect(method).asType(type);
+    }
+    catch (IllegalAccessException e) {
+      return null;
+    }
   }
 
   @Override
   public Object read(@Nonnull Object o) {
+    if (myReadHandle != null) {
+      try {
+        return (Object)myReadHandle.invokeExact(o);
+      }
+      catch (RuntimeException | Error e) {
+        throw e;
+      }
+      catch (Throwable e) {
+        throw new XmlSerializationException(e);
+      }
+    }
+
     try {
       return myReadMethod.invoke(o);
     }
@@ -61,6 +98,20 @@ class PropertyAccessor implements MutableAccessor {
 
   @Override
   public void set(@Nonnull Object host, @Nullable Object value) {
+    if (myWriteHandle != null) {
+      try {
+        myWriteHandle.invokeExact(host, value);
+      }
+      catch (Error e) {
+        throw e;
+      }
+      catch (Throwable e) {
+        // as reflection, any setter exception is reported as serialization problem
+        throw new XmlSerializationException(e);
+      }
+      return;
+    }
+
     try {
       myWriteMethod.invoke(host, value);
     }
@@ -51,6 +51,81 @@ public class WildcardFileNameMatcherImpl implements WildcardFileNameMatcher {
     }
   }
 
+  /**
+   * Lock-free replacement of {@link RegexpMatcher} for masks with '*' and '?' - same semantics as {@link PatternUtil#fromMask(String)},
+   * but without regexp backtracking and without the shared {@link Matcher}, which is contended when files are scanned in parallel.
+   */
+  private static final class GlobMatcher implements MaskMatcher {
+    private final char[] myPattern;
+    private final int myMinLength;
+    // literal char the name must end with, or -1
+    private final int myLastChar;
+
+    private GlobMatcher(String pattern) {
+      myPattern = pattern.toCharArray();
+      int minLength = 0;
+      for (char c : myPattern) {
+        if (c != '*') minLength++;
+      }
+      myMinLength = minLength;
+      char last = myPattern[myPattern.length - 1];
+      myLastChar = last == '*' || last == '?' ? -1 : last;
+    }
+
+    static boolean canMatch(String pattern) {
+      for (int i = 0; i < pattern.length(); i++) {
+        if (isLineTerminator(pattern.charAt(i))) return false;
+      }
+      return !pattern.isEmpty();
+    }
+
+    @Override
+    public boolean matches(CharSequence filename) {
+      int length = filename.length();
+      if (length < myMinLength || myLastChar >= 0 && filename.charAt(length - 1) != myLastChar) {
+        return false;
+      }
+
+      char[] pattern = myPattern;
+      int p = 0;
+      int s = 0;
+      int starP = -1;
+      int starS = 0;
+      while (s < length) {
+        char c = filename.charAt(s);
+        if (isLineTerminator(c)) {
+          // '.' of the regexp doesn't match line terminators, and the mask has none
+          return false;
+        }
+
+        if (p < pattern.length && pattern[p] == '*') {
+          starP = p++;
+          starS = s;
+        }
+        else if (p < pattern.length && (pattern[p] == '?' || pattern[p] == c)) {
+          p++;
+          s++;
+        }
+        else if (starP >= 0) {
+          p = starP + 1;
+          s = ++starS;
+        }
+        else {
+          return false;
+        }
+      }
+
+      while (p < pattern.length && pattern[p] == '*') {
+        p++;
+      }
+      return p == pattern.length;
+    }
+
+    private static boolean isLineTerminator(char c) {
+      return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+  }
+
   private static final class SuffixMatcher implements MaskMatcher {
     private final String mySuffix;
 
@@ -111,6 +186,9 @@ public class WildcardFileNameMatcherImpl implements WildcardFileNameMatcher {
         return new InfixMatcher(pattern.substring(1, len - 1));
       }
     }
+    if (GlobMatcher.canMatch(pattern)) {
+      return new GlobMatcher(pattern);
+    }
     return new RegexpMatcher(pattern);
   }
 
@@ -107,10 +107,12 @@ public class CoverageIOUtil {
       return result;
     }
 
+    // own buffer instead of the shared ioBuffer, several coverage sessions can be loaded concurrently
+    final byte[] bytes = new byte[len];
+    storage.readFully(bytes, 0, len);
     final char[] chars = new char[len];
-    storage.readFully(ioBuffer, 0, len);
     for (int i = 0; i < len; i++) {
-      chars[i] = (char)ioBuffer[i];
+      chars[i] = (char)bytes[i];
     }
 
     return new String(chars);
@@ -29,20 +29,21 @@ import java.util.Map;
  * @since 05-May-2009
  */
 public class ProjectDataLoader {
+  private static final int BUFFER_SIZE = 64 * 1024;
 
   public static ProjectData load(File sessionDataFile) {
     final ProjectData projectInfo = new ProjectData();
     DataInputStream in = null;
     try {
-      in = new DataInputStream(new BufferedInputStream(new FileInputStream(sessionDataFile)));
-      final Map<Integer, ClassData> dict = new HashMap<Integer, ClassData>(1000, 0.99f);
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(sessionDataFile), BUFFER_SIZE));
       final int classCount = CoverageIOUtil.readINT(in);
+      // class indices are dense, so the dictionary is a plain array instead of boxed map
+      final ClassData[] dict = new ClassData[classCount];
       for (int c = 0; c < classCount; c++) {
-        final ClassData classInfo = projectInfo.getOrCreateClassData(StringsPool.getFromPool(CoverageIOUtil.readUTFFast(in)));
-        dict.put(c, classInfo);
+        dict[c] = projectInfo.getOrCreateClassData(StringsPool.getFromPool(CoverageIOUtil.readUTFFast(in)));
       }
       for (int c = 0; c < classCount; c++) {
-        final ClassData classInfo = dict.get(CoverageIOUtil.readINT(in));
+        final ClassData classInfo = dict[CoverageIOUtil.readINT(in)];
         final int methCount = CoverageIOUtil.readINT(in);
         final Map<Integer, LineData> lines = new HashMap<Integer, LineData>(4, 0.99f);
         int maxLine = 1;
@@ -95,7 +96,7 @@ public class ProjectDataLoader {
     }
     finally {
       try {
-        in.close();
+        if (in != null) in.close();
       }
       catch (IOException e) {
         ErrorReporter.reportError("Failed to close file: " + sessionDataFile.getAbsolutePath(), e);
@@ -104,7 +105,7 @@ public class ProjectDataLoader {
     return projectInfo;
   }
 
-  private static String expand(DataInputStream in, final Map<Integer, ClassData> dict) throws IOException {
+  private static String expand(DataInputStream in, final ClassData[] dict) throws IOException {
     return CoverageIOUtil.processWithDictionary(CoverageIOUtil.readUTFFast(in), new CoverageIOUtil.Consumer() {
       protected String consume(String type) {
         final int typeIdx;
@@ -113,7 +114,7 @@ public class ProjectDataLoader {
         } catch (NumberFormatException e) {
           return type;
         }
-        return dict.get(typeIdx).getName();
+        return dict[typeIdx].getName();
       }
     });
   }
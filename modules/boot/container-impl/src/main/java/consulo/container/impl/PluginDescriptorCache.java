@@ -0,0 +1,190 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.container.impl;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of plugin descriptor files (plugin.xml and icons) found inside plugin jars.
+ * <p>
+ * Entry of plugin directory is valid while path, size and timestamp of every jar in its lib directory are the same,
+ * so unchanged plugins are not scanned on startup. Changed plugins are scanned again and their entries are replaced.
+ * Only entries requested since {@link #load} are saved, so removed plugins are dropped from the cache.
+ */
+public final class PluginDescriptorCache {
+  public static final String CACHE_FILE_NAME = "plugin-descriptors.dat";
+
+  private static final int VERSION = 1;
+
+  static final class Entry {
+    final String myStamp;
+    // null if plugin jars have no descriptor
+    final byte[] myDescriptorBytes;
+    final byte[] myIconBytes;
+    final byte[] myDarkIconBytes;
+
+    Entry(String stamp, byte[] descriptorBytes, byte[] iconBytes, byte[] darkIconBytes) {
+      myStamp = stamp;
+      myDescriptorBytes = descriptorBytes;
+      myIconBytes = iconBytes;
+      myDarkIconBytes = darkIconBytes;
+    }
+  }
+
+  private final File myFile;
+  private final ContainerLogger myLogger;
+  private final Map<String, Entry> myLoaded;
+  private final Map<String, Entry> myUsed = new ConcurrentHashMap<>();
+  private volatile boolean myModified;
+
+  private PluginDescriptorCache(File file, ContainerLogger logger, Map<String, Entry> loaded) {
+    myFile = file;
+    myLogger = logger;
+    myLoaded = loaded;
+  }
+
+  /**
+   * Never fails - missing, outdated or broken cache file gives an empty cache.
+   */
+  public static PluginDescriptorCache load(File file, ContainerLogger logger) {
+    Map<String, Entry> entries = new ConcurrentHashMap<>();
+    if (file.isFile()) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+        if (in.readInt() == VERSION) {
+          int count = in.readInt();
+          for (int i = 0; i < count; i++) {
+            String path = in.readUTF();
+            String stamp = in.readUTF();
+            byte[] descriptorBytes = in.readBoolean() ? readBytes(in) : null;
+            byte[] iconBytes = readBytes(in);
+            byte[] darkIconBytes = readBytes(in);
+            entries.put(path, new Entry(stamp, descriptorBytes, iconBytes, darkIconBytes));
+          }
+        }
+      }
+      catch (IOException e) {
+        logger.info("Failed to read plugin descriptor cache " + file, e);
+        entries.clear();
+      }
+    }
+    return new PluginDescriptorCache(file, logger, entries);
+  }
+
+  /**
+   * @return cached entry of plugin directory, or null if there is none or if jars were changed since it was written
+   */
+  Entry get(File pluginPath, String stamp) {
+    String key = pluginPath.getAbsolutePath();
+    Entry entry = myLoaded.get(key);
+    if (entry == null || !entry.myStamp.equals(stamp)) {
+      return null;
+    }
+
+    myUsed.put(key, entry);
+    return entry;
+  }
+
+  void put(File pluginPath, Entry entry) {
+    myUsed.put(pluginPath.getAbsolutePath(), entry);
+    myModified = true;
+  }
+
+  /**
+   * Writes the cache if any plugin was scanned or removed since {@link #load}.
+   */
+  public void save() {
+    if (!myModified && myUsed.keySet().equals(myLoaded.keySet())) {
+      return;
+    }
+
+    File tempFile = new File(myFile.getPath() + ".tmp");
+    try {
+      File parent = myFile.getParentFile();
+      if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+        throw new IOException("Can't create " + parent);
+      }
+
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        out.writeInt(VERSION);
+        out.writeInt(myUsed.size());
+        for (Map.Entry<String, Entry> mapEntry : myUsed.entrySet()) {
+          Entry entry = mapEntry.getValue();
+          out.writeUTF(mapEntry.getKey());
+          out.writeUTF(entry.myStamp);
+          out.writeBoolean(entry.myDescriptorBytes != null);
+          if (entry.myDescriptorBytes != null) {
+            writeBytes(out, entry.myDescriptorBytes);
+          }
+          writeBytes(out, entry.myIconBytes);
+          writeBytes(out, entry.myDarkIconBytes);
+        }
+      }
+
+      Files.move(tempFile.toPath(), myFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (IOException e) {
+      myLogger.info("Failed to write plugin descriptor cache " + myFile, e);
+      tempFile.delete();
+    }
+  }
+
+  /**
+   * SHA-256 over path, size and timestamp of the given jars.
+   */
+  static String stamp(File[] jars) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    File[] sorted = jars.clone();
+    Arrays.sort(sorted, Comparator.comparing(File::getName));
+    for (File jar : sorted) {
+      digest.update((jar.getAbsolutePath() + ':' + jar.length() + ':' + jar.lastModified()).getBytes(StandardCharsets.UTF_8));
+      // separator, so that adjacent values can not be shifted into each other
+      digest.update((byte)0);
+    }
+
+    StringBuilder builder = new StringBuilder();
+    for (byte b : digest.digest()) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
@@ -15,11 +15,16 @@
  */
 package consulo.container.impl;
 
+import consulo.container.util.StatCollector;
 import consulo.util.nodep.ArrayUtilRt;
 import consulo.util.nodep.io.FileUtilRt;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -30,6 +35,94 @@ import java.util.zip.ZipFile;
 public class PluginDescriptorLoader {
   public static final String PLUGIN_XML = "plugin.xml";
 
+  // below this count thread pool startup costs more than it saves
+  private static final int PARALLEL_LOAD_THRESHOLD = 4;
+
+  /**
+   * Loads descriptors of several plugin directories concurrently - most of the time is spent opening jars and parsing xml.
+   *
+   * @param stat if not null, load time of each plugin is marked by its directory name
+   * @return array aligned with {@code pluginPaths}, with null for directories which are not plugins
+   */
+  public static PluginDescriptorImpl[] loadDescriptors(File[] pluginPaths, boolean isPreInstalledPath, ContainerLogger containerLogger, StatCollector stat) {
+    return loadDescriptors(pluginPaths, isPreInstalledPath, containerLogger, stat, null);
+  }
+
+  /**
+   * @param cache if not null, plugin jars are not opened while their path, size and timestamp are the same as in the cache
+   */
+  public static PluginDescriptorImpl[] loadDescriptors(final File[] pluginPaths,
+                                                       final boolean isPreInstalledPath,
+                                                       final ContainerLogger containerLogger,
+                                                       final StatCollector stat,
+                                                       final PluginDescriptorCache cache) {
+    final PluginDescriptorImpl[] result = new PluginDescriptorImpl[pluginPaths.length];
+
+    int threads = Math.min(pluginPaths.length, Runtime.getRuntime().availableProcessors());
+    if (pluginPaths.length < PARALLEL_LOAD_THRESHOLD || threads < 2) {
+      for (int i = 0; i < pluginPaths.length; i++) {
+        result[i] = loadDescriptor(pluginPaths[i], isPreInstalledPath, containerLogger, stat, cache);
+      }
+      return result;
+    }
+
+    final AtomicInteger counter = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Plugin Descriptor Loader " + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+
+    try {
+      List<Future<?>> futures = new ArrayList<Future<?>>(pluginPaths.length);
+      for (int i = 0; i < pluginPaths.length; i++) {
+        final int index = i;
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            result[index] = loadDescriptor(pluginPaths[index], isPreInstalledPath, containerLogger, stat, cache);
+          }
+        }));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+    finally {
+      executor.shutdown();
+    }
+    return result;
+  }
+
+  private static PluginDescriptorImpl loadDescriptor(File pluginPath,
+                                                     boolean isPreInstalledPath,
+                                                     ContainerLogger containerLogger,
+                                                     StatCollector stat,
+                                                     PluginDescriptorCache cache) {
+    if (stat == null) {
+      return loadDescriptor(pluginPath, PLUGIN_XML, isPreInstalledPath, containerLogger, cache);
+    }
+
+    Runnable mark = stat.mark(pluginPath.getName());
+    try {
+      return loadDescriptor(pluginPath, PLUGIN_XML, isPreInstalledPath, containerLogger, cache);
+    }
+    finally {
+      mark.run();
+    }
+  }
+
   public static PluginDescriptorImpl loadDescriptor(final File pluginPath,
                                                     boolean isPreInstalledPath,
                                                     ContainerLogger containerLogger) {
@@ -40,6 +133,14 @@ public class PluginDescriptorLoader {
                                                     final String fileName,
                                                     boolean isPreInstalledPath,
                                                     ContainerLogger containerLogger) {
+    return loadDescriptor(pluginPath, fileName, isPreInstalledPath, containerLogger, null);
+  }
+
+  private static PluginDescriptorImpl loadDescriptor(final File pluginPath,
+                                                     final String fileName,
+                                                     boolean isPreInstalledPath,
+                                                     ContainerLogger containerLogger,
+                                                     PluginDescriptorCache cache) {
     if (!pluginPath.isDirectory()) {
       // single jar not supported
       return null;
@@ -93,27 +194,52 @@ public class PluginDescriptorLoader {
       }
     });
 
+    File[] jars;
     if (markerFiles != null && markerFiles.length == 1) {
       String simpleJarFile = markerFiles[0].getName().replace(".jar.marker", ".jar");
-      File jarFile = new File(libDir, simpleJarFile);
-      return loadDescriptorFromJar(jarFile, pluginPath, fileName, isPreInstalledPath, containerLogger);
+      jars = new File[]{new File(libDir, simpleJarFile)};
     }
+    else {
+      jars = libDir.listFiles(new FileFilter() {
+        @Override
+        public boolean accept(File pathname) {
+          return FileUtilRt.isJarOrZip(pathname);
+        }
+      });
 
-    final File[] files = libDir.listFiles();
-    if (files == null || files.length == 0) {
-      return null;
+      if (jars == null || jars.length == 0) {
+        return null;
+      }
     }
 
-    for (final File f : files) {
-      if (FileUtilRt.isJarOrZip(f)) {
-        PluginDescriptorImpl descriptor = loadDescriptorFromJar(f, pluginPath, fileName, isPreInstalledPath, containerLogger);
+    if (cache == null) {
+      for (File jar : jars) {
+        PluginDescriptorImpl descriptor = loadDescriptorFromJar(jar, pluginPath, fileName, isPreInstalledPath, containerLogger);
         if (descriptor != null) {
           return descriptor;
         }
       }
+      return null;
     }
 
-    return null;
+    String stamp = PluginDescriptorCache.stamp(jars);
+    PluginDescriptorCache.Entry entry = cache.get(pluginPath, stamp);
+    if (entry == null) {
+      for (File jar : jars) {
+        entry = readDescriptorFromJar(jar, fileName, stamp, containerLogger);
+        if (entry != null) {
+          break;
+        }
+      }
+
+      // plugins without descriptor are cached too, so their jars are not scanned again
+      if (entry == null) {
+        entry = new PluginDescriptorCache.Entry(stamp, null, ArrayUtilRt.EMPTY_BYTE_ARRAY, ArrayUtilRt.EMPTY_BYTE_ARRAY);
+      }
+      cache.put(pluginPath, entry);
+    }
+
+    return entry.myDescriptorBytes == null ? null : createDescriptor(entry, pluginPath, pluginPath, isPreInstalledPath, containerLogger);
   }
 
   public static PluginDescriptorImpl loadDescriptorFromJar(File jarFile,
@@ -121,6 +247,30 @@ public class PluginDescriptorLoader {
                                                            String fileName,
                                                            boolean isPreInstalledPath,
                                                            ContainerLogger logger) {
+    PluginDescriptorCache.Entry entry = readDescriptorFromJar(jarFile, fileName, "", logger);
+    return entry == null ? null : createDescriptor(entry, pluginPath, jarFile, isPreInstalledPath, logger);
+  }
+
+  private static PluginDescriptorImpl createDescriptor(PluginDescriptorCache.Entry entry,
+                                                       File pluginPath,
+                                                       File source,
+                                                       boolean isPreInstalledPath,
+                                                       ContainerLogger logger) {
+    try {
+      PluginDescriptorImpl descriptor = new PluginDescriptorImpl(pluginPath, entry.myIconBytes, entry.myDarkIconBytes, isPreInstalledPath);
+      descriptor.readExternal(new ByteArrayInputStream(entry.myDescriptorBytes), logger);
+      return descriptor;
+    }
+    catch (Throwable e) {
+      logger.info("Cannot load " + source, e);
+      return null;
+    }
+  }
+
+  /**
+   * @return descriptor files of the jar, or null if it has no descriptor or can't be read
+   */
+  private static PluginDescriptorCache.Entry readDescriptorFromJar(File jarFile, String fileName, String stamp, ContainerLogger logger) {
     try {
       ZipFile zipFile = new ZipFile(jarFile.getPath());
       try {
@@ -139,11 +289,7 @@ public class PluginDescriptorLoader {
             darkIconBytes = loadFromStream(zipFile.getInputStream(pluginIconSvg));
           }
 
-          InputStream inputStream = zipFile.getInputStream(entry);
-
-          PluginDescriptorImpl descriptor = new PluginDescriptorImpl(pluginPath, iconBytes, darkIconBytes, isPreInstalledPath);
-          descriptor.readExternal(inputStream, logger);
-          return descriptor;
+          return new PluginDescriptorCache.Entry(stamp, loadFromStream(zipFile.getInputStream(entry)), iconBytes, darkIconBytes);
         }
       }
       finally {
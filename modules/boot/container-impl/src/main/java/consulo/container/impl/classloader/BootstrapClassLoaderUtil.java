@@ -48,21 +48,21 @@ public class BootstrapClassLoaderUtil {
     List<PluginDescriptorImpl> descriptors = new ArrayList<>();
     descriptors.add(base);
 
-    File[] files = modulesDirectory.listFiles();
+    File[] files = modulesDirectory.listFiles(file -> !CONSULO_BASE.equals(file.getName()));
     assert files != null;
-    for (File moduleDirectory : files) {
-      if (CONSULO_BASE.equals(moduleDirectory.getName())) {
-        continue;
-      }
 
-      mark = stat.mark(moduleDirectory.getName() + ".load");
-      PluginDescriptorImpl descriptor = PluginDescriptorLoader.loadDescriptor(moduleDirectory, true, containerLogger);
+    mark = stat.mark("boot.descriptors.load");
+    PluginDescriptorImpl[] moduleDescriptors = PluginDescriptorLoader.loadDescriptors(files, true, containerLogger, null);
+    mark.run();
 
+    for (int i = 0; i < files.length; i++) {
+      PluginDescriptorImpl descriptor = moduleDescriptors[i];
       if (descriptor == null) {
-        mark.run();
         continue;
       }
 
+      mark = stat.mark(files[i].getName() + ".load");
+
       ClassLoader basePluginClassLoader = base.getPluginClassLoader();
 
       ClassLoader loader = PluginClassLoaderFactory.create(Collections.emptySet(), basePluginClassLoader, descriptor);
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.container.impl.classloader;
+
+import consulo.container.impl.ContainerLogger;
+import consulo.container.plugin.PluginDescriptor;
+import consulo.container.plugin.PluginId;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ordered list of classes defined by the preloaded (platform) class loaders during startup.
+ * <p/>
+ * On the next start the list is replayed in a background thread, so class definition (jar reading, verification)
+ * runs in parallel with the startup code, which then mostly finds already loaded classes.
+ * The profile is bound to the fingerprint of the platform modules and is ignored (and rewritten) when it changes.
+ * Recording starts with {@link #start} and ends with {@link #save}, which is called once the application is started.
+ */
+public class ClassPreloadProfile {
+  public static final String PROFILE_FILE_NAME = "class-preload.txt";
+
+  private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("consulo.class.preload", "true"));
+
+  // startup is interesting only, later classes are loaded lazily anyway
+  private static final int MAX_RECORDED_CLASSES = 30000;
+
+  private static final Queue<String> ourRecorded = new ConcurrentLinkedQueue<>();
+  private static final AtomicInteger ourRecordedCount = new AtomicInteger();
+  private static volatile boolean ourRecording;
+
+  // loaders of plugins loaded later by the application are not preloaded, so their classes are not recorded
+  private static volatile Set<PluginId> ourRecordedPlugins = Collections.emptySet();
+
+  private static File ourProfileFile;
+  private static String ourFingerprint;
+  private static ContainerLogger ourLogger;
+
+  static void classDefined(PluginId pluginId, String className) {
+    if (!ourRecording || !ourRecordedPlugins.contains(pluginId)) {
+      return;
+    }
+
+    if (ourRecordedCount.incrementAndGet() > MAX_RECORDED_CLASSES) {
+      ourRecording = false;
+      return;
+    }
+    ourRecorded.add(pluginId.getIdString() + ' ' + className);
+  }
+
+  public static boolean isEnabled() {
+    return ENABLED;
+  }
+
+  /**
+   * Starts recording of classes of the platform modules, and preloading of classes from the profile,
+   * if the profile was recorded for the same platform modules
+   */
+  public static synchronized void start(File profileFile, List<PluginDescriptor> platformModules, ContainerLogger logger) {
+    if (!ENABLED) {
+      return;
+    }
+
+    Set<PluginId> pluginIds = new HashSet<>();
+    Map<String, ClassLoader> loaders = new HashMap<>();
+    for (PluginDescriptor plugin : platformModules) {
+      pluginIds.add(plugin.getPluginId());
+
+      ClassLoader loader = plugin.getPluginClassLoader();
+      if (loader != null) {
+        loaders.put(plugin.getPluginId().getIdString(), loader);
+      }
+    }
+
+    String fingerprint = fingerprint(platformModules);
+    ourProfileFile = profileFile;
+    ourFingerprint = fingerprint;
+    ourLogger = logger;
+    ourRecordedPlugins = pluginIds;
+    ourRecording = true;
+
+    if (!profileFile.isFile()) {
+      return;
+    }
+
+    Thread thread = new Thread(() -> preload(profileFile, fingerprint, loaders, logger), "Class Preloader");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+  }
+
+  private static void preload(File profileFile, String fingerprint, Map<String, ClassLoader> loaders, ContainerLogger logger) {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(profileFile), StandardCharsets.UTF_8))) {
+      if (!fingerprint.equals(reader.readLine())) {
+        // platform changed - profile will be rewritten after startup
+        return;
+      }
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+        int space = line.indexOf(' ');
+        if (space <= 0) {
+          continue;
+        }
+
+        ClassLoader loader = loaders.get(line.substring(0, space));
+        if (loader == null) {
+          continue;
+        }
+
+        try {
+          Class.forName(line.substring(space + 1), false, loader);
+        }
+        catch (Throwable ignored) {
+          // class was removed or can't be loaded yet - startup code will report real problems
+        }
+      }
+    }
+    catch (IOException e) {
+      logger.info("Cannot read class preload profile " + profileFile, e);
+    }
+  }
+
+  /**
+   * Stops recording and writes the recorded classes to the profile file. Does nothing if recording was not started,
+   * or the profile is already saved
+   */
+  public static synchronized void save() {
+    File profileFile = ourProfileFile;
+    if (profileFile == null) {
+      return;
+    }
+
+    ourRecording = false;
+    ourProfileFile = null;
+
+    File parentFile = profileFile.getParentFile();
+    if (parentFile != null && !parentFile.isDirectory() && !parentFile.mkdirs()) {
+      return;
+    }
+
+    File tempFile = new File(profileFile.getPath() + ".tmp");
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+      writer.write(ourFingerprint);
+      writer.write('\n');
+      for (String line : ourRecorded) {
+        writer.write(line);
+        writer.write('\n');
+      }
+    }
+    catch (IOException e) {
+      ourLogger.info("Cannot write class preload profile " + profileFile, e);
+      return;
+    }
+    finally {
+      ourRecorded.clear();
+    }
+
+    if (profileFile.exists() && !profileFile.delete() || !tempFile.renameTo(profileFile)) {
+      ourLogger.info("Cannot replace class preload profile " + profileFile);
+    }
+  }
+
+  /**
+   * SHA-256 over ids, versions and the path, size and timestamp of every jar of the given plugins.
+   */
+  private static String fingerprint(List<PluginDescriptor> plugins) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    List<PluginDescriptor> sorted = new ArrayList<>(plugins);
+    sorted.sort(Comparator.comparing(plugin -> plugin.getPluginId().getIdString()));
+    for (PluginDescriptor plugin : sorted) {
+      update(digest, plugin.getPluginId().getIdString() + ':' + plugin.getVersion());
+
+      File path = plugin.getPath();
+      File[] jars = path == null ? null : new File(path, "lib").listFiles();
+      if (jars == null) {
+        continue;
+      }
+
+      Arrays.sort(jars, Comparator.comparing(File::getName));
+      for (File jar : jars) {
+        update(digest, jar.getAbsolutePath() + ':' + jar.length() + ':' + jar.lastModified());
+      }
+    }
+
+    StringBuilder builder = new StringBuilder("v2 ");
+    for (byte b : digest.digest()) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    // separator, so that adjacent values can not be shifted into each other
+    digest.update((byte)0);
+  }
+}
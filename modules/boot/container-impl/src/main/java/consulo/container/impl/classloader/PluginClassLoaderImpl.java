@@ -28,6 +28,9 @@ public class PluginClassLoaderImpl extends UrlClassLoader implements PluginClass
     if (registerAsParallelCapable()) markParallelCapable(PluginClassLoaderImpl.class);
   }
 
+  // jars of plugins are never modified while IDE is running, so they can be read from memory mapped view. Experimental, disabled by default
+  private static final boolean ourUseMappedJars = Boolean.getBoolean("consulo.classloader.mapped.jars");
+
   private final ClassLoader[] myParents;
   private final PluginDescriptor myPluginDescriptor;
   private final List<File> myLibDirectories;
@@ -39,7 +42,7 @@ public class PluginClassLoaderImpl extends UrlClassLoader implements PluginClass
    */
   public PluginClassLoaderImpl(List<URL> urls, ClassLoader parent, PluginDescriptor pluginDescriptor) {
     super(pluginDescriptor.getPluginId().getIdString(),
-          build().urls(urls).parent(parent).enableJarIndex().urlsWithProtectionDomain(new HashSet<>(urls)).allowLock().noPreload());
+          build().urls(urls).parent(parent).enableJarIndex().urlsWithProtectionDomain(new HashSet<>(urls)).allowLock().useMappedJars(ourUseMappedJars).noPreload());
     myParents = new ClassLoader[]{parent};
     myPluginDescriptor = pluginDescriptor;
     File libDir = new File(pluginDescriptor.getPath(), "lib");
@@ -48,7 +51,7 @@ public class PluginClassLoaderImpl extends UrlClassLoader implements PluginClass
 
   public PluginClassLoaderImpl(List<URL> urls, ClassLoader[] parents, PluginDescriptor pluginDescriptor) {
     super(pluginDescriptor.getPluginId().getIdString(),
-          build().urls(urls).enableJarIndex().urlsWithProtectionDomain(new HashSet<>(urls)).allowLock().noPreload());
+          build().urls(urls).enableJarIndex().urlsWithProtectionDomain(new HashSet<>(urls)).allowLock().useMappedJars(ourUseMappedJars).noPreload());
     myParents = parents;
     myPluginDescriptor = pluginDescriptor;
     File libDir = new File(myPluginDescriptor.getPath(), "lib");
@@ -187,6 +190,7 @@ public class PluginClassLoaderImpl extends UrlClassLoader implements PluginClass
       }
       if (c != null) {
         PluginLoadStatistics.get().addPluginClass(getPluginId());
+        ClassPreloadProfile.classDefined(getPluginId(), name);
       }
 
       return c;
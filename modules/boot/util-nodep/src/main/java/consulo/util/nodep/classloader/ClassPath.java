@@ -49,6 +49,7 @@ public class ClassPath {
   final boolean myCanHavePersistentIndex;
   final boolean myLazyClassloadingCaches;
   final boolean myEnableJarIndex;
+  final boolean myUseMappedJars;
   private final CachePoolImpl myCachePool;
   private final UrlClassLoader.CachingCondition myCachingCondition;
   final boolean myLogErrorOnMissingJar;
@@ -64,9 +65,12 @@ public class ClassPath {
                    UrlClassLoader.CachingCondition cachingCondition,
                    boolean logErrorOnMissingJar,
                    boolean lazyClassloadingCaches,
+                   boolean useMappedJars,
                    Set<URL> urlsWithProtectionDomain) {
     myLazyClassloadingCaches = lazyClassloadingCaches;
     myCanLockJars = canLockJars;
+    // mapping keeps the file open until the buffer is collected, same as the lock
+    myUseMappedJars = useMappedJars && canLockJars;
     myCanUseCache = canUseCache && !myLazyClassloadingCaches;
     myAcceptUnescapedUrls = acceptUnescapedUrls;
     myPreloadJarContents = preloadJarContents;
@@ -44,6 +44,9 @@ class JarLoader extends Loader {
   private PreloadedJar myPreloadedJar;
   private final Object myJarLock = new Object();
 
+  private volatile MappedJar myMappedJar; // Used only when myConfiguration.myUseMappedJars==true
+  private volatile boolean myMappedJarUnavailable;
+
   private boolean myClosed;
 
   JarLoader(URL url, int index, ClassPath configuration) throws IOException {
@@ -159,24 +162,16 @@ class JarLoader extends Loader {
     synchronized (this) {
       try {
         if (myClassPathManifestAttribute != null) return;
-        ZipFile zipFile = getJarFile();
-        try {
-          Attributes manifestAttributes = myConfiguration.getManifestData(myUrl);
-          if (manifestAttributes == null) {
-            ZipEntry entry = zipFile.getEntry(JarFile.MANIFEST_NAME);
-            InputStream zipEntryStream = entry != null ? zipFile.getInputStream(entry) : null;
-            manifestAttributes = loadManifestAttributes(zipFile, zipEntryStream);
-            if (manifestAttributes == null) manifestAttributes = new Attributes(0);
-            myConfiguration.cacheManifestData(myUrl, manifestAttributes);
-          }
-
-          myAttributes = getAttributes(manifestAttributes);
-          Object attribute = manifestAttributes.get(Attributes.Name.CLASS_PATH);
-          myClassPathManifestAttribute = attribute instanceof String ? (String)attribute : NULL_STRING;
-        }
-        finally {
-          releaseZipFile(zipFile);
+        Attributes manifestAttributes = myConfiguration.getManifestData(myUrl);
+        if (manifestAttributes == null) {
+          manifestAttributes = readManifestAttributes();
+          if (manifestAttributes == null) manifestAttributes = new Attributes(0);
+          myConfiguration.cacheManifestData(myUrl, manifestAttributes);
         }
+
+        myAttributes = getAttributes(manifestAttributes);
+        Object attribute = manifestAttributes.get(Attributes.Name.CLASS_PATH);
+        myClassPathManifestAttribute = attribute instanceof String ? (String)attribute : NULL_STRING;
       }
       catch (IOException io) {
         throw new RuntimeException(io);
@@ -184,7 +179,27 @@ class JarLoader extends Loader {
     }
   }
 
+  private Attributes readManifestAttributes() throws IOException {
+    MappedJar mappedJar = getMappedJar();
+    if (mappedJar != null) {
+      MappedJar.Entry entry = mappedJar.getEntry(JarFile.MANIFEST_NAME);
+      return loadManifestAttributes(null, entry != null ? new UnsyncByteArrayInputStream(mappedJar.getBytes(entry)) : null);
+    }
 
+    ZipFile zipFile = getJarFile();
+    try {
+      ZipEntry entry = zipFile.getEntry(JarFile.MANIFEST_NAME);
+      InputStream zipEntryStream = entry != null ? zipFile.getInputStream(entry) : null;
+      return loadManifestAttributes(zipFile, zipEntryStream);
+    }
+    finally {
+      releaseZipFile(zipFile);
+    }
+  }
+
+  /**
+   * @param zipFile null if the manifest is read from mapped jar
+   */
   protected Attributes loadManifestAttributes(ZipFile zipFile, InputStream stream) {
     if (stream == null) return null;
     try {
@@ -207,6 +222,11 @@ class JarLoader extends Loader {
       return buildDataImpl(myPreloadedJar.getResources().keySet().iterator());
     }
 
+    MappedJar mappedJar = getMappedJar();
+    if (mappedJar != null) {
+      return buildDataImpl(mappedJar.getEntryNames().iterator());
+    }
+
     ZipFile zipFile = getJarFile();
     try {
       return buildDataImpl(new ZipEntryNameIterator(zipFile));
@@ -240,6 +260,16 @@ class JarLoader extends Loader {
 
   private IntHashSet buildPackageHashes() {
     try {
+      MappedJar mappedJar = getMappedJar();
+      if (mappedJar != null) {
+        IntHashSet result = new IntHashSet(mappedJar.size());
+        for (String name : mappedJar.getEntryNames()) {
+          result.add(ClasspathCache.getPackageNameHash(name));
+        }
+        result.add(0); // empty package is in every jar
+        return result;
+      }
+
       ZipFile zipFile = getJarFile();
       try {
         Enumeration<? extends ZipEntry> entries = zipFile.entries();
@@ -293,6 +323,22 @@ class JarLoader extends Loader {
   }
 
   private Resource getJarResource(String name) {
+    MappedJar mappedJar = getMappedJar();
+    if (mappedJar != null) {
+      MappedJar.Entry entry = mappedJar.getEntry(name);
+      if (entry == null) {
+        return null;
+      }
+
+      try {
+        return createMappedResource(new URL(getBaseURL(), entry.myName), mappedJar, entry);
+      }
+      catch (Exception e) {
+        error("url: " + myFilePath, e);
+        return null;
+      }
+    }
+
     try {
       JarFile zipFile = getJarFile();
 
@@ -357,6 +403,84 @@ class JarLoader extends Loader {
     }
   }
 
+  class MappedResource extends Resource {
+    final URL myUrl;
+    private final MappedJar myJar;
+    private final MappedJar.Entry myEntry;
+
+    MappedResource(URL url, MappedJar jar, MappedJar.Entry entry) {
+      myUrl = url;
+      myJar = jar;
+      myEntry = entry;
+    }
+
+    @Override
+    public URL getURL() {
+      return myUrl;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return new UnsyncByteArrayInputStream(getBytes());
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+      return myJar.getBytes(myEntry);
+    }
+
+    @Override
+    public String getValue(Attribute key) {
+      loadManifestAttributes();
+      return myAttributes != null ? myAttributes.get(key) : null;
+    }
+  }
+
+  protected Resource createMappedResource(URL url, MappedJar jar, MappedJar.Entry entry) {
+    return new MappedResource(url, jar, entry);
+  }
+
+  /**
+   * Versioned entries of multi-release jars are resolved only by JarFile
+   */
+  protected boolean isMappedJarSupported(MappedJar jar) {
+    return !jar.isMultiRelease();
+  }
+
+  private MappedJar getMappedJar() {
+    if (!myConfiguration.myUseMappedJars || myClosed || myMappedJarUnavailable) {
+      return null;
+    }
+
+    MappedJar mappedJar = myMappedJar;
+    if (mappedJar != null) {
+      return mappedJar;
+    }
+
+    synchronized (myJarLock) {
+      mappedJar = myMappedJar;
+      if (mappedJar == null && !myMappedJarUnavailable) {
+        try {
+          mappedJar = MappedJar.open(new File(myFilePath));
+        }
+        catch (IOException e) {
+          error("url: " + myFilePath, e);
+        }
+
+        if (mappedJar != null && !isMappedJarSupported(mappedJar)) {
+          mappedJar = null;
+        }
+
+        if (mappedJar == null) {
+          // unsupported format, multi-release or signed jar, io problem - fallback to ZipFile
+          myMappedJarUnavailable = true;
+        }
+        myMappedJar = mappedJar;
+      }
+      return mappedJar;
+    }
+  }
+
   protected void error(String message, Throwable t) {
     if (myConfiguration.myLogErrorOnMissingJar) {
       LoggerRt.getInstance(JarLoader.class).error(message, t);
@@ -369,6 +493,7 @@ class JarLoader extends Loader {
   @Override
   void close() throws Exception {
     myClosed = true;
+    myMappedJar = null;
 
     JarFile zipFile = SoftReference.dereference(myZipFileSoftReference);
     if (zipFile == null) {
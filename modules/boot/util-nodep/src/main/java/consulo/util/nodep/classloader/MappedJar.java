@@ -0,0 +1,244 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.util.nodep.classloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only view of a jar, mapped into memory once. The central directory is parsed into a name index on open,
+ * and entry bytes are read from a duplicate of the mapped buffer, so concurrent readers don't take any lock
+ * and nothing is closed or reopened under memory pressure (see {@link UrlClassLoader.Builder#useMappedJars()}).
+ * <p/>
+ * Zip64 archives and archives larger than 2Gb are not supported, {@link #open(File)} returns null for them.
+ * Multi-release and signed jars are read by JarFile (see {@link JarLoader#isMappedJarSupported(MappedJar)}).
+ */
+class MappedJar {
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_HEADER_SIGNATURE = 0x06054b50;
+
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int END_HEADER_SIZE = 22;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+  private static final int METHOD_STORED = 0;
+  private static final int METHOD_DEFLATED = 8;
+
+  static final class Entry {
+    final String myName;
+    private final int myLocalHeaderOffset;
+    private final int myCompressedSize;
+    private final int mySize;
+    private final int myMethod;
+
+    private Entry(String name, int localHeaderOffset, int compressedSize, int size, int method) {
+      myName = name;
+      myLocalHeaderOffset = localHeaderOffset;
+      myCompressedSize = compressedSize;
+      mySize = size;
+      myMethod = method;
+    }
+  }
+
+  private final MappedByteBuffer myBuffer;
+  private final Map<String, Entry> myEntries;
+
+  private MappedJar(MappedByteBuffer buffer, Map<String, Entry> entries) {
+    myBuffer = buffer;
+    myEntries = entries;
+  }
+
+  static MappedJar open(File file) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      long size = channel.size();
+      if (size < END_HEADER_SIZE || size > Integer.MAX_VALUE) {
+        return null;
+      }
+
+      // mapping stays valid after the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+      Map<String, Entry> entries = readCentralDirectory(buffer);
+      return entries == null ? null : new MappedJar(buffer, entries);
+    }
+    finally {
+      randomAccessFile.close();
+    }
+  }
+
+  private static Map<String, Entry> readCentralDirectory(ByteBuffer buffer) {
+    int endOffset = findEndHeader(buffer);
+    if (endOffset < 0) {
+      return null;
+    }
+
+    int entryCount = buffer.getShort(endOffset + 10) & 0xFFFF;
+    long directoryOffset = buffer.getInt(endOffset + 16) & 0xFFFFFFFFL;
+    if (entryCount == 0xFFFF || directoryOffset == 0xFFFFFFFFL) {
+      // zip64
+      return null;
+    }
+
+    Map<String, Entry> entries = new HashMap<String, Entry>(entryCount * 4 / 3 + 1);
+    int offset = (int)directoryOffset;
+    for (int i = 0; i < entryCount; i++) {
+      if (offset + CENTRAL_HEADER_SIZE > buffer.limit() || buffer.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+        return null;
+      }
+
+      int method = buffer.getShort(offset + 10) & 0xFFFF;
+      long compressedSize = buffer.getInt(offset + 20) & 0xFFFFFFFFL;
+      long size = buffer.getInt(offset + 24) & 0xFFFFFFFFL;
+      int nameLength = buffer.getShort(offset + 28) & 0xFFFF;
+      int extraLength = buffer.getShort(offset + 30) & 0xFFFF;
+      int commentLength = buffer.getShort(offset + 32) & 0xFFFF;
+      long localHeaderOffset = buffer.getInt(offset + 42) & 0xFFFFFFFFL;
+
+      if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+        return null;
+      }
+
+      byte[] nameBytes = new byte[nameLength];
+      ByteBuffer nameBuffer = buffer.duplicate();
+      nameBuffer.position(offset + CENTRAL_HEADER_SIZE);
+      nameBuffer.get(nameBytes);
+      String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+      if (!entries.containsKey(name)) {
+        entries.put(name, new Entry(name, (int)localHeaderOffset, (int)compressedSize, (int)size, method));
+      }
+
+      offset += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+    return entries;
+  }
+
+  private static int findEndHeader(ByteBuffer buffer) {
+    int minOffset = Math.max(0, buffer.limit() - END_HEADER_SIZE - MAX_COMMENT_SIZE);
+    for (int offset = buffer.limit() - END_HEADER_SIZE; offset >= minOffset; offset--) {
+      if (buffer.getInt(offset) == END_HEADER_SIGNATURE) {
+        return offset;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Same lookup rules as {@link java.util.zip.ZipFile#getEntry(String)} - directory entries can be found without the trailing slash
+   */
+  Entry getEntry(String name) {
+    Entry entry = myEntries.get(name);
+    if (entry == null && !name.endsWith("/")) {
+      entry = myEntries.get(name + "/");
+    }
+    return entry;
+  }
+
+  /**
+   * Jar is signed if it has a signature file, code signers of such jar are verified only by JarFile
+   */
+  boolean isSigned() {
+    for (String name : myEntries.keySet()) {
+      if (name.startsWith("META-INF/") && name.indexOf('/', "META-INF/".length()) < 0 && name.toUpperCase(Locale.US).endsWith(".SF")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Jar may be multi-release if it has versioned entries, JarFile returns them instead of base entries
+   */
+  boolean isMultiRelease() {
+    for (String name : myEntries.keySet()) {
+      if (name.startsWith("META-INF/versions/")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  int size() {
+    return myEntries.size();
+  }
+
+  Iterable<String> getEntryNames() {
+    return myEntries.keySet();
+  }
+
+  byte[] getBytes(Entry entry) throws IOException {
+    ByteBuffer buffer = myBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+    int offset = entry.myLocalHeaderOffset;
+    if (buffer.getInt(offset) != LOCAL_HEADER_SIGNATURE) {
+      throw new IOException("Invalid local header at " + offset);
+    }
+    int dataOffset = offset + LOCAL_HEADER_SIZE + (buffer.getShort(offset + 26) & 0xFFFF) + (buffer.getShort(offset + 28) & 0xFFFF);
+
+    byte[] compressed = new byte[entry.myCompressedSize];
+    buffer.position(dataOffset);
+    buffer.get(compressed);
+
+    if (entry.myMethod == METHOD_STORED) {
+      return compressed;
+    }
+    if (entry.myMethod != METHOD_DEFLATED) {
+      throw new IOException("Unsupported compression method " + entry.myMethod);
+    }
+
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(compressed);
+      byte[] result = new byte[entry.mySize];
+      int read = 0;
+      while (read < result.length) {
+        int count = inflater.inflate(result, read, result.length - read);
+        if (count == 0) {
+          if (inflater.finished() || inflater.needsDictionary() || inflater.needsInput()) {
+            break;
+          }
+        }
+        read += count;
+      }
+      if (read != result.length) {
+        throw new IOException("Unexpected entry size: " + read + ", expected " + result.length);
+      }
+      return result;
+    }
+    catch (DataFormatException e) {
+      throw new IOException(e);
+    }
+    finally {
+      inflater.end();
+    }
+  }
+}
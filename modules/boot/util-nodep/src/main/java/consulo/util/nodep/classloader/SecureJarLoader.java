@@ -47,6 +47,19 @@ class SecureJarLoader extends JarLoader {
     return new MySecureMemoryResource(url, content, attributes, codeSigners);
   }
 
+  /**
+   * Signed jars need code signers of JarEntry, so they can't be read from the mapped view
+   */
+  @Override
+  protected boolean isMappedJarSupported(MappedJar jar) {
+    return super.isMappedJarSupported(jar) && !jar.isSigned();
+  }
+
+  @Override
+  protected Resource createMappedResource(URL url, MappedJar jar, MappedJar.Entry entry) {
+    return new MySecureMappedResource(url, jar, entry);
+  }
+
   @Override
   protected Resource instantiateResource(URL url, ZipEntry entry) throws IOException {
     return new MySecureResource(url, (JarEntry)entry);
@@ -73,6 +86,25 @@ class SecureJarLoader extends JarLoader {
     }
   }
 
+  private class MySecureMappedResource extends JarLoader.MappedResource {
+    MySecureMappedResource(URL url, MappedJar jar, MappedJar.Entry entry) {
+      super(url, jar, entry);
+    }
+
+    @Override
+    public ProtectionDomain getProtectionDomain() {
+      synchronized (myProtectionDomainMonitor) {
+        if (myProtectionDomain == null) {
+          // only unsigned jars are mapped
+          CodeSource codeSource = new CodeSource(myUrl, (CodeSigner[])null);
+          myProtectionDomain = new ProtectionDomain(codeSource, new Permissions());
+        }
+
+        return myProtectionDomain;
+      }
+    }
+  }
+
   private class MySecureResource extends JarLoader.MyResource {
     MySecureResource(URL url, JarEntry entry) throws IOException {
       super(url, entry);
@@ -74,6 +74,7 @@ public class UrlClassLoader extends ClassLoader implements AutoCloseable {
     private boolean myAllowBootstrapResources;
     private boolean myErrorOnMissingJar = true;
     private boolean myLazyClassloadingCaches;
+    private boolean myUseMappedJars;
 
     private CachePoolImpl myCachePool;
 
@@ -212,6 +213,20 @@ public class UrlClassLoader extends ClassLoader implements AutoCloseable {
       return this;
     }
 
+    /**
+     * Jars are mapped into memory and read without ZipFile and its locking, see {@link MappedJar}.
+     * Works only together with {@link #allowLock()}, since mapped file can't be modified or deleted on Windows until the loader is collected.
+     * Jars which can't be mapped (zip64, signed jars) are read as usual.
+     */
+    public Builder useMappedJars(boolean useMappedJars) {
+      myUseMappedJars = useMappedJars;
+      return this;
+    }
+
+    public Builder useMappedJars() {
+      return useMappedJars(true);
+    }
+
     public UrlClassLoader get() {
       return new UrlClassLoader(this);
     }
@@ -282,6 +297,7 @@ public class UrlClassLoader extends ClassLoader implements AutoCloseable {
                          builder.myCachingCondition,
                          builder.myErrorOnMissingJar,
                          builder.myLazyClassloadingCaches,
+                         builder.myUseMappedJars,
                          builder.myURLsWithProtectionDomain);
   }
 
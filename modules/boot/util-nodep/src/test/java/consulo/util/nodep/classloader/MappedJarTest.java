@@ -0,0 +1,287 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.util.nodep.classloader;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.ProtectionDomain;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * {@link MappedJar} and class loading from it must behave the same as {@link ZipFile} and {@link java.util.jar.JarFile}.
+ */
+public class MappedJarTest extends Assert {
+  public static class Sample {
+  }
+
+  private static final String SAMPLE_CLASS = Sample.class.getName().replace('.', '/') + UrlClassLoader.CLASS_EXTENSION;
+
+  private File myDir;
+
+  @After
+  public void tearDown() {
+    if (myDir != null) {
+      deleteRecursively(myDir);
+    }
+  }
+
+  @Test
+  public void testStoredAndDeflatedEntries() throws Exception {
+    File jar = createJar("entries.jar", null, out -> {
+      putDirectory(out, "dir/");
+      putEntry(out, "dir/deflated.txt", text(1000), ZipEntry.DEFLATED);
+      putEntry(out, "dir/stored.txt", text(1000), ZipEntry.STORED);
+      putEntry(out, "dir/empty.txt", new byte[0], ZipEntry.DEFLATED);
+      putEntry(out, "dir/empty_stored.txt", new byte[0], ZipEntry.STORED);
+    });
+
+    MappedJar mappedJar = MappedJar.open(jar);
+    assertNotNull(mappedJar);
+
+    try (ZipFile zipFile = new ZipFile(jar)) {
+      assertEquals(zipFile.size(), mappedJar.size());
+
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry zipEntry = entries.nextElement();
+        MappedJar.Entry entry = mappedJar.getEntry(zipEntry.getName());
+        assertNotNull(zipEntry.getName(), entry);
+        assertArrayEquals(zipEntry.getName(), readAll(zipFile.getInputStream(zipEntry)), mappedJar.getBytes(entry));
+      }
+    }
+  }
+
+  @Test
+  public void testDirectoryEntries() throws Exception {
+    File jar = createJar("directories.jar", null, out -> {
+      putDirectory(out, "dir/");
+      putEntry(out, "dir/file.txt", text(10), ZipEntry.DEFLATED);
+    });
+
+    MappedJar mappedJar = MappedJar.open(jar);
+    assertNotNull(mappedJar);
+
+    try (ZipFile zipFile = new ZipFile(jar)) {
+      for (String name : new String[]{"dir", "dir/", "dir/file.txt", "dir/file.txt/", "missing", "missing/"}) {
+        ZipEntry zipEntry = zipFile.getEntry(name);
+        MappedJar.Entry entry = mappedJar.getEntry(name);
+        assertEquals(name, zipEntry == null ? null : zipEntry.getName(), entry == null ? null : entry.myName);
+      }
+    }
+  }
+
+  @Test
+  public void testResourceLookup() throws Exception {
+    File jar = createJar("resources.jar", null, out -> {
+      putDirectory(out, "dir/");
+      putEntry(out, "dir/deflated.txt", text(100), ZipEntry.DEFLATED);
+      putEntry(out, "dir/stored.txt", text(100), ZipEntry.STORED);
+    });
+
+    for (boolean protectionDomain : new boolean[]{false, true}) {
+      UrlClassLoader loader = createLoader(jar, protectionDomain);
+      try {
+        assertArrayEquals(text(100), readAll(loader.getResourceAsStream("dir/deflated.txt")));
+        assertArrayEquals(text(100), readAll(loader.getResourceAsStream("dir/stored.txt")));
+        assertNotNull(loader.findResource("dir"));
+        assertNull(loader.findResource("dir/missing.txt"));
+        assertNull(loader.findResource("missing.txt"));
+      }
+      finally {
+        loader.close();
+      }
+    }
+  }
+
+  @Test
+  public void testManifest() throws Exception {
+    File library = createJar("library.jar", null, out -> putEntry(out, "library.txt", text(10), ZipEntry.DEFLATED));
+
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_VERSION, "1.2.3");
+    manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, library.toURI().toURL().toString());
+    // class path of manifest is processed only for classpath jars
+    File jar = createJar(ClassPath.CLASSPATH_JAR_FILE_NAME_PREFIX + "-manifest.jar", manifest, out -> putEntry(out, SAMPLE_CLASS, sampleClassBytes(), ZipEntry.DEFLATED));
+
+    UrlClassLoader loader = createLoader(jar, false);
+    try {
+      assertArrayEquals(text(10), readAll(loader.getResourceAsStream("library.txt")));
+
+      Class<?> aClass = loader.loadClass(Sample.class.getName());
+      assertSame(loader, aClass.getClassLoader());
+      assertEquals("1.2.3", aClass.getPackage().getImplementationVersion());
+    }
+    finally {
+      loader.close();
+    }
+  }
+
+  @Test
+  public void testProtectionDomainOfUnsignedJar() throws Exception {
+    File jar = createJar("unsigned.jar", null, out -> putEntry(out, SAMPLE_CLASS, sampleClassBytes(), ZipEntry.DEFLATED));
+
+    MappedJar mappedJar = MappedJar.open(jar);
+    assertNotNull(mappedJar);
+    assertFalse(mappedJar.isSigned());
+
+    UrlClassLoader loader = createLoader(jar, true);
+    try {
+      ProtectionDomain domain = loader.loadClass(Sample.class.getName()).getProtectionDomain();
+      assertNotNull(domain.getCodeSource());
+      assertNull(domain.getCodeSource().getCodeSigners());
+    }
+    finally {
+      loader.close();
+    }
+  }
+
+  @Test
+  public void testSignedJarIsNotMapped() throws Exception {
+    File jar = createJar("signed.jar", null, out -> {
+      putEntry(out, "META-INF/TEST.SF", text(10), ZipEntry.DEFLATED);
+      putEntry(out, "file.txt", text(10), ZipEntry.DEFLATED);
+    });
+
+    MappedJar mappedJar = MappedJar.open(jar);
+    assertNotNull(mappedJar);
+    assertTrue(mappedJar.isSigned());
+
+    UrlClassLoader loader = createLoader(jar, true);
+    try {
+      // read by JarFile, which checks the signature files
+      assertArrayEquals(text(10), readAll(loader.getResourceAsStream("file.txt")));
+    }
+    finally {
+      loader.close();
+    }
+  }
+
+  @Test
+  public void testMultiReleaseJar() throws Exception {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true");
+    File jar = createJar("multi-release.jar", manifest, out -> {
+      putEntry(out, "file.txt", "base".getBytes(StandardCharsets.UTF_8), ZipEntry.DEFLATED);
+      putEntry(out, "META-INF/versions/9/file.txt", "9".getBytes(StandardCharsets.UTF_8), ZipEntry.DEFLATED);
+    });
+
+    MappedJar mappedJar = MappedJar.open(jar);
+    assertNotNull(mappedJar);
+    assertTrue(mappedJar.isMultiRelease());
+
+    for (boolean protectionDomain : new boolean[]{false, true}) {
+      UrlClassLoader loader = createLoader(jar, protectionDomain);
+      try {
+        assertEquals("9", new String(readAll(loader.getResourceAsStream("file.txt")), StandardCharsets.UTF_8));
+      }
+      finally {
+        loader.close();
+      }
+    }
+  }
+
+  private interface JarContent {
+    void write(JarOutputStream out) throws IOException;
+  }
+
+  private File createJar(String name, Manifest manifest, JarContent content) throws IOException {
+    if (myDir == null) {
+      myDir = Files.createTempDirectory("mappedJar").toFile();
+    }
+
+    File file = new File(myDir, name);
+    try (JarOutputStream out = manifest == null ? new JarOutputStream(new FileOutputStream(file)) : new JarOutputStream(new FileOutputStream(file), manifest)) {
+      content.write(out);
+    }
+    return file;
+  }
+
+  private static UrlClassLoader createLoader(File jar, boolean protectionDomain) throws IOException {
+    URL url = jar.toURI().toURL();
+    UrlClassLoader.Builder builder = UrlClassLoader.build().urls(url).parent(null).allowLock().useMappedJars().noPreload();
+    if (protectionDomain) {
+      builder.urlsWithProtectionDomain(Collections.singleton(url));
+    }
+    return builder.get();
+  }
+
+  private static void putDirectory(JarOutputStream out, String name) throws IOException {
+    out.putNextEntry(new ZipEntry(name));
+    out.closeEntry();
+  }
+
+  private static void putEntry(JarOutputStream out, String name, byte[] data, int method) throws IOException {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setMethod(method);
+    if (method == ZipEntry.STORED) {
+      CRC32 crc = new CRC32();
+      crc.update(data);
+      entry.setSize(data.length);
+      entry.setCompressedSize(data.length);
+      entry.setCrc(crc.getValue());
+    }
+    out.putNextEntry(entry);
+    out.write(data);
+    out.closeEntry();
+  }
+
+  private static byte[] text(int lines) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      builder.append("line ").append(i).append('\n');
+    }
+    return builder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] sampleClassBytes() throws IOException {
+    return readAll(MappedJarTest.class.getClassLoader().getResourceAsStream(SAMPLE_CLASS));
+  }
+
+  private static byte[] readAll(InputStream stream) throws IOException {
+    assertNotNull(stream);
+    try {
+      return stream.readAllBytes();
+    }
+    finally {
+      stream.close();
+    }
+  }
+
+  private static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    file.delete();
+  }
+}
@@ -16,17 +16,23 @@
 package consulo.desktop.awt.boot.main;
 
 import consulo.container.ExitCodes;
+import consulo.container.boot.ContainerPathManager;
 import consulo.container.boot.ContainerStartup;
+import consulo.container.impl.PluginHolderModificator;
 import consulo.container.impl.ShowErrorCaller;
 import consulo.container.impl.SystemContainerLogger;
 import consulo.container.impl.classloader.BootstrapClassLoaderUtil;
+import consulo.container.impl.classloader.ClassPreloadProfile;
 import consulo.container.internal.ShowError;
+import consulo.container.plugin.PluginDescriptor;
 import consulo.container.util.StatCollector;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class Main {
@@ -69,9 +75,24 @@ public class Main {
 
     ContainerStartup containerStartup = BootstrapClassLoaderUtil.buildContainerStartup(map, modulesDirectory, SystemContainerLogger.INSTANCE, DesktopAwtJava9Processor.INSTANCE);
 
+    initClassPreloadProfile();
+
     containerStartup.run(map);
   }
 
+  private static void initClassPreloadProfile() {
+    if (!ClassPreloadProfile.isEnabled()) {
+      return;
+    }
+
+    File profileFile = new File(ContainerPathManager.get().getSystemPath(), ClassPreloadProfile.PROFILE_FILE_NAME);
+    // only platform modules are known at this point, plugins are loaded by the application later
+    List<PluginDescriptor> platformModules = new ArrayList<PluginDescriptor>(PluginHolderModificator.getPlugins());
+
+    // profile is saved by the application when it's started
+    ClassPreloadProfile.start(profileFile, platformModules, SystemContainerLogger.INSTANCE);
+  }
+
   private static void showErrorDialogImpl(String title, String message) {
     try {
       UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
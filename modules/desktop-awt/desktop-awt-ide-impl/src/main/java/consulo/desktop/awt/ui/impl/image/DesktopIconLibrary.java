@@ -15,29 +15,23 @@
  */
 package consulo.desktop.awt.ui.impl.image;
 
-import consulo.ide.impl.idea.util.io.UnsyncByteArrayInputStream;
-import com.kitfox.svg.SVGDiagram;
 import com.kitfox.svg.SVGUniverse;
-import consulo.logging.Logger;
 import consulo.desktop.awt.ui.impl.image.libraryImage.DesktopAWTImageImpl;
 import consulo.desktop.awt.ui.impl.image.libraryImage.DesktopSvgImageImpl;
+import consulo.desktop.awt.ui.impl.image.libraryImage.DesktopSvgRasterCache;
+import consulo.desktop.awt.ui.impl.image.libraryImage.DesktopSvgSource;
 import consulo.ui.image.Image;
 import consulo.ui.impl.image.BaseIconLibraryImpl;
 import consulo.ui.impl.image.BaseIconLibraryManager;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.io.IOException;
-import java.net.URI;
-import java.util.Objects;
 
 /**
  * @author VISTALL
  * @since 2020-09-27
  */
 public class DesktopIconLibrary extends BaseIconLibraryImpl {
-  private static final Logger LOG = Logger.getInstance(DesktopIconLibrary.class);
-
   private final SVGUniverse mySVGUniverse = new SVGUniverse();
   
   public DesktopIconLibrary(String id, BaseIconLibraryManager baseIconLibraryManager) {
@@ -47,24 +41,26 @@ public class DesktopIconLibrary extends BaseIconLibraryImpl {
   @Nullable
   @Override
   protected Image createImage(@Nonnull byte[] _1xData, @Nullable byte[] _2xdata, boolean isSVG, int width, int height, String groupId, String imageId) {
-    if (isSVG) {
-      try {
-        URI _x1Url = mySVGUniverse.loadSVG(new UnsyncByteArrayInputStream(_1xData), getId() + "/" + groupId + "/" + imageId);
+    return createImage(_1xData, _2xdata, isSVG, width, height, groupId, imageId, null);
+  }
 
-        SVGDiagram _x1Diagram = Objects.requireNonNull(mySVGUniverse.getDiagram(_x1Url, false));
-        SVGDiagram _x2Diagram = null;
+  @Nullable
+  @Override
+  protected Image createImage(@Nonnull byte[] _1xData,
+                              @Nullable byte[] _2xdata,
+                              boolean isSVG,
+                              int width,
+                              int height,
+                              String groupId,
+                              String imageId,
+                              @Nullable JarImageData jarData) {
+    if (isSVG) {
+      DesktopSvgRasterCache rasterCache = ((DesktopIconLibraryManagerImpl)getIconLibraryManager()).getRasterCache();
 
-        if(_2xdata != null) {
-          URI _x2Url = mySVGUniverse.loadSVG(new UnsyncByteArrayInputStream(_2xdata), getId() + "/" + groupId + "/" + imageId + "/2x");
-          _x2Diagram = Objects.requireNonNull(mySVGUniverse.getDiagram(_x2Url));
-        }
+      // svg is parsed on first render without raster cache hit
+      DesktopSvgSource source = DesktopSvgSource.lazy(mySVGUniverse, getId() + "/" + groupId + "/" + imageId, _1xData, _2xdata, rasterCache, jarData);
 
-        return new DesktopSvgImageImpl(_x1Diagram, _x2Diagram, width, height, null, groupId, imageId);
-      }
-      catch (IOException e) {
-        LOG.warn(e);
-        return Image.empty(width, height);
-      }
+      return new DesktopSvgImageImpl(source, width, height, 1f, null, groupId, imageId);
     }
     else {
       return new DesktopAWTImageImpl(DesktopAWTImageImpl.ImageBytes.of(_1xData), DesktopAWTImageImpl.ImageBytes.of(_2xdata), width, height, null);
@@ -15,11 +15,15 @@
  */
 package consulo.desktop.awt.ui.impl.image;
 
+import consulo.desktop.awt.ui.impl.image.libraryImage.DesktopSvgRasterCache;
 import consulo.ui.image.Image;
 import consulo.ui.impl.image.BaseIconLibraryManager;
 import consulo.ui.impl.image.BaseIconLibraryImpl;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.nio.file.Path;
 
 /**
  * @author VISTALL
@@ -28,12 +32,27 @@ import jakarta.annotation.Nonnull;
 public class DesktopIconLibraryManagerImpl extends BaseIconLibraryManager {
   public static final DesktopIconLibraryManagerImpl ourInstance = new DesktopIconLibraryManagerImpl();
 
+  private volatile DesktopSvgRasterCache myRasterCache;
+
   @Nonnull
   @Override
   protected BaseIconLibraryImpl createLibrary(@Nonnull String id) {
     return new DesktopIconLibrary(id, this);
   }
 
+  @Nullable
+  public DesktopSvgRasterCache getRasterCache() {
+    DesktopSvgRasterCache rasterCache = myRasterCache;
+    if (rasterCache == null) {
+      Path cacheDir = getCacheDir();
+      if (cacheDir == null) {
+        return null;
+      }
+      myRasterCache = rasterCache = new DesktopSvgRasterCache(cacheDir.resolve("raster"), getJarIds());
+    }
+    return rasterCache;
+  }
+
   @Nonnull
   @Override
   public Image inverseIcon(@Nonnull Image image) {
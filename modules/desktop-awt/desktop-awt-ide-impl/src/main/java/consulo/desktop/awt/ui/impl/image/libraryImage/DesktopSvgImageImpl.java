@@ -6,6 +6,7 @@ import consulo.ui.ex.awt.internal.RetinaImage;
 import consulo.ui.ex.awt.util.GraphicsUtil;
 import consulo.ui.ex.awt.ImageUtil;
 import consulo.ui.ex.awt.JBUI;
+import consulo.logging.Logger;
 import com.kitfox.svg.SVGDiagram;
 import com.kitfox.svg.SVGException;
 import org.imgscalr.Scalr;
@@ -15,6 +16,8 @@ import jakarta.annotation.Nullable;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.ImageFilter;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -26,8 +29,9 @@ public class DesktopSvgImageImpl extends DesktopInnerImageImpl<DesktopSvgImageIm
   private static final String PLATFORM_ICON_GROUP = "consulo.platform.base.PlatformIconGroup";
   private static final Set<String> ICONS = Set.of("icon16", "icon16_sandbox");
 
-  private final SVGDiagram myX1Diagram;
-  private final SVGDiagram myX2Diagram;
+  private static final Logger LOG = Logger.getInstance(DesktopSvgImageImpl.class);
+
+  private final DesktopSvgSource mySource;
   private final String myGroupId;
   private final String myImageId;
 
@@ -38,7 +42,7 @@ public class DesktopSvgImageImpl extends DesktopInnerImageImpl<DesktopSvgImageIm
                              @Nullable Supplier<ImageFilter> imageFilterSupplier,
                              String groupId,
                              String imageId) {
-    this(x1Diagram, x2Diagram, width, height, 1f, imageFilterSupplier, groupId, imageId);
+    this(DesktopSvgSource.of(x1Diagram, x2Diagram), width, height, 1f, imageFilterSupplier, groupId, imageId);
   }
 
   public DesktopSvgImageImpl(@Nonnull SVGDiagram x1Diagram,
@@ -49,9 +53,18 @@ public class DesktopSvgImageImpl extends DesktopInnerImageImpl<DesktopSvgImageIm
                              @Nullable Supplier<ImageFilter> imageFilterSupplier,
                              String groupId,
                              String imageId) {
+    this(DesktopSvgSource.of(x1Diagram, x2Diagram), width, height, scale, imageFilterSupplier, groupId, imageId);
+  }
+
+  public DesktopSvgImageImpl(@Nonnull DesktopSvgSource source,
+                             int width,
+                             int height,
+                             float scale,
+                             @Nullable Supplier<ImageFilter> imageFilterSupplier,
+                             String groupId,
+                             String imageId) {
     super(width, height, scale, imageFilterSupplier);
-    myX1Diagram = x1Diagram;
-    myX2Diagram = x2Diagram;
+    mySource = source;
     myGroupId = groupId;
     myImageId = imageId;
   }
@@ -59,13 +72,13 @@ public class DesktopSvgImageImpl extends DesktopInnerImageImpl<DesktopSvgImageIm
   @Nonnull
   @Override
   protected DesktopSvgImageImpl withScale(float scale) {
-    return new DesktopSvgImageImpl(myX1Diagram, myX2Diagram, myWidth, myHeight, scale, myFilter, myGroupId, myImageId);
+    return new DesktopSvgImageImpl(mySource, myWidth, myHeight, scale, myFilter, myGroupId, myImageId);
   }
 
   @Nonnull
   @Override
   protected DesktopSvgImageImpl withFilter(@Nullable Supplier<ImageFilter> filter) {
-    return new DesktopSvgImageImpl(myX1Diagram, myX2Diagram, myWidth, myHeight, filter, myGroupId, myImageId);
+    return new DesktopSvgImageImpl(mySource, myWidth, myHeight, 1f, filter, myGroupId, myImageId);
   }
 
   @Override
@@ -79,7 +92,6 @@ public class DesktopSvgImageImpl extends DesktopInnerImageImpl<DesktopSvgImageIm
     float width = myWidth * myScale;
     float height = myHeight * myScale;
 
-    SVGDiagram targetDiagram = myX1Diagram;
     double jvmScale = 1f;
     if ((jvmScale = ctx.getScale(JBUI.ScaleType.SYS_SCALE)) > 1f) {
       width *= jvmScale;
@@ -88,9 +100,7 @@ public class DesktopSvgImageImpl extends DesktopInnerImageImpl<DesktopSvgImageIm
 
     float ideScale = JBUI.scale(1f);
 
-    if (jvmScale > 1f || myScale > 1.5f) {
-      targetDiagram = myX2Diagram != null ? myX2Diagram : targetDiagram;
-    }
+    boolean useX2 = jvmScale > 1f || myScale > 1.5f;
 
     double imageScale = jvmScale;
     // downscale
@@ -112,9 +122,32 @@ public class DesktopSvgImageImpl extends DesktopInnerImageImpl<DesktopSvgImageIm
       image = new JBHiDPIScaledImage(imageScale, width, height, BufferedImage.TYPE_INT_ARGB, PaintUtil.RoundingMode.ROUND);
     }
 
-    Graphics2D g = image.createGraphics();
-    paintIcon(targetDiagram, g, image.getUserWidth(null), image.getUserHeight(null));
-    g.dispose();
+    int userWidth = image.getUserWidth(null);
+    int userHeight = image.getUserHeight(null);
+
+    // raster cache hit skips parsing and rendering of svg
+    WritableRaster raster = image.getRaster();
+    int[] cached = mySource.readRaster(useX2, raster.getWidth(), raster.getHeight(), userWidth, userHeight);
+    if (cached != null) {
+      raster.setDataElements(0, 0, raster.getWidth(), raster.getHeight(), cached);
+    }
+    else {
+      try {
+        SVGDiagram targetDiagram = mySource.getDiagram(useX2);
+
+        Graphics2D g = image.createGraphics();
+        paintIcon(targetDiagram, g, userWidth, userHeight);
+        g.dispose();
+
+        if (mySource.hasRasterCache()) {
+          int[] pixels = (int[])raster.getDataElements(0, 0, raster.getWidth(), raster.getHeight(), null);
+          mySource.writeRaster(useX2, raster.getWidth(), raster.getHeight(), userWidth, userHeight, pixels);
+        }
+      }
+      catch (IOException e) {
+        LOG.warn("Fail to load svg " + myGroupId + "@" + myImageId, e);
+      }
+    }
 
     if (isOurLogo) {
       image = image.scale((int)width, (int)height, Scalr.Method.SPEED);
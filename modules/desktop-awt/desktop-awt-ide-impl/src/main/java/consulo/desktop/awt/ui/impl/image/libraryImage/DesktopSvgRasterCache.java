@@ -0,0 +1,183 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.desktop.awt.ui.impl.image.libraryImage;
+
+import consulo.logging.Logger;
+import consulo.util.concurrent.ConcurrencyUtil;
+import consulo.util.io.FileUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.*;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * On-disk cache of rendered svg icons of icon library jars. There is a directory per jar (named by its id, which changes
+ * with the jar) and a small file per rendered raster, so scale and theme (icon library) are part of key,
+ * and the image filters are applied after the cache.
+ * <p/>
+ * Hit skips parsing and rendering of svg, which is the most expensive part of first paint on HiDPI screens.
+ * Raster is read when the image is painted first time - it's one small read of uncompressed file, like reading svg from the jar.
+ * Writes are queued and stored by one background task, directories of removed or changed jars are deleted in background.
+ */
+public class DesktopSvgRasterCache {
+  private static final Logger LOG = Logger.getInstance(DesktopSvgRasterCache.class);
+
+  private static final int VERSION = 3;
+
+  // bigger images are not icons
+  private static final int MAX_PIXELS = 1024 * 1024;
+
+  private static final class PendingWrite {
+    private final Path myFile;
+    private final int myWidth;
+    private final int myHeight;
+    private final int[] myPixels;
+
+    private PendingWrite(Path file, int width, int height, int[] pixels) {
+      myFile = file;
+      myWidth = width;
+      myHeight = height;
+      myPixels = pixels;
+    }
+  }
+
+  private final Path myDir;
+
+  private final ExecutorService myExecutor = ConcurrencyUtil.newSingleThreadExecutor("Icon Raster Cache", Thread.MIN_PRIORITY);
+  private final Queue<PendingWrite> myPendingWrites = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean myFlushScheduled = new AtomicBoolean();
+
+  /**
+   * @param usedJarIds ids of icon library jars, caches of other jars are deleted
+   */
+  public DesktopSvgRasterCache(@Nonnull Path dir, @Nonnull Set<String> usedJarIds) {
+    myDir = dir;
+
+    Set<String> jarIds = Set.copyOf(usedJarIds);
+    myExecutor.execute(() -> deleteUnused(jarIds));
+  }
+
+  /**
+   * @return pixels of the raster, or null if it is not cached
+   */
+  @Nullable
+  public int[] read(@Nonnull String jarId, @Nonnull String name, boolean x2, int width, int height, int userWidth, int userHeight) {
+    if ((long)width * height > MAX_PIXELS) {
+      return null;
+    }
+
+    Path file = getFile(jarId, name, x2, width, height, userWidth, userHeight);
+    try {
+      IntBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).asIntBuffer();
+      if (buffer.remaining() != 3 + width * height || buffer.get() != VERSION || buffer.get() != width || buffer.get() != height) {
+        LOG.warn("Invalid icon raster cache " + file);
+        return null;
+      }
+
+      int[] pixels = new int[width * height];
+      buffer.get(pixels);
+      return pixels;
+    }
+    catch (NoSuchFileException e) {
+      return null;
+    }
+    catch (IOException e) {
+      LOG.warn("Fail to read icon raster cache " + file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Queues the raster for writing, the queue is stored in background
+   */
+  public void write(@Nonnull String jarId, @Nonnull String name, boolean x2, int width, int height, int userWidth, int userHeight, @Nonnull int[] pixels) {
+    if ((long)width * height > MAX_PIXELS) {
+      return;
+    }
+
+    myPendingWrites.add(new PendingWrite(getFile(jarId, name, x2, width, height, userWidth, userHeight), width, height, pixels));
+    if (myFlushScheduled.compareAndSet(false, true)) {
+      myExecutor.execute(this::flush);
+    }
+  }
+
+  private void flush() {
+    // reset before polling, so writes queued during the flush schedule next one
+    myFlushScheduled.set(false);
+
+    PendingWrite write;
+    while ((write = myPendingWrites.poll()) != null) {
+      Path file = write.myFile;
+      try {
+        Files.createDirectories(file.getParent());
+
+        ByteBuffer buffer = ByteBuffer.allocate((3 + write.myPixels.length) * 4);
+        IntBuffer intBuffer = buffer.asIntBuffer();
+        intBuffer.put(VERSION);
+        intBuffer.put(write.myWidth);
+        intBuffer.put(write.myHeight);
+        intBuffer.put(write.myPixels);
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tempFile, buffer.array());
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch (IOException | RuntimeException e) {
+        LOG.warn("Fail to write icon raster cache " + file, e);
+      }
+    }
+  }
+
+  private void deleteUnused(@Nonnull Set<String> usedJarIds) {
+    if (!Files.isDirectory(myDir)) {
+      return;
+    }
+
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(myDir)) {
+      for (Path file : files) {
+        // files are left by old cache versions
+        if (!Files.isDirectory(file) || !usedJarIds.contains(file.getFileName().toString())) {
+          FileUtil.delete(file);
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.warn("Fail to clean icon raster cache " + myDir, e);
+    }
+  }
+
+  @Nonnull
+  private Path getFile(@Nonnull String jarId, @Nonnull String name, boolean x2, int width, int height, int userWidth, int userHeight) {
+    StringBuilder fileName = new StringBuilder(name.length() + 40);
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      fileName.append(Character.isLetterOrDigit(c) || c == '.' || c == '-' ? c : '_');
+    }
+    // sanitized names can clash
+    fileName.append('.').append(Integer.toHexString(name.hashCode()));
+    fileName.append(x2 ? "_2x_" : "_1x_").append(width).append('x').append(height).append('_').append(userWidth).append('x').append(userHeight);
+    fileName.append(".bin");
+    return myDir.resolve(jarId).resolve(fileName.toString());
+  }
+}
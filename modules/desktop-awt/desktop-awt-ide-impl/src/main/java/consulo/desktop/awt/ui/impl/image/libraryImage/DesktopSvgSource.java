@@ -0,0 +1,163 @@
+/*
+ * Copyright 2013-2026 consulo.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.desktop.awt.ui.impl.image.libraryImage;
+
+import com.kitfox.svg.SVGDiagram;
+import com.kitfox.svg.SVGUniverse;
+import consulo.ide.impl.idea.util.io.UnsyncByteArrayInputStream;
+import consulo.ui.impl.image.BaseIconLibraryImpl;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * SVG data of library image. Icon library images are parsed only when they are rendered without {@link DesktopSvgRasterCache} hit.
+ * SVG data of images from icon library jars is released after parsing or cache hit, and is read from the jar again if needed.
+ */
+public class DesktopSvgSource {
+  @Nonnull
+  public static DesktopSvgSource of(@Nonnull SVGDiagram x1Diagram, @Nullable SVGDiagram x2Diagram) {
+    return new DesktopSvgSource(null, null, null, null, x1Diagram, x2Diagram, null, null);
+  }
+
+  @Nonnull
+  public static DesktopSvgSource lazy(@Nonnull SVGUniverse universe,
+                                      @Nonnull String name,
+                                      @Nonnull byte[] x1Data,
+                                      @Nullable byte[] x2Data,
+                                      @Nullable DesktopSvgRasterCache rasterCache,
+                                      @Nullable BaseIconLibraryImpl.JarImageData jarData) {
+    // raster cache is keyed by jar
+    return new DesktopSvgSource(universe, name, x1Data, x2Data, null, null, jarData == null ? null : rasterCache, jarData);
+  }
+
+  @Nullable
+  private final SVGUniverse myUniverse;
+  private final String myName;
+  private byte[] myX1Data;
+  private byte[] myX2Data;
+  private final boolean myHasX2;
+
+  private SVGDiagram myX1Diagram;
+  private SVGDiagram myX2Diagram;
+
+  @Nullable
+  private final DesktopSvgRasterCache myRasterCache;
+  @Nullable
+  private final BaseIconLibraryImpl.JarImageData myJarData;
+
+  private DesktopSvgSource(@Nullable SVGUniverse universe,
+                           @Nullable String name,
+                           @Nullable byte[] x1Data,
+                           @Nullable byte[] x2Data,
+                           @Nullable SVGDiagram x1Diagram,
+                           @Nullable SVGDiagram x2Diagram,
+                           @Nullable DesktopSvgRasterCache rasterCache,
+                           @Nullable BaseIconLibraryImpl.JarImageData jarData) {
+    myUniverse = universe;
+    myName = name;
+    myX1Data = x1Data;
+    myX2Data = x2Data;
+    myX1Diagram = x1Diagram;
+    myX2Diagram = x2Diagram;
+    myHasX2 = x2Data != null || x2Diagram != null;
+    myRasterCache = rasterCache;
+    myJarData = jarData;
+  }
+
+  public boolean hasRasterCache() {
+    return myRasterCache != null;
+  }
+
+  /**
+   * @return pixels of the raster from raster cache, or null if there is no cache or it is not cached
+   */
+  @Nullable
+  public int[] readRaster(boolean x2, int width, int height, int userWidth, int userHeight) {
+    DesktopSvgRasterCache rasterCache = myRasterCache;
+    if (rasterCache == null) {
+      return null;
+    }
+
+    boolean useX2 = x2 && myHasX2;
+    int[] pixels = rasterCache.read(Objects.requireNonNull(myJarData).getJarId(), myName, useX2, width, height, userWidth, userHeight);
+    if (pixels != null) {
+      // it will be read from the jar again, if other size is not cached
+      synchronized (this) {
+        if (useX2) {
+          myX2Data = null;
+        }
+        else {
+          myX1Data = null;
+        }
+      }
+    }
+    return pixels;
+  }
+
+  /**
+   * Stores rendered pixels in raster cache
+   */
+  public void writeRaster(boolean x2, int width, int height, int userWidth, int userHeight, @Nonnull int[] pixels) {
+    DesktopSvgRasterCache rasterCache = myRasterCache;
+    if (rasterCache != null) {
+      rasterCache.write(Objects.requireNonNull(myJarData).getJarId(), myName, x2 && myHasX2, width, height, userWidth, userHeight, pixels);
+    }
+  }
+
+  @Nonnull
+  public SVGDiagram getDiagram(boolean x2) throws IOException {
+    if (x2 && myHasX2) {
+      synchronized (this) {
+        if (myX2Diagram == null) {
+          myX2Diagram = load(myX2Data != null ? myX2Data : readData(true), myName + "/2x");
+          myX2Data = null;
+        }
+        return myX2Diagram;
+      }
+    }
+
+    synchronized (this) {
+      if (myX1Diagram == null) {
+        myX1Diagram = load(myX1Data != null ? myX1Data : readData(false), myName);
+        myX1Data = null;
+      }
+      return myX1Diagram;
+    }
+  }
+
+  @Nonnull
+  private byte[] readData(boolean x2) throws IOException {
+    byte[] data = Objects.requireNonNull(myJarData).read(x2);
+    if (data == null) {
+      throw new IOException("No data of " + myName);
+    }
+    return data;
+  }
+
+  @Nonnull
+  private SVGDiagram load(byte[] data, String name) throws IOException {
+    SVGUniverse universe = Objects.requireNonNull(myUniverse);
+    // universe is shared by all images of icon library
+    synchronized (universe) {
+      URI uri = universe.loadSVG(new UnsyncByteArrayInputStream(data), name);
+      return Objects.requireNonNull(universe.getDiagram(uri, false));
+    }
+  }
+}